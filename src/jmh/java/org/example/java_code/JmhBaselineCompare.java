@@ -0,0 +1,122 @@
+package org.example.java_code;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比两次 JMH 结果（-rf json），列出每个基准相对基线的变化，超过阈值的标记为回退
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.main=org.example.java_code.JmhBaselineCompare
+ * -Djmh.args="src/jmh/baseline/baseline.json target/jmh-result.json [阈值百分比，默认 10]"
+ * <p>
+ * avgt/sample/ss 分数越小越好，thrpt 越大越好。耗时变差超过阈值且超出两次结果的误差范围才算回退；
+ * 同时对比 gc.alloc.rate.norm（每次操作分配字节数），它不受机器负载影响，是更稳定的回退信号。
+ * 有回退时以退出码 1 结束，可直接用于 CI。
+ */
+public final class JmhBaselineCompare {
+
+  private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private JmhBaselineCompare() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("用法: JmhBaselineCompare <baseline.json> <current.json> [阈值百分比]");
+      System.exit(2);
+    }
+    Map<String, JsonNode> baseline = load(args[0]);
+    Map<String, JsonNode> current = load(args[1]);
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+    int regressions = 0;
+    System.out.printf("%-70s %14s %14s %9s %12s%n", "Benchmark", "baseline", "current", "change", "alloc B/op");
+    for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+      JsonNode now = entry.getValue();
+      JsonNode before = baseline.get(entry.getKey());
+      double score = now.path("primaryMetric").path("score").asDouble();
+      String unit = now.path("primaryMetric").path("scoreUnit").asText();
+      if (before == null) {
+        System.out.printf("%-70s %14s %14s %9s %12s%n", entry.getKey(), "-", format(score, unit), "new",
+            alloc(now));
+        continue;
+      }
+      double base = before.path("primaryMetric").path("score").asDouble();
+      // 正数表示变差
+      double change = base == 0 ? 0 : (score - base) / base * 100;
+      if ("thrpt".equals(now.path("mode").asText())) {
+        change = -change;
+      }
+      boolean regressed = (change > threshold && beyondError(before, now)) || allocRegressed(before, now, threshold);
+      if (regressed) {
+        regressions++;
+      }
+      System.out.printf("%-70s %14s %14s %+8.1f%% %12s%s%n", entry.getKey(), format(base, unit),
+          format(score, unit), change, alloc(before) + " -> " + alloc(now), regressed ? "  ❌ 回退" : "");
+    }
+    for (String missing : baseline.keySet()) {
+      if (!current.containsKey(missing)) {
+        System.out.printf("%-70s 本次未运行%n", missing);
+      }
+    }
+    System.out.printf("%n阈值 %.1f%%，回退 %d 项%n", threshold, regressions);
+    System.exit(regressions == 0 ? 0 : 1);
+  }
+
+  /**
+   * 基准名 + 参数 → 结果
+   */
+  private static Map<String, JsonNode> load(String path) throws IOException {
+    Map<String, JsonNode> results = new LinkedHashMap<>();
+    for (JsonNode result : objectMapper.readTree(new File(path))) {
+      StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+          .replace("org.example.java_code.", ""));
+      result.path("params").fields().forEachRemaining(param ->
+          key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+      results.put(key.toString(), result);
+    }
+    return results;
+  }
+
+  /**
+   * 两次分数之差超过两边误差（99.9% 置信区间）之和，排除共享机器上的抖动
+   */
+  private static boolean beyondError(JsonNode before, JsonNode now) {
+    JsonNode base = before.path("primaryMetric");
+    JsonNode current = now.path("primaryMetric");
+    double error = nonNaN(base.path("scoreError").asDouble()) + nonNaN(current.path("scoreError").asDouble());
+    return Math.abs(current.path("score").asDouble() - base.path("score").asDouble()) > error;
+  }
+
+  private static double nonNaN(double value) {
+    return Double.isNaN(value) ? 0 : value;
+  }
+
+  /**
+   * 每次操作分配的字节数增加超过阈值（且至少多 16 字节，避免小对象上的噪声）
+   */
+  private static boolean allocRegressed(JsonNode before, JsonNode now, double threshold) {
+    JsonNode base = before.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+    JsonNode current = now.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+    if (base.isMissingNode() || current.isMissingNode()) {
+      return false;
+    }
+    double delta = current.asDouble() - base.asDouble();
+    return delta > 16 && delta > base.asDouble() * threshold / 100;
+  }
+
+  private static String alloc(JsonNode result) {
+    JsonNode score = result.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+    return score.isMissingNode() ? "-" : String.valueOf(Math.round(score.asDouble()));
+  }
+
+  private static String format(double score, String unit) {
+    return String.format("%.3f %s", score, unit);
+  }
+}
@@ -0,0 +1,99 @@
+package org.example.java_code.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 生成接口请求/响应的 (反)序列化基准
+ * <p>
+ * 请求包含 5 篇各约 2KB 的文档，响应是约 4KB 的介绍文本，和 /api/intro/generate 调用外部生成服务时的报文规模相当。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="DtoSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private GenerationRequest request;
+
+  private ApiResponse response;
+
+  private byte[] requestJson;
+
+  private byte[] responseJson;
+
+  @Setup
+  public void setUp() throws Exception {
+    GenerationRequest.ConfigDTO.MetadataDTO metadata = new GenerationRequest.ConfigDTO.MetadataDTO();
+    metadata.setReg("SG");
+    metadata.setUserEmail("someone@example.com");
+    GenerationRequest.ConfigDTO config = new GenerationRequest.ConfigDTO();
+    config.setMetadata(metadata);
+
+    List<GenerationRequest.InputDTO.RawDocsDTO> docs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      GenerationRequest.InputDTO.RawDocsDTO doc = new GenerationRequest.InputDTO.RawDocsDTO();
+      doc.setIndexInfo("index-" + i);
+      doc.setTitle("表结构说明 " + i);
+      doc.setTextContent("字段 column_" + i + " 记录订单状态变更，\"quoted\" 内容。".repeat(50));
+      docs.add(doc);
+    }
+    GenerationRequest.InputDTO input = new GenerationRequest.InputDTO();
+    input.setRawDocs(docs);
+    input.setTableGroupId("table-group-42");
+
+    request = new GenerationRequest();
+    request.setConfig(config);
+    request.setInput(input);
+
+    ApiResponse.OutputDTO output = new ApiResponse.OutputDTO();
+    output.setIntroduction("该表用于记录订单在各个阶段的状态变化，包含创建、支付、发货等信息。\n".repeat(64));
+    ApiResponse.MetadataDTO responseMetadata = new ApiResponse.MetadataDTO();
+    responseMetadata.setRunId("run-0001");
+    responseMetadata.setFeedbackTokens(List.of("token-a", "token-b"));
+    response = new ApiResponse();
+    response.setOutput(output);
+    response.setMetadata(responseMetadata);
+
+    requestJson = objectMapper.writeValueAsBytes(request);
+    responseJson = objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public byte[] writeRequest() throws Exception {
+    return objectMapper.writeValueAsBytes(request);
+  }
+
+  @Benchmark
+  public GenerationRequest readRequest() throws Exception {
+    return objectMapper.readValue(requestJson, GenerationRequest.class);
+  }
+
+  @Benchmark
+  public byte[] writeResponse() throws Exception {
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public ApiResponse readResponse() throws Exception {
+    return objectMapper.readValue(responseJson, ApiResponse.class);
+  }
+}
@@ -0,0 +1,82 @@
+package org.example.java_code.see;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * cancelableEvent 编码基准：原来的 Map.of + SseEventBuilder + Jackson 路径 vs SseFrameEncoder
+ * <p>
+ * 两条路径都包含"写到响应"之前的全部工作：原路径的文本片段会被 StringHttpMessageConverter 编码成字节，
+ * Map 由 Jackson 写入输出流；新路径的 byte[] 由 ByteArrayHttpMessageConverter 原样写出。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="CancelableEventEncodingBenchmark -prof gc"，
+ * 每个事件的分配字节数见 gc.alloc.rate.norm。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancelableEventEncodingBenchmark {
+
+  // 与 MappingJackson2HttpMessageConverter 一致：写完不关闭响应流
+  private static final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+  private static final OutputStream response = OutputStream.nullOutputStream();
+
+  private final String streamId = "5f0c2a4e-8d1b-4a53-9a55-2f4f3c7d9e10";
+
+  private int sequence;
+
+  @Benchmark
+  public void mapAndEventBuilder(Blackhole blackhole) throws Exception {
+    int number = sequence++;
+    Set<ResponseBodyEmitter.DataWithMediaType> parts = SseEmitter.event()
+        .name("cancelableEvent")
+        .id(streamId + "-" + System.currentTimeMillis())
+        .data(Map.of(
+            "streamId", streamId,
+            "dataNumber", number,
+            "label", "RUNNING",
+            "status", "running",
+            "message", "后台持续发送数据 #" + number,
+            "timestamp", System.currentTimeMillis()))
+        .build();
+    for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+      Object data = part.getData();
+      if (data instanceof String text) {
+        blackhole.consume(text.getBytes(StandardCharsets.UTF_8));
+      } else {
+        objectMapper.writeValue(response, data);
+      }
+    }
+  }
+
+  @Benchmark
+  public void frameEncoder(Blackhole blackhole) {
+    int number = sequence++;
+    byte[] frame = SseFrameEncoder.encodeCancelableFrame(streamId, number, number, "RUNNING", "running",
+        "后台持续发送数据 #" + number, System.currentTimeMillis());
+    blackhole.consume(Set.of(new ResponseBodyEmitter.DataWithMediaType(frame, MediaType.TEXT_EVENT_STREAM)));
+  }
+}
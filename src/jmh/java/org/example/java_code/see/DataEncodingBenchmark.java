@@ -0,0 +1,104 @@
+package org.example.java_code.see;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimpleFluxSseData 数据编码基准：ObjectMapper 序列化对象 vs 预编码 JSON 模板 vs compact vs binary
+ * <p>
+ * 除编码耗时外，WireSize 统计每次调用产生的 data 字节数：结果中 bytes / ops 即每个事件的线上大小
+ * （不含 id/event 行，compact / binary 的字典只在流开始时发送一次，不计入）。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="DataEncodingBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataEncodingBenchmark {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final long baseTimestamp = System.currentTimeMillis();
+
+  private final SseDataCodec json = SseDataCodec.open(SseDataCodec.Encoding.JSON, baseTimestamp);
+
+  private final SseDataCodec compact = SseDataCodec.open(SseDataCodec.Encoding.COMPACT, baseTimestamp);
+
+  private final SseDataCodec binary = SseDataCodec.open(SseDataCodec.Encoding.BINARY, baseTimestamp);
+
+  private int sequence;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class WireSize {
+
+    public long bytes;
+
+    public long ops;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+      ops = 0;
+    }
+
+    byte[] record(byte[] data) {
+      bytes += data.length;
+      ops++;
+      return data;
+    }
+  }
+
+  /**
+   * 编码前的写法：每个事件创建 SimpleFluxSseData 并交给 ObjectMapper
+   */
+  @Benchmark
+  public byte[] objectMapper(WireSize size) throws Exception {
+    int number = nextNumber();
+    SseFrameTemplates.Template template = SseFrameTemplates.forNumber(number);
+    return size.record(objectMapper.writeValueAsBytes(SimpleFluxSseData.builder()
+        .dataNumber(number)
+        .label(template.getLabel())
+        .status(template.getStatus())
+        .timestamp(System.currentTimeMillis())
+        .message(template.getMessage())
+        .build()));
+  }
+
+  @Benchmark
+  public byte[] jsonTemplate(WireSize size) {
+    return size.record(json.encode(nextNumber(), System.currentTimeMillis()));
+  }
+
+  @Benchmark
+  public byte[] compact(WireSize size) {
+    return size.record(compact.encode(nextNumber(), System.currentTimeMillis()));
+  }
+
+  @Benchmark
+  public byte[] binary(WireSize size) {
+    return size.record(binary.encode(nextNumber(), System.currentTimeMillis()));
+  }
+
+  /**
+   * 1..10 循环，覆盖全部阶段
+   */
+  private int nextNumber() {
+    return sequence++ % 10 + 1;
+  }
+}
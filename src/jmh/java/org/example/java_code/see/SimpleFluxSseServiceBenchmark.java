@@ -0,0 +1,90 @@
+package org.example.java_code.see;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.SseProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SimpleFluxSseService 热点路径基准
+ * <p>
+ * 1. processDataWithLabel：按数字取阶段模板并构造 SimpleFluxSseData 2. serializeData：ObjectMapper 序列化
+ * SimpleFluxSseData（预编码模板的对比见 DataEncodingBenchmark） 3. registerAndCancel：建立一个可取消流（注册表、归属登记、
+ * 心跳登记、CONTROL 事件）再取消（CANCELLED 事件、注销）的完整往返
+ * <p>
+ * cancelableEvent 的编码见 CancelableEventEncodingBenchmark，注册表本身的查找和索引维护见 StreamRegistryBenchmark。
+ * 日志级别调到 WARN，只测业务代码本身。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="SimpleFluxSseServiceBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleFluxSseServiceBenchmark {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final List<String> TAGS = List.of("dashboard");
+
+  private SseTickScheduler tickScheduler;
+
+  private SimpleFluxSseService service;
+
+  private int sequence;
+
+  @Setup
+  public void setUp() {
+    ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    SseProperties properties = new SseProperties();
+    // 回收任务与基准无关，避免后台扫描干扰
+    properties.getReaper().setInterval(Duration.ZERO);
+    tickScheduler = new SseTickScheduler(properties);
+    tickScheduler.start();
+    service = new SimpleFluxSseService(tickScheduler, new SseOutboundQueues(properties),
+        new SseClusterNode(new InMemoryStreamOwnershipDirectory(), new LoopbackCancelBus(), properties),
+        properties);
+    service.start();
+  }
+
+  @TearDown
+  public void tearDown() {
+    service.shutdown();
+    tickScheduler.shutdown();
+  }
+
+  @Benchmark
+  public SimpleFluxSseData processDataWithLabel() {
+    return service.processDataWithLabel(sequence++ % 10 + 1);
+  }
+
+  @Benchmark
+  public byte[] serializeData() throws Exception {
+    return objectMapper.writeValueAsBytes(service.processDataWithLabel(sequence++ % 10 + 1));
+  }
+
+  @Benchmark
+  public boolean registerAndCancel() throws Exception {
+    String streamId = "bench-" + sequence++;
+    // 订阅后取消才会结束超时任务，和真实连接一致
+    service.createCancelableEventFlux(streamId, "owner-1", TAGS, null, Duration.ofHours(1)).subscribe();
+    return service.cancelCancelableStream(streamId, "cancelled", "基准取消");
+  }
+}
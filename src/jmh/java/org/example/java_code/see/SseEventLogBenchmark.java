@@ -0,0 +1,173 @@
+package org.example.java_code.see;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.example.java_code.config.SseProperties;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 逐事件日志对发送线程吞吐的影响：每次操作编码一个 simpleFluxEvent 数据并按配置输出日志，分数即每秒事件数
+ * <p>
+ * mode：
+ * 1. off：sse.logging.per-event=false 2. sync：每个事件都在发送线程上格式化、编码、写出
+ * 3. async：每个事件都进入 AsyncAppender（neverBlock），由后台线程写出 4. async-sampled：默认采样配置
+ * （每 100 个一条、每秒最多 10 条）+ AsyncAppender
+ * <p>
+ * sink：null 丢弃数据，只计格式化和编码本身；slow 每条日志阻塞 50µs，模拟终端、管道或磁盘写满时的控制台输出。
+ * Written.lines 为实际写出的日志条数：async 模式下队列满时直接丢弃，lines 小于 ops 的部分即被丢弃的日志。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="SseEventLogBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseEventLogBenchmark {
+
+  private static final LongAdder LINES = new LongAdder();
+
+  @Param({ "off", "sync", "async", "async-sampled" })
+  public String mode;
+
+  @Param({ "null", "slow" })
+  public String sink;
+
+  private final SseDataCodec codec = SseDataCodec.open(SseDataCodec.Encoding.JSON, System.currentTimeMillis());
+
+  private Appender<ILoggingEvent> appender;
+
+  private SseEventLog.Stream stream;
+
+  private int sequence;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Written {
+
+    public long lines;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      LINES.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void collect() {
+      lines = LINES.sum();
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Logger logger = context.getLogger(SseEventLog.class);
+    logger.detachAndStopAllAppenders();
+    logger.setAdditive(false);
+    logger.setLevel(ch.qos.logback.classic.Level.INFO);
+
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level %pid --- [%15.15thread] %-40.40logger{39} : %msg%n");
+    encoder.setCharset(StandardCharsets.UTF_8);
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+    output.setContext(context);
+    output.setEncoder(encoder);
+    output.setOutputStream(new CountingStream("slow".equals(sink) ? 50_000 : 0));
+    output.start();
+
+    if (mode.startsWith("async")) {
+      AsyncAppender async = new AsyncAppender();
+      async.setContext(context);
+      async.setQueueSize(8192);
+      async.setDiscardingThreshold(0);
+      async.setNeverBlock(true);
+      async.addAppender(output);
+      async.start();
+      appender = async;
+    } else {
+      appender = output;
+    }
+    logger.addAppender(appender);
+
+    SseProperties.LoggingDTO config = new SseProperties.LoggingDTO();
+    config.setPerEvent(!"off".equals(mode));
+    if (!"async-sampled".equals(mode)) {
+      config.setSampleEvery(1);
+      config.setMaxPerSecond(0);
+    }
+    stream = new SseEventLog(config).open("benchmark");
+  }
+
+  @TearDown
+  public void tearDown() {
+    appender.stop();
+    ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(SseEventLog.class).detachAppender(appender);
+  }
+
+  /**
+   * 与 createSimpleFluxStream 的 doOnNext 相同：编码数据，采样到时才转成字符串输出
+   */
+  @Benchmark
+  public byte[] emitEvent(Written written) {
+    byte[] data = codec.encode(nextNumber(), System.currentTimeMillis());
+    if (stream.sample()) {
+      stream.info("📤 发送SSE数据:", new String(data, StandardCharsets.UTF_8));
+    }
+    return data;
+  }
+
+  private int nextNumber() {
+    sequence = sequence % 10 + 1;
+    return sequence;
+  }
+
+  /**
+   * 丢弃数据并计数（OutputStreamAppender 每条日志调用一次 write(byte[], int, int)），可选每条阻塞 delayNanos
+   */
+  private static final class CountingStream extends OutputStream {
+    private final long delayNanos;
+
+    private CountingStream(long delayNanos) {
+      this.delayNanos = delayNanos;
+    }
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      LINES.increment();
+      if (delayNanos > 0) {
+        LockSupport.parkNanos(delayNanos);
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.example.java_code.see;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.java_code.config.SseProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 共享心跳调度器基准：注册 100 ~ 50k 个空回调，测一次 tick 从遍历注册表到所有批次发送完成的耗时
+ * <p>
+ * 定时周期设为 1 小时（基准期间定时任务不会触发），由基准线程直接驱动 tick，每次等本轮回调全部执行完再返回，避免上一轮批次还在排队导致整 tick 跳过。
+ * 结束时打印 stats() 中的 lastTickMicros（定时线程遍历 + 提交批次的耗时）、pendingBatches。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="SseTickSchedulerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseTickSchedulerBenchmark {
+
+  @Param({ "100", "1000", "10000", "50000" })
+  private int registrations;
+
+  private final LongAdder fired = new LongAdder();
+
+  private SseTickScheduler tickScheduler;
+
+  private long expected;
+
+  @Setup
+  public void setUp() {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofHours(1));
+    tickScheduler = new SseTickScheduler(properties);
+    tickScheduler.start();
+    for (int i = 0; i < registrations; i++) {
+      tickScheduler.register(sequence -> fired.increment());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    Map<String, Object> stats = tickScheduler.stats();
+    System.out.printf("%nregistrations=%d lastTickMicros=%s pendingBatches=%s skippedTicks=%s%n",
+        registrations, stats.get("lastTickMicros"), stats.get("pendingBatches"), stats.get("skippedTicks"));
+    tickScheduler.shutdown();
+  }
+
+  @Benchmark
+  public long tick() {
+    expected += registrations;
+    tickScheduler.tick();
+    while (fired.sum() < expected) {
+      Thread.onSpinWait();
+    }
+    return expected;
+  }
+}
@@ -0,0 +1,118 @@
+package org.example.java_code.see;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 流注册表基准：100k 个流，1000 个所有者（每个 100 个流），100 个标签
+ * <p>
+ * 1. lookup：按 streamId 查找（单个取消的路径） 2. churn：注册 + 注销一个流，包含所有者、标签索引的维护 3.
+ * findByOwner / findByTag：批量取消定位匹配流，对比原来只有 streamId → 上下文一张表时的全表扫描
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="StreamRegistryBenchmark"，并发注册/注销加 -t 8。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamRegistryBenchmark {
+
+  @Param({ "100000" })
+  private int streams;
+
+  private static final int OWNERS = 1000;
+
+  private static final int TAGS = 100;
+
+  private final SseStreamRegistry<Object> registry = new SseStreamRegistry<>();
+
+  /**
+   * 没有索引时的基线：streamId → (所有者, 标签)
+   */
+  private final Map<String, String[]> flat = new ConcurrentHashMap<>();
+
+  private final AtomicLong churnSequence = new AtomicLong();
+
+  private String[] ids;
+
+  @Setup
+  public void setUp() {
+    ids = new String[streams];
+    for (int i = 0; i < streams; i++) {
+      String id = "stream-" + i;
+      String owner = "owner-" + (i % OWNERS);
+      String tag = "tag-" + (i % TAGS);
+      ids[i] = id;
+      registry.register(id, owner, List.of(tag), new Object());
+      flat.put(id, new String[] { owner, tag });
+    }
+  }
+
+  @Benchmark
+  public Object lookup() {
+    return registry.get(ids[ThreadLocalRandom.current().nextInt(streams)]);
+  }
+
+  @Benchmark
+  public boolean churn() {
+    long n = churnSequence.incrementAndGet();
+    String id = "churn-" + n;
+    Object value = new Object();
+    registry.register(id, "owner-" + (n % OWNERS), List.of("tag-" + (n % TAGS)), value);
+    return registry.unregister(id, value);
+  }
+
+  @Benchmark
+  public int findByOwner() {
+    return registry.findByOwner("owner-" + ThreadLocalRandom.current().nextInt(OWNERS)).size();
+  }
+
+  @Benchmark
+  public int scanByOwner() {
+    String owner = "owner-" + ThreadLocalRandom.current().nextInt(OWNERS);
+    List<String> matched = new ArrayList<>();
+    flat.forEach((id, meta) -> {
+      if (owner.equals(meta[0])) {
+        matched.add(id);
+      }
+    });
+    return matched.size();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int findByTag() {
+    return registry.findByTag("tag-" + ThreadLocalRandom.current().nextInt(TAGS)).size();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int scanByTag() {
+    String tag = "tag-" + ThreadLocalRandom.current().nextInt(TAGS);
+    List<String> matched = new ArrayList<>();
+    flat.forEach((id, meta) -> {
+      if (tag.equals(meta[1])) {
+        matched.add(id);
+      }
+    });
+    return matched.size();
+  }
+}
@@ -0,0 +1,154 @@
+package org.example.java_code.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.ApiClientConfig;
+import org.example.java_code.config.ApiClientProperties;
+import org.example.java_code.config.AppConfig;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.impl.ApiServiceImpl;
+import org.example.java_code.service.impl.CachingApiService;
+import org.example.java_code.service.impl.ResilientApiService;
+import org.example.java_code.service.impl.WebClientApiServiceImpl;
+import org.example.java_code.stub.StubGenerationServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * ApiService 端到端调用耗时：4 个线程并发调用本地 StubGenerationServer，结果为每次调用耗时的分布（p50/p99 等）
+ * <p>
+ * client：rest-template（ApiServiceImpl）或 web-client（WebClientApiServiceImpl），均按生产配置构建（AppConfig / ApiClientConfig）。
+ * <p>
+ * mode：
+ * 1. plain：直接调用客户端 2. caching：CachingApiService，keys 个不同请求轮流调用，预热后基本都是命中
+ * 3. resilient：ResilientApiService 默认配置（不对冲） 4. hedged：ResilientApiService 开启对冲
+ * <p>
+ * latency：fixed 固定 20ms；long-tail 中位数 20ms 的对数正态分布，另有 5% 的请求耗时 250ms。
+ * errorRate 为桩服务的失败概率，失败的调用同样计入耗时（返回异常而不是结果）。
+ * 每个组合结束时输出桩服务收到的请求数和 ApiService.stats()，用于确认缓存命中、对冲次数等。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="ApiServiceBenchmark"
+ * （只比较部分组合时加 -p，例如 -p client=web-client -p latency=long-tail；并发数用 -t 调整）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ApiServiceBenchmark {
+
+  @Param({ "rest-template", "web-client" })
+  public String client;
+
+  @Param({ "plain", "caching", "resilient", "hedged" })
+  public String mode;
+
+  @Param({ "fixed", "long-tail" })
+  public String latency;
+
+  @Param({ "0" })
+  public double errorRate;
+
+  @Param({ "64" })
+  public int keys;
+
+  private StubGenerationServer stub;
+
+  private ConnectionProvider connectionProvider;
+
+  private ApiService apiService;
+
+  private GenerationRequest[] requests;
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    stub = StubGenerationServer.start();
+    stub.setErrorRate(errorRate);
+    stub.setIntroductionLength(2000);
+    Duration median = Duration.ofMillis(20);
+    stub.setLatency("long-tail".equals(latency)
+        ? StubGenerationServer.Latency.withTail(StubGenerationServer.Latency.logNormal(median, 0.3),
+            0.05, Duration.ofMillis(250))
+        : StubGenerationServer.Latency.fixed(median));
+
+    ApiClientProperties properties = new ApiClientProperties();
+    ApiService base;
+    if ("rest-template".equals(client)) {
+      base = new ApiServiceImpl(new AppConfig().restTemplate(properties));
+    } else {
+      ApiClientConfig config = new ApiClientConfig();
+      connectionProvider = config.apiConnectionProvider(properties);
+      base = new WebClientApiServiceImpl(
+          config.apiWebClient(WebClient.builder(), connectionProvider, properties), new ObjectMapper());
+    }
+    ReflectionTestUtils.setField(base, "apiUrl", stub.invokeUrl());
+
+    ApiClientProperties.ResilienceDTO resilience = properties.getResilience();
+    apiService = switch (mode) {
+      case "caching" -> new CachingApiService(base, properties.getCache());
+      case "resilient" -> new ResilientApiService(base, resilience, new SimpleMeterRegistry());
+      case "hedged" -> {
+        resilience.getHedge().setEnabled(true);
+        yield new ResilientApiService(base, resilience, new SimpleMeterRegistry());
+      }
+      default -> base;
+    };
+
+    requests = new GenerationRequest[keys];
+    for (int i = 0; i < keys; i++) {
+      GenerationRequest.InputDTO.RawDocsDTO doc = new GenerationRequest.InputDTO.RawDocsDTO();
+      doc.setTitle("FAQ");
+      doc.setTextContent("表组使用说明 " + i);
+      GenerationRequest.InputDTO input = new GenerationRequest.InputDTO();
+      input.setTableGroupId("table-group-" + i);
+      input.setRawDocs(Collections.singletonList(doc));
+      GenerationRequest request = new GenerationRequest();
+      request.setInput(input);
+      requests[i] = request;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.out.printf("%n桩服务请求 %d 次（失败 %d 次），stats=%s%n", stub.requests(), stub.errors(), apiService.stats());
+    stub.close();
+    if (connectionProvider != null) {
+      connectionProvider.dispose();
+    }
+  }
+
+  @Benchmark
+  public Object generate(Cursor cursor) {
+    GenerationRequest request = requests[cursor.next];
+    cursor.next = (cursor.next + 1) % requests.length;
+    try {
+      return apiService.generateIntroduction(request);
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+}
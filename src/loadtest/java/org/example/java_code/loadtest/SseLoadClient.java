@@ -0,0 +1,132 @@
+package org.example.java_code.loadtest;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 单个 SSE 连接：按行解析事件，记录首个事件耗时、事件间隔和字节数
+ * <p>
+ * 运行在自己的虚拟线程上，阻塞读取响应体；/cancelable 连接在保持 hold 之后调用取消接口，再读到流结束。
+ */
+final class SseLoadClient {
+
+  /**
+   * 单个连接的测量结果
+   *
+   * @param ttfeMicros   从发出请求到收到第一个完整事件，未收到时为 -1
+   * @param gapsMicros   相邻事件的间隔
+   * @param cancelMicros 从调用取消接口到流结束，没有取消时为 -1
+   * @param error        失败原因，成功时为 null
+   */
+  record Result(String endpoint, int status, long ttfeMicros, long[] gapsMicros, int events, long bytes,
+      long cancelMicros, String error) {
+  }
+
+  private final HttpClient httpClient;
+
+  private final String baseUrl;
+
+  private final String endpoint;
+
+  private final Duration hold;
+
+  private final Duration timeout;
+
+  SseLoadClient(HttpClient httpClient, String baseUrl, String endpoint, Duration hold, Duration timeout) {
+    this.httpClient = httpClient;
+    this.baseUrl = baseUrl;
+    this.endpoint = endpoint;
+    this.hold = hold;
+    this.timeout = timeout;
+  }
+
+  Result run() {
+    boolean cancelable = "cancelable".equals(endpoint);
+    String streamId = cancelable ? UUID.randomUUID().toString() : null;
+    String url = baseUrl + "/api/sse/" + endpoint + (cancelable ? "?streamId=" + streamId + "&owner=loadtest" : "");
+    HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+        .header("Accept", "text/event-stream")
+        .timeout(timeout)
+        .GET()
+        .build();
+
+    long start = System.nanoTime();
+    long[] gaps = new long[16];
+    int gapCount = 0;
+    int events = 0;
+    long bytes = 0;
+    long ttfe = -1;
+    long lastEvent = 0;
+    long cancelStart = 0;
+    long cancelMicros = -1;
+    int status = 0;
+    try {
+      HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      status = response.statusCode();
+      if (status != 200) {
+        response.body().close();
+        return new Result(endpoint, status, -1, new long[0], 0, 0, -1, "HTTP " + status);
+      }
+      long deadline = cancelable ? start + hold.toNanos() : Long.MAX_VALUE;
+      try (BufferedReader reader = new BufferedReader(
+          new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+        boolean hasField = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+          bytes += line.length() + 1;
+          if (!line.isEmpty()) {
+            // 以冒号开头的是注释（心跳保活），不算事件
+            hasField |= line.charAt(0) != ':';
+            continue;
+          }
+          if (!hasField) {
+            continue;
+          }
+          hasField = false;
+          long now = System.nanoTime();
+          if (events++ == 0) {
+            ttfe = (now - start) / 1000;
+          } else {
+            if (gapCount == gaps.length) {
+              gaps = Arrays.copyOf(gaps, gapCount * 2);
+            }
+            gaps[gapCount++] = (now - lastEvent) / 1000;
+          }
+          lastEvent = now;
+          // 事件之间检查是否到了取消时间：取消后继续读，直到服务端发完 CANCELLED 并结束流
+          if (cancelStart == 0 && now >= deadline) {
+            cancelStart = now;
+            cancel(streamId);
+          }
+        }
+      }
+      if (cancelStart != 0) {
+        cancelMicros = (System.nanoTime() - cancelStart) / 1000;
+      }
+      return new Result(endpoint, status, ttfe, Arrays.copyOf(gaps, gapCount), events, bytes, cancelMicros, null);
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return new Result(endpoint, status, ttfe, Arrays.copyOf(gaps, gapCount), events, bytes, cancelMicros,
+          e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage()));
+    }
+  }
+
+  private void cancel(String streamId) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/sse/cancel/" + streamId))
+        .timeout(Duration.ofSeconds(10))
+        .POST(HttpRequest.BodyPublishers.noBody())
+        .build();
+    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+  }
+}
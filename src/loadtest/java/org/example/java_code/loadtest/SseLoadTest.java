@@ -0,0 +1,325 @@
+package org.example.java_code.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.example.java_code.JavaCodeApplication;
+import org.example.java_code.see.SsePercentiles;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * /api/sse 压测：在一个 JVM 里用虚拟线程 + JDK HttpClient 同时打开 N 个 SSE 连接
+ * <p>
+ * 1. 连接按 endpoints 轮流分配，在 ramp 时间内均匀建立 2. 每个连接记录首个事件耗时（TTFE）、事件间隔、字节数；/cancelable
+ * 保持 hold 后调用取消接口并记录取消到流结束的耗时 3. 压测期间按 sample-interval 采样 /api/sse/stats 中的堆、线程数和可取消流数量 4.
+ * 结束后输出 JSON 报告
+ * <p>
+ * 运行（先启动服务，或加 --embedded 在同一个 JVM 里启动）：
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=2000 --endpoints=simple,heartbeat,cancelable"
+ * </pre>
+ * 参数：--base-url（默认 http://localhost:8080）、--clients、--endpoints、--ramp、--hold、--timeout、--sample-interval、
+ * --report（默认 target/sse-load-report.json）、--embedded。--embedded 时服务端堆包含客户端自身的对象，只适合粗略对比。
+ */
+public final class SseLoadTest {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper()
+      .enable(SerializationFeature.INDENT_OUTPUT);
+
+  private SseLoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parseOptions(args);
+    int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+    List<String> endpoints = List.of(options.getOrDefault("endpoints", "simple,heartbeat,cancelable").split(","));
+    Duration ramp = duration(options.getOrDefault("ramp", "10s"));
+    Duration hold = duration(options.getOrDefault("hold", "15s"));
+    Duration timeout = duration(options.getOrDefault("timeout", "2m"));
+    Duration sampleInterval = duration(options.getOrDefault("sample-interval", "1s"));
+    File reportFile = new File(options.getOrDefault("report", "target/sse-load-report.json"));
+    boolean embedded = options.containsKey("embedded");
+
+    ConfigurableApplicationContext server = null;
+    String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+    if (embedded) {
+      server = SpringApplication.run(JavaCodeApplication.class, "--server.port=0");
+      baseUrl = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+    }
+
+    try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(threads)
+            .build()) {
+      System.out.printf("🚀 %d 个连接 → %s %s（ramp %s，hold %s）%n", clients, baseUrl, endpoints, ramp, hold);
+
+      ServerSampler sampler = new ServerSampler(httpClient, baseUrl, sampleInterval);
+      Future<?> sampling = threads.submit(sampler);
+
+      long start = System.nanoTime();
+      List<Future<SseLoadClient.Result>> futures = new ArrayList<>(clients);
+      long rampNanos = ramp.toNanos();
+      for (int i = 0; i < clients; i++) {
+        long startAt = start + (clients <= 1 ? 0 : rampNanos * i / (clients - 1));
+        SseLoadClient client = new SseLoadClient(httpClient, baseUrl, endpoints.get(i % endpoints.size()), hold,
+            timeout);
+        futures.add(threads.submit(() -> {
+          long delay = startAt - System.nanoTime();
+          if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+          }
+          return client.run();
+        }));
+      }
+
+      long deadline = start + rampNanos + timeout.toNanos();
+      List<SseLoadClient.Result> results = new ArrayList<>(clients);
+      int timedOut = 0;
+      for (Future<SseLoadClient.Result> future : futures) {
+        try {
+          results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+          future.cancel(true);
+          timedOut++;
+        }
+      }
+      long elapsedNanos = System.nanoTime() - start;
+      sampler.stop();
+      sampling.get();
+
+      Map<String, Object> report = new LinkedHashMap<>();
+      Map<String, Object> config = new LinkedHashMap<>();
+      config.put("baseUrl", baseUrl);
+      config.put("clients", clients);
+      config.put("endpoints", endpoints);
+      config.put("ramp", ramp.toString());
+      config.put("hold", hold.toString());
+      config.put("timeout", timeout.toString());
+      config.put("embedded", embedded);
+      report.put("config", config);
+      report.put("startedAt", Instant.now().minusNanos(elapsedNanos).toString());
+      report.put("durationMillis", elapsedNanos / 1_000_000);
+      report.put("timedOut", timedOut);
+      report.put("totals", summarize(results, elapsedNanos));
+      Map<String, Object> byEndpoint = new LinkedHashMap<>();
+      for (String endpoint : endpoints) {
+        byEndpoint.put(endpoint, summarize(results.stream().filter(r -> r.endpoint().equals(endpoint)).toList(),
+            elapsedNanos));
+      }
+      report.put("endpoints", byEndpoint);
+      report.put("server", sampler.summary());
+
+      File parent = reportFile.getAbsoluteFile().getParentFile();
+      if (parent != null) {
+        parent.mkdirs();
+      }
+      objectMapper.writeValue(reportFile, report);
+      System.out.println(objectMapper.writeValueAsString(report.get("totals")));
+      System.out.println("📄 报告: " + reportFile.getAbsolutePath());
+    } finally {
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+
+  /**
+   * 汇总一组连接的结果；耗时单位为毫秒（保留三位小数）
+   */
+  static Map<String, Object> summarize(List<SseLoadClient.Result> results, long elapsedNanos) {
+    int failed = 0;
+    long events = 0;
+    long bytes = 0;
+    Map<String, Integer> errors = new TreeMap<>();
+    long[] ttfe = new long[results.size()];
+    int ttfeCount = 0;
+    long[] cancel = new long[results.size()];
+    int cancelCount = 0;
+    int gapTotal = 0;
+    for (SseLoadClient.Result result : results) {
+      gapTotal += result.gapsMicros().length;
+    }
+    long[] gaps = new long[gapTotal];
+    int gapCount = 0;
+    for (SseLoadClient.Result result : results) {
+      if (result.error() != null) {
+        failed++;
+        errors.merge(truncate(result.error()), 1, Integer::sum);
+      }
+      events += result.events();
+      bytes += result.bytes();
+      if (result.ttfeMicros() >= 0) {
+        ttfe[ttfeCount++] = result.ttfeMicros();
+      }
+      if (result.cancelMicros() >= 0) {
+        cancel[cancelCount++] = result.cancelMicros();
+      }
+      System.arraycopy(result.gapsMicros(), 0, gaps, gapCount, result.gapsMicros().length);
+      gapCount += result.gapsMicros().length;
+    }
+    double seconds = elapsedNanos / 1e9;
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("connections", results.size());
+    summary.put("failed", failed);
+    summary.put("events", events);
+    summary.put("bytes", bytes);
+    summary.put("eventsPerSecond", Math.round(events / seconds));
+    summary.put("bytesPerSecond", Math.round(bytes / seconds));
+    summary.put("ttfeMillis", distribution(Arrays.copyOf(ttfe, ttfeCount)));
+    summary.put("gapMillis", distribution(gaps));
+    if (cancelCount > 0) {
+      summary.put("cancelMillis", distribution(Arrays.copyOf(cancel, cancelCount)));
+    }
+    summary.put("errors", errors);
+    return summary;
+  }
+
+  private static Map<String, Object> distribution(long[] micros) {
+    Arrays.sort(micros);
+    Map<String, Object> distribution = new LinkedHashMap<>();
+    distribution.put("count", micros.length);
+    distribution.put("p50", millis(SsePercentiles.percentile(micros, 0.50)));
+    distribution.put("p90", millis(SsePercentiles.percentile(micros, 0.90)));
+    distribution.put("p99", millis(SsePercentiles.percentile(micros, 0.99)));
+    distribution.put("max", millis(micros.length == 0 ? 0 : micros[micros.length - 1]));
+    return distribution;
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static String truncate(String error) {
+    return error.length() > 120 ? error.substring(0, 120) : error;
+  }
+
+  private static Duration duration(String value) {
+    return DurationStyle.detectAndParse(value);
+  }
+
+  /**
+   * --key=value，单独的 --key 视为 true
+   */
+  private static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        throw new IllegalArgumentException("无法识别的参数: " + arg);
+      }
+      int eq = arg.indexOf('=');
+      if (eq < 0) {
+        options.put(arg.substring(2), "true");
+      } else {
+        options.put(arg.substring(2, eq), arg.substring(eq + 1));
+      }
+    }
+    return options;
+  }
+
+  /**
+   * 按固定间隔采样服务端 /api/sse/stats，记录堆、平台线程数和可取消流数量
+   */
+  private static final class ServerSampler implements Runnable {
+
+    private final HttpClient httpClient;
+
+    private final HttpRequest request;
+
+    private final Duration interval;
+
+    private final List<Map<String, Object>> samples = new ArrayList<>();
+
+    private final long start = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    private int failures;
+
+    private ServerSampler(HttpClient httpClient, String baseUrl, Duration interval) {
+      this.httpClient = httpClient;
+      this.request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/sse/stats"))
+          .timeout(Duration.ofSeconds(5))
+          .GET()
+          .build();
+      this.interval = interval;
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        sample();
+        try {
+          Thread.sleep(interval.toMillis());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      // 结束时再采一次，看连接释放后的状态
+      sample();
+    }
+
+    private void sample() {
+      try {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode stats = objectMapper.readTree(response.body());
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000);
+        sample.put("heapUsed", stats.path("jvm").path("heapUsed").asLong());
+        sample.put("liveThreads", stats.path("jvm").path("liveThreads").asInt());
+        sample.put("cancelableStreams", stats.path("cancelableStreams").asInt());
+        sample.put("outboundQueues", stats.path("outbound").path("streams").asInt());
+        synchronized (samples) {
+          samples.add(sample);
+        }
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        failures++;
+      }
+    }
+
+    private void stop() {
+      running = false;
+    }
+
+    private Map<String, Object> summary() {
+      List<Map<String, Object>> copy;
+      synchronized (samples) {
+        copy = new ArrayList<>(samples);
+      }
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("maxHeapUsed", copy.stream().mapToLong(s -> (long) s.get("heapUsed")).max().orElse(0));
+      summary.put("maxLiveThreads", copy.stream().mapToInt(s -> (int) s.get("liveThreads")).max().orElse(0));
+      summary.put("maxCancelableStreams",
+          copy.stream().mapToInt(s -> (int) s.get("cancelableStreams")).max().orElse(0));
+      summary.put("sampleFailures", failures);
+      summary.put("samples", copy);
+      return summary;
+    }
+  }
+}
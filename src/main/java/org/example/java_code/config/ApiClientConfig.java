@@ -0,0 +1,88 @@
+package org.example.java_code.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.impl.ApiServiceImpl;
+import org.example.java_code.service.impl.CachingApiService;
+import org.example.java_code.service.impl.ResilientApiService;
+import org.example.java_code.service.impl.SingleFlightApiService;
+import org.example.java_code.service.impl.WebClientApiServiceImpl;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * 生成接口的 HTTP 客户端
+ * <p>
+ * WebClient 基于 Reactor Netty：带 keep-alive 连接池（按主机限制连接数、排队上限）以及连接/读/写/响应超时，
+ * 上百个进行中的生成请求只占用少量 event-loop 线程。
+ */
+@Configuration
+@EnableConfigurationProperties(ApiClientProperties.class)
+public class ApiClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider apiConnectionProvider(ApiClientProperties properties) {
+        return ConnectionProvider.builder("group-intro")
+                .maxConnections(properties.getMaxConnectionsPerHost())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictInBackground())
+                .build();
+    }
+
+    @Bean
+    public WebClient apiWebClient(WebClient.Builder builder,
+                                  ConnectionProvider apiConnectionProvider,
+                                  ApiClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(apiConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .doOnConnected(connection -> connection
+                        .addHandlerLast(new ReadTimeoutHandler(
+                                properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(
+                                properties.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)));
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * 默认注入的 ApiService：由 api.client.mode 决定底层实现，再按配置叠加上游保护、进行中请求去重和缓存
+     * <p>
+     * 保护层紧贴底层实现，只约束真正发出的上游请求；缓存命中和合并的请求不占用并发名额，也不计入熔断失败率。
+     */
+    @Bean
+    @Primary
+    public ApiService apiService(ApiServiceImpl restTemplateApiService,
+                                 WebClientApiServiceImpl webClientApiService,
+                                 ApiClientProperties properties,
+                                 MeterRegistry meterRegistry) {
+        ApiService apiService = properties.getMode() == ApiClientProperties.ClientMode.REST_TEMPLATE
+                ? restTemplateApiService
+                : webClientApiService;
+        if (properties.getResilience().isEnabled()) {
+            apiService = new ResilientApiService(apiService, properties.getResilience(), meterRegistry);
+        }
+        if (properties.getSingleFlight().isEnabled()) {
+            apiService = new SingleFlightApiService(apiService);
+        }
+        if (properties.getCache().isEnabled()) {
+            apiService = new CachingApiService(apiService, properties.getCache());
+        }
+        return apiService;
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.java_code.config;
+
+import java.time.Duration;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 生成接口（group_intro）HTTP 客户端配置（前缀 api.client）
+ */
+@NoArgsConstructor
+@Data
+@ConfigurationProperties(prefix = "api.client")
+public class ApiClientProperties {
+
+    /**
+     * ApiService 默认实现：rest-template（阻塞）或 web-client（非阻塞）
+     */
+    private ClientMode mode = ClientMode.WEB_CLIENT;
+    /**
+     * 建立连接超时
+     */
+    private Duration connectTimeout = Duration.ofSeconds(3);
+    /**
+     * 等待响应超时（生成接口耗时较长）
+     */
+    private Duration responseTimeout = Duration.ofSeconds(120);
+    /**
+     * 连接上两次读之间的最大间隔
+     */
+    private Duration readTimeout = Duration.ofSeconds(120);
+    /**
+     * 写请求超时
+     */
+    private Duration writeTimeout = Duration.ofSeconds(10);
+    /**
+     * 每个目标主机的最大连接数（Reactor Netty 的连接池按远端地址划分）
+     */
+    private int maxConnectionsPerHost = 200;
+    /**
+     * 连接池满时允许排队等待连接的请求数
+     */
+    private int pendingAcquireMaxCount = 1000;
+    /**
+     * 排队等待连接的超时
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+    /**
+     * 空闲连接保留时间（keep-alive）
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    /**
+     * 单个连接的最长存活时间
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+    /**
+     * 后台清理空闲连接的周期
+     */
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    private CacheDTO cache = new CacheDTO();
+
+    private SingleFlightDTO singleFlight = new SingleFlightDTO();
+
+    private ResilienceDTO resilience = new ResilienceDTO();
+
+    /**
+     * 生成结果缓存配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class CacheDTO {
+        private boolean enabled = true;
+        /**
+         * 最多缓存的结果数
+         */
+        private long maximumSize = 1000;
+        /**
+         * 结果写入后的存活时间
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+
+    /**
+     * 进行中请求去重配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class SingleFlightDTO {
+        private boolean enabled = true;
+    }
+
+    /**
+     * 上游保护层配置：调用期限、并发上限、熔断、对冲请求
+     */
+    @NoArgsConstructor
+    @Data
+    public static class ResilienceDTO {
+        private boolean enabled = true;
+        /**
+         * 单次调用期限（含对冲请求），超过后取消上游调用并返回 504
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+        /**
+         * 同时进行的上游调用上限，超出的调用直接返回 503
+         */
+        private int maxConcurrentCalls = 64;
+
+        private CircuitBreakerDTO circuitBreaker = new CircuitBreakerDTO();
+
+        private HedgeDTO hedge = new HedgeDTO();
+    }
+
+    /**
+     * 熔断器配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class CircuitBreakerDTO {
+        /**
+         * 统计失败率的最近调用数
+         */
+        private int slidingWindowSize = 20;
+        /**
+         * 窗口内至少有这么多次调用才计算失败率
+         */
+        private int minimumCalls = 10;
+        /**
+         * 失败率（百分比）达到该值时打开
+         */
+        private double failureRateThreshold = 50;
+        /**
+         * 打开后保持的时间，到期进入半开
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /**
+         * 半开状态放行的试探调用数
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * 对冲请求配置：主请求超过最近调用耗时的分位数仍未返回时，再发一个相同请求，先成功的结果生效
+     */
+    @NoArgsConstructor
+    @Data
+    public static class HedgeDTO {
+        private boolean enabled = false;
+        /**
+         * 触发对冲的耗时分位数
+         */
+        private double percentile = 0.95;
+        /**
+         * 对冲延迟下限，避免上游很快时几乎每个请求都对冲
+         */
+        private Duration minDelay = Duration.ofMillis(100);
+        /**
+         * 统计分位数用的最近成功调用数
+         */
+        private int sampleSize = 128;
+        /**
+         * 样本不足时不对冲
+         */
+        private int minSamples = 20;
+    }
+
+    public enum ClientMode {
+        REST_TEMPLATE,
+        WEB_CLIENT
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.java_code.config;
+
+import org.example.java_code.see.CancelBus;
+import org.example.java_code.see.InMemoryStreamOwnershipDirectory;
+import org.example.java_code.see.LoopbackCancelBus;
+import org.example.java_code.see.StreamOwnershipDirectory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 多节点取消的默认实现：进程内目录 + 回环总线，单节点部署时行为与原来一致
+ * <p>
+ * 多副本部署时提供共享的 StreamOwnershipDirectory、CancelBus Bean（如基于 Redis）即可替换。
+ */
+@Configuration
+public class SseClusterConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public StreamOwnershipDirectory streamOwnershipDirectory() {
+        return new InMemoryStreamOwnershipDirectory();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CancelBus cancelBus() {
+        return new LoopbackCancelBus();
+    }
+}
@@ -0,0 +1,326 @@
+package org.example.java_code.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * SSE 相关配置（前缀 sse）
+ */
+@NoArgsConstructor
+@Data
+@ConfigurationProperties(prefix = "sse")
+public class SseProperties {
+
+    private TickDTO tick = new TickDTO();
+
+    private ExecutorDTO executor = new ExecutorDTO();
+
+    private BatchDTO batch = new BatchDTO();
+
+    private ResumeDTO resume = new ResumeDTO();
+
+    private TopicDTO topic = new TopicDTO();
+
+    private OutboundDTO outbound = new OutboundDTO();
+
+    private ClusterDTO cluster = new ClusterDTO();
+
+    private ReaperDTO reaper = new ReaperDTO();
+
+    private CoalesceDTO coalesce = new CoalesceDTO();
+
+    private CompressionDTO compression = new CompressionDTO();
+
+    private LoggingDTO logging = new LoggingDTO();
+
+    /**
+     * 共享心跳调度器配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class TickDTO {
+        /**
+         * 心跳周期
+         */
+        private Duration period = Duration.ofSeconds(1);
+        /**
+         * 每个批次包含的流数量
+         */
+        private int batchSize = 256;
+        /**
+         * 并行发送批次的线程数
+         */
+        private int fanOutThreads = Runtime.getRuntime().availableProcessors();
+        /**
+         * fan-out 队列最多排队的批次数，排满后本次 tick 剩余的批次直接跳过
+         */
+        private int maxPendingBatches = 1024;
+    }
+
+    /**
+     * SseEmitter 接口生产者线程配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class ExecutorDTO {
+        /**
+         * 执行模式：fixed（固定平台线程池）、virtual（每个任务一个虚拟线程）、bounded-virtual（限制并发数的虚拟线程）
+         */
+        private ExecutorMode mode = ExecutorMode.FIXED;
+        /**
+         * fixed 模式的线程数
+         */
+        private int poolSize = 10;
+        /**
+         * bounded-virtual 模式允许同时运行的任务数
+         */
+        private int maxConcurrency = 1000;
+    }
+
+    /**
+     * 批量生成接口配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class BatchDTO {
+        /**
+         * 默认并发数（同时进行中的生成请求）
+         */
+        private int concurrency = 8;
+        /**
+         * 请求参数允许指定的最大并发数
+         */
+        private int maxConcurrency = 64;
+        /**
+         * 每秒最多发起的生成请求数，0 表示不限速
+         */
+        private double ratePerSecond = 0;
+        /**
+         * 单条生成的耗时上限，用于计算批次期限：ceil(条数 / 并发数) × itemTimeout，限速时不少于 条数 / 速率 + itemTimeout
+         */
+        private Duration itemTimeout = Duration.ofSeconds(60);
+        /**
+         * 批次期限上限
+         */
+        private Duration maxTimeout = Duration.ofHours(2);
+        /**
+         * 单个批次最多包含的请求数
+         */
+        private int maxItems = 1000;
+    }
+
+    /**
+     * 可取消流断线重连配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class ResumeDTO {
+        /**
+         * 每个流保留的最近事件数（环形缓冲区容量）
+         */
+        private int historySize = 256;
+        /**
+         * 连接断开后保留流的时间，期间带 Last-Event-ID 重连可继续接收
+         */
+        private Duration detachGracePeriod = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 多播主题配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class TopicDTO {
+        /**
+         * 每个订阅者的默认缓冲区大小（事件数）
+         */
+        private int bufferSize = 256;
+        /**
+         * 请求参数允许指定的最大缓冲区
+         */
+        private int maxBufferSize = 4096;
+        /**
+         * 缓冲区满时的默认策略：drop-oldest、drop-newest、disconnect
+         */
+        private OverflowPolicy overflow = OverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * SseEmitter 发送队列配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class OutboundDTO {
+        /**
+         * 高水位：排队字节数超过该值开始计时
+         */
+        private DataSize highWaterMark = DataSize.ofKilobytes(64);
+        /**
+         * 排队字节数上限，超过立即按慢客户端处理
+         */
+        private DataSize maxQueued = DataSize.ofMegabytes(1);
+        /**
+         * 持续超过高水位多久判定为慢客户端
+         */
+        private Duration slowClientTimeout = Duration.ofSeconds(5);
+        /**
+         * 慢客户端处理策略：conflate（只保留最新状态事件）或 evict（断开）
+         */
+        private SlowClientPolicy slowClientPolicy = SlowClientPolicy.CONFLATE;
+        /**
+         * 一次 drain 最多连续写出的队列元素数，写完后重新提交，单个高频流不会一直占着一个线程
+         */
+        private int drainBatch = 64;
+    }
+
+    /**
+     * 多节点部署时的取消转发配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class ClusterDTO {
+        /**
+         * 本节点标识，为空时启动时生成
+         */
+        private String nodeId = "";
+        /**
+         * 转发取消命令后等待所属节点响应的时间
+         */
+        private Duration forwardTimeout = Duration.ofSeconds(2);
+        /**
+         * 跨节点取消延迟统计保留的最近样本数
+         */
+        private int latencySamples = 1024;
+    }
+
+    /**
+     * 可取消流的空闲回收配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class ReaperDTO {
+        /**
+         * 巡检间隔，0 表示不启动后台巡检
+         */
+        private Duration interval = Duration.ofSeconds(5);
+        /**
+         * 默认空闲上限：已连接的流超过该时间没有成功写出（客户端确认过则以最后一次确认为准）即关闭
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        /**
+         * 默认最长存活时间，从流建立开始计算，包括断开等待重连的时间
+         */
+        private Duration maxLifetime = Duration.ofMinutes(5);
+        /**
+         * 按接口覆盖：cancelable（SseEmitter 版本）、reactive-cancelable（响应式版本）
+         */
+        private Map<String, LimitDTO> endpoints = new LinkedHashMap<>();
+    }
+
+    /**
+     * 单个接口的空闲上限和最长存活时间，未设置的项使用默认值
+     */
+    @NoArgsConstructor
+    @Data
+    public static class LimitDTO {
+        private Duration idleTimeout;
+        private Duration maxLifetime;
+    }
+
+    /**
+     * SseEmitter 数据流的事件合并配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class CoalesceDTO {
+        /**
+         * off：每个事件单独发送；frame：合并为一个数组帧；flush：多个帧一次写出、一次 flush
+         */
+        private CoalesceMode mode = CoalesceMode.OFF;
+        /**
+         * 每批最多事件数
+         */
+        private int maxEvents = 64;
+        /**
+         * 每批最长等待时间，不足 maxEvents 也会发出
+         */
+        private Duration maxDelay = Duration.ofMillis(20);
+    }
+
+    /**
+     * 可取消流的流式压缩配置
+     */
+    @NoArgsConstructor
+    @Data
+    public static class CompressionDTO {
+        /**
+         * 是否允许客户端通过 compress 参数申请压缩
+         */
+        private boolean enabled = true;
+        /**
+         * Deflater 压缩级别 1-9
+         */
+        private int level = 6;
+    }
+
+    /**
+     * 逐事件日志配置：默认关闭，开启后按流采样、限速，经异步 appender 输出（见 logback-spring.xml）
+     */
+    @NoArgsConstructor
+    @Data
+    public static class LoggingDTO {
+        /**
+         * 是否输出逐事件的 INFO 日志
+         */
+        private boolean perEvent = false;
+        /**
+         * 每个流每 N 个事件输出一条
+         */
+        private int sampleEvery = 100;
+        /**
+         * 采样后每个流每秒最多输出的条数，0 表示不限
+         */
+        private int maxPerSecond = 10;
+        /**
+         * 异步 appender 的队列长度（由 logback-spring.xml 读取），队列满时丢弃新日志
+         */
+        private int queueSize = 8192;
+    }
+
+    public enum CoalesceMode {
+        OFF,
+        FRAME,
+        FLUSH
+    }
+
+    public enum SlowClientPolicy {
+        CONFLATE,
+        EVICT
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * 丢弃缓冲区中最旧的事件
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃新到的事件
+         */
+        DROP_NEWEST,
+        /**
+         * 断开慢订阅者
+         */
+        DISCONNECT
+    }
+
+    public enum ExecutorMode {
+        FIXED,
+        VIRTUAL,
+        BOUNDED_VIRTUAL
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.java_code.controller;
+
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * 表组介绍生成接口
+ * <p>
+ * 返回 Mono，由 Spring MVC 异步处理：等待上游生成期间不占用 Servlet 线程。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/intro")
+public class IntroductionController {
+
+    private final ApiService apiService;
+
+    public IntroductionController(ApiService apiService) {
+        this.apiService = apiService;
+    }
+
+    @PostMapping("/generate")
+    public Mono<ApiResponse> generate(@RequestBody GenerationRequest request) {
+        log.info("📝 收到生成请求: tableGroupId={}",
+                request.getInput() == null ? null : request.getInput().getTableGroupId());
+        return apiService.generateIntroductionAsync(request);
+    }
+
+    /**
+     * 客户端指标（缓存命中/未命中/合并/淘汰等）
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return apiService.stats();
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.java_code.see;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 取消命令总线：把取消命令送到持有流的节点，并带回该节点的处理结果
+ * <p>
+ * 生产环境可以基于 Redis pub/sub、消息队列或节点间 HTTP 实现；进程内实现见 LoopbackCancelBus。
+ */
+public interface CancelBus {
+
+  /**
+   * 取消命令
+   *
+   * @param streamId 流标识
+   * @param status   取消状态，写入 CANCELLED 事件
+   * @param message  取消消息，写入 CANCELLED 事件
+   * @param fromNode 发起转发的节点
+   */
+  record CancelCommand(String streamId, String status, String message, String fromNode) {
+  }
+
+  /**
+   * 节点上线，接收发给 nodeId 的取消命令
+   *
+   * @param handler 返回是否找到并取消了流
+   */
+  void subscribe(String nodeId, Function<CancelCommand, Boolean> handler);
+
+  /**
+   * 节点下线
+   */
+  void unsubscribe(String nodeId);
+
+  /**
+   * 把取消命令发给目标节点
+   *
+   * @return 目标节点的处理结果；节点不可达时以异常结束
+   */
+  CompletableFuture<Boolean> send(String targetNode, CancelCommand command);
+}
@@ -0,0 +1,31 @@
+package org.example.java_code.see;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的流归属目录：单节点部署，或同一进程内模拟多个节点（测试）时共享一个实例
+ */
+public class InMemoryStreamOwnershipDirectory implements StreamOwnershipDirectory {
+
+  private final Map<String, String> owners = new ConcurrentHashMap<>();
+
+  @Override
+  public String claim(String streamId, String nodeId) {
+    return owners.put(streamId, nodeId);
+  }
+
+  @Override
+  public boolean release(String streamId, String nodeId) {
+    return owners.remove(streamId, nodeId);
+  }
+
+  @Override
+  public String ownerOf(String streamId) {
+    return owners.get(streamId);
+  }
+
+  public int size() {
+    return owners.size();
+  }
+}
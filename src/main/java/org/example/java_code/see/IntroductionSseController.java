@@ -0,0 +1,79 @@
+package org.example.java_code.see;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.dto.GenerationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+/**
+ * 表组介绍流式生成 SSE 控制器
+ * <p>
+ * 与 /api/intro/generate 不同，这里不等完整结果：上游每生成一段文本就推一个 introChunk 事件。
+ * 请求体较大（rawDocs），所以用 POST，前端用 fetch + ReadableStream 读取事件流。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sse/intro")
+@CrossOrigin(origins = "*", methods = { RequestMethod.GET, RequestMethod.POST,
+    RequestMethod.OPTIONS }, allowedHeaders = "*", maxAge = 3600)
+public class IntroductionSseController {
+
+  @Autowired
+  private IntroductionSseService introductionSseService;
+
+  /**
+   * 请求：POST /api/sse/intro/stream 数据：introChunk*（增量片段） + introCompleted（完整结果）或 introError
+   */
+  @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<Map<String, Object>>> streamIntroduction(
+      @RequestBody GenerationRequest request,
+      @RequestParam(value = "streamId", required = false) String streamId) {
+    if (streamId == null || streamId.isBlank()) {
+      streamId = UUID.randomUUID().toString();
+    }
+    log.info("📡 [{}] 收到流式介绍生成请求: tableGroupId={}", streamId,
+        request.getInput() == null ? null : request.getInput().getTableGroupId());
+    return introductionSseService.streamIntroduction(streamId, request);
+  }
+
+  /**
+   * 请求：POST /api/sse/intro/batch?concurrency=8&ratePerSecond=5 请求体：GenerationRequest 数组
+   * <p>
+   * 数据：batchStarted + 每完成一条一个 batchItem（完成顺序，带 index 对应请求下标） + batchCompleted（吞吐、耗时分位数）
+   * <p>
+   * 批次期限由条数、并发数和速率算出（batchStarted.timeoutMillis），到期时取消未完成的请求，以 status=timeout 的 batchCompleted 结束
+   */
+  @PostMapping(value = "/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<Map<String, Object>>> batchIntroductions(
+      @RequestBody List<GenerationRequest> requests,
+      @RequestParam(value = "concurrency", required = false) Integer concurrency,
+      @RequestParam(value = "ratePerSecond", required = false) Double ratePerSecond) {
+    String batchId = UUID.randomUUID().toString();
+    log.info("📡 [{}] 收到批量生成请求: {} 条", batchId, requests.size());
+    try {
+      return introductionSseService.batchIntroductions(batchId, requests, concurrency, ratePerSecond);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    return introductionSseService.stats();
+  }
+}
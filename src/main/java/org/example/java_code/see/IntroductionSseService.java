@@ -0,0 +1,288 @@
+package org.example.java_code.see;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 表组介绍的 SSE 推送
+ * <p>
+ * 把 ApiService.streamIntroduction 的增量片段转成 SSE 事件： 1. 每个片段一个 introChunk 事件（序号 + 增量文本），
+ * 前端拿到第一个片段就能开始渲染 2. 结束时发一个 introCompleted 事件，带完整文本、片段数、首片段耗时和总耗时 3.
+ * 上游失败时发 introError 事件后正常结束流
+ * <p>
+ * 批量生成：按并发上限和每秒请求数调用 generateIntroductionAsync，每完成一条推一个 batchItem 事件（完成顺序），
+ * 最后推 batchCompleted 汇总吞吐和单条耗时分位数。批次有自己的期限（按条数、并发数和速率计算），到期时不再发起新的请求，
+ * 同样以 batchCompleted（status=timeout）结束，不依赖容器的异步超时截断连接。
+ */
+@Slf4j
+@Service
+public class IntroductionSseService {
+
+  static final String CHUNK_EVENT = "introChunk";
+
+  static final String COMPLETED_EVENT = "introCompleted";
+
+  static final String ERROR_EVENT = "introError";
+
+  static final String BATCH_STARTED_EVENT = "batchStarted";
+
+  static final String BATCH_ITEM_EVENT = "batchItem";
+
+  static final String BATCH_COMPLETED_EVENT = "batchCompleted";
+
+  private final ApiService apiService;
+
+  private final SseProperties.BatchDTO batchConfig;
+
+  private final AtomicInteger activeStreams = new AtomicInteger();
+
+  private final LongAdder completedStreams = new LongAdder();
+
+  private final LongAdder failedStreams = new LongAdder();
+
+  private final LongAdder chunks = new LongAdder();
+
+  private final AtomicLong lastFirstChunkMillis = new AtomicLong(-1);
+
+  private final AtomicInteger activeBatches = new AtomicInteger();
+
+  private final LongAdder batchItems = new LongAdder();
+
+  private final LongAdder failedBatchItems = new LongAdder();
+
+  public IntroductionSseService(ApiService apiService, SseProperties properties) {
+    this.apiService = apiService;
+    this.batchConfig = properties.getBatch();
+  }
+
+  public Flux<ServerSentEvent<Map<String, Object>>> streamIntroduction(String streamId, GenerationRequest request) {
+    return Flux.defer(() -> {
+      long start = System.nanoTime();
+      AtomicInteger index = new AtomicInteger();
+      AtomicLong firstChunkNanos = new AtomicLong(-1);
+      StringBuilder introduction = new StringBuilder();
+      activeStreams.incrementAndGet();
+
+      Flux<ServerSentEvent<Map<String, Object>>> chunkEvents = apiService.streamIntroduction(request)
+          .map(delta -> {
+            int number = index.incrementAndGet();
+            if (number == 1) {
+              firstChunkNanos.set(System.nanoTime() - start);
+              lastFirstChunkMillis.set(firstChunkNanos.get() / 1_000_000);
+              log.info("✏️ [{}] 收到首个片段，耗时 {}ms", streamId, firstChunkNanos.get() / 1_000_000);
+            }
+            chunks.increment();
+            introduction.append(delta);
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("streamId", streamId);
+            data.put("index", number);
+            data.put("delta", delta);
+            return event(streamId + "-" + number, CHUNK_EVENT, data);
+          });
+
+      Flux<ServerSentEvent<Map<String, Object>>> completedEvent = Flux.defer(() -> {
+        completedStreams.increment();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("streamId", streamId);
+        data.put("status", "completed");
+        data.put("chunks", index.get());
+        data.put("introduction", introduction.toString());
+        data.put("firstChunkMillis", firstChunkNanos.get() < 0 ? null : firstChunkNanos.get() / 1_000_000);
+        data.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000);
+        log.info("✅ [{}] 介绍生成完成，共 {} 个片段", streamId, index.get());
+        return Flux.just(event(streamId + "-done", COMPLETED_EVENT, data));
+      });
+
+      return chunkEvents
+          .concatWith(completedEvent)
+          .onErrorResume(e -> {
+            failedStreams.increment();
+            log.error("❌ [{}] 介绍生成失败: {}", streamId, e.getMessage());
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("streamId", streamId);
+            data.put("status", "error");
+            data.put("chunks", index.get());
+            data.put("message", String.valueOf(e.getMessage()));
+            return Flux.just(event(streamId + "-error", ERROR_EVENT, data));
+          })
+          .doOnTerminate(activeStreams::decrementAndGet)
+          .doOnCancel(activeStreams::decrementAndGet);
+    });
+  }
+
+  /**
+   * 批量生成
+   *
+   * @param concurrency 并发数，null 使用 sse.batch.concurrency，超过 sse.batch.max-concurrency 时取上限
+   * @param ratePerSecond 每秒最多发起的请求数，null 使用 sse.batch.rate-per-second，0 不限速
+   */
+  public Flux<ServerSentEvent<Map<String, Object>>> batchIntroductions(String batchId, List<GenerationRequest> requests,
+      Integer concurrency, Double ratePerSecond) {
+    if (requests.size() > batchConfig.getMaxItems()) {
+      throw new IllegalArgumentException("批次条数 " + requests.size() + " 超过上限 " + batchConfig.getMaxItems());
+    }
+    int parallelism = Math.max(1, Math.min(concurrency == null ? batchConfig.getConcurrency() : concurrency,
+        batchConfig.getMaxConcurrency()));
+    double rate = ratePerSecond == null ? batchConfig.getRatePerSecond() : Math.max(0, ratePerSecond);
+    long intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+    Duration timeout = batchTimeout(requests.size(), parallelism, rate);
+
+    return Flux.defer(() -> {
+      long start = System.nanoTime();
+      int total = requests.size();
+      List<Long> latencies = new ArrayList<>(total);
+      AtomicInteger done = new AtomicInteger();
+      AtomicInteger failed = new AtomicInteger();
+      AtomicBoolean timedOut = new AtomicBoolean();
+      activeBatches.incrementAndGet();
+      log.info("📦 [{}] 批量生成开始: {} 条, 并发 {}, 限速 {}/s", batchId, total, parallelism, rate);
+
+      Map<String, Object> startedData = new LinkedHashMap<>();
+      startedData.put("batchId", batchId);
+      startedData.put("total", total);
+      startedData.put("concurrency", parallelism);
+      startedData.put("ratePerSecond", rate);
+      startedData.put("timeoutMillis", timeout.toMillis());
+      ServerSentEvent<Map<String, Object>> started = event(batchId + "-start", BATCH_STARTED_EVENT, startedData);
+
+      Flux<ServerSentEvent<Map<String, Object>>> items = Flux.range(0, total)
+          .flatMap(index -> {
+            // 第 index 条最早在 start + index * interval 发起，保证整体速率不超过 rate
+            long waitNanos = start + index * intervalNanos - System.nanoTime();
+            Mono<Map<String, Object>> call = generateItem(index, requests.get(index));
+            return waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)).then(call) : call;
+          }, parallelism)
+          .map(data -> {
+            // flatMap 串行发出结果，这里无需同步
+            latencies.add((Long) data.get("latencyMillis"));
+            if (!"completed".equals(data.get("status"))) {
+              failed.incrementAndGet();
+            }
+            data.put("batchId", batchId);
+            data.put("done", done.incrementAndGet());
+            data.put("total", total);
+            return event(batchId + "-" + data.get("index"), BATCH_ITEM_EVENT, data);
+          })
+          // 到期后取消未完成的请求，仍然发出 batchCompleted
+          .takeUntilOther(Mono.delay(timeout).doOnNext(tick -> timedOut.set(true)));
+
+      Flux<ServerSentEvent<Map<String, Object>>> completed = Flux.defer(() -> {
+        long elapsedNanos = System.nanoTime() - start;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("batchId", batchId);
+        data.put("status", timedOut.get() ? "timeout" : "completed");
+        data.put("total", total);
+        data.put("succeeded", done.get() - failed.get());
+        data.put("failed", failed.get());
+        data.put("skipped", total - done.get());
+        data.put("elapsedMillis", elapsedNanos / 1_000_000);
+        data.put("throughputPerSecond", elapsedNanos == 0 ? 0 : done.get() * 1_000_000_000.0 / elapsedNanos);
+        data.put("latencyMillis", latencySummary(latencies));
+        if (timedOut.get()) {
+          log.warn("⏰ [{}] 批量生成超过期限 {}ms: 成功 {}, 失败 {}, 未完成 {}", batchId, timeout.toMillis(),
+              done.get() - failed.get(), failed.get(), total - done.get());
+        } else {
+          log.info("✅ [{}] 批量生成完成: 成功 {}, 失败 {}, 耗时 {}ms", batchId, done.get() - failed.get(),
+              failed.get(), elapsedNanos / 1_000_000);
+        }
+        return Flux.just(event(batchId + "-done", BATCH_COMPLETED_EVENT, data));
+      });
+
+      return Flux.just(started)
+          .concatWith(items)
+          .concatWith(completed)
+          .doOnTerminate(activeBatches::decrementAndGet)
+          .doOnCancel(activeBatches::decrementAndGet);
+    });
+  }
+
+  /**
+   * 批次期限：每轮 parallelism 条、每条最多 itemTimeout；限速时发起最后一条就要 total / rate，再加一条的耗时。
+   * 不超过 sse.batch.max-timeout
+   */
+  Duration batchTimeout(int total, int parallelism, double rate) {
+    long itemMillis = batchConfig.getItemTimeout().toMillis();
+    long rounds = (total + parallelism - 1) / parallelism;
+    long millis = Math.max(1, rounds) * itemMillis;
+    if (rate > 0) {
+      millis = Math.max(millis, (long) Math.ceil(total * 1000.0 / rate) + itemMillis);
+    }
+    return Duration.ofMillis(Math.min(millis, batchConfig.getMaxTimeout().toMillis()));
+  }
+
+  private Mono<Map<String, Object>> generateItem(int index, GenerationRequest request) {
+    return Mono.defer(() -> {
+      long itemStart = System.nanoTime();
+      Map<String, Object> data = new LinkedHashMap<>();
+      data.put("index", index);
+      data.put("tableGroupId", request.getInput() == null ? null : request.getInput().getTableGroupId());
+      return apiService.generateIntroductionAsync(request)
+          .map(response -> {
+            data.put("status", "completed");
+            data.put("introduction", response.getOutput() == null ? null : response.getOutput().getIntroduction());
+            return data;
+          })
+          .defaultIfEmpty(data)
+          .onErrorResume(e -> {
+            failedBatchItems.increment();
+            data.put("status", "error");
+            data.put("message", String.valueOf(e.getMessage()));
+            return Mono.just(data);
+          })
+          .doOnNext(result -> {
+            batchItems.increment();
+            result.putIfAbsent("status", "completed");
+            result.put("latencyMillis", (System.nanoTime() - itemStart) / 1_000_000);
+          });
+    });
+  }
+
+  private static Map<String, Object> latencySummary(List<Long> latencies) {
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("min", sorted.length == 0 ? 0 : sorted[0]);
+    summary.put("p50", SsePercentiles.percentile(sorted, 0.50));
+    summary.put("p90", SsePercentiles.percentile(sorted, 0.90));
+    summary.put("p99", SsePercentiles.percentile(sorted, 0.99));
+    summary.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    summary.put("avg", sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0));
+    return summary;
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("activeStreams", activeStreams.get());
+    stats.put("completedStreams", completedStreams.sum());
+    stats.put("failedStreams", failedStreams.sum());
+    stats.put("chunks", chunks.sum());
+    stats.put("lastFirstChunkMillis", lastFirstChunkMillis.get());
+    stats.put("activeBatches", activeBatches.get());
+    stats.put("batchItems", batchItems.sum());
+    stats.put("failedBatchItems", failedBatchItems.sum());
+    return stats;
+  }
+
+  private static ServerSentEvent<Map<String, Object>> event(String id, String name, Map<String, Object> data) {
+    return ServerSentEvent.<Map<String, Object>>builder()
+        .id(id)
+        .event(name)
+        .data(data)
+        .build();
+  }
+}
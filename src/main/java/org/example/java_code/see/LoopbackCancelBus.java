@@ -0,0 +1,47 @@
+package org.example.java_code.see;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * 进程内的取消总线：同一进程内的"节点"互相投递取消命令
+ * <p>
+ * 命令在独立线程上处理，与真实的跨节点调用一样是异步的，发送方不会在自己的线程上执行对方的取消逻辑。
+ */
+public class LoopbackCancelBus implements CancelBus {
+
+  private final Map<String, Function<CancelCommand, Boolean>> handlers = new ConcurrentHashMap<>();
+
+  private final Executor executor;
+
+  public LoopbackCancelBus() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public LoopbackCancelBus(Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public void subscribe(String nodeId, Function<CancelCommand, Boolean> handler) {
+    handlers.put(nodeId, handler);
+  }
+
+  @Override
+  public void unsubscribe(String nodeId) {
+    handlers.remove(nodeId);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> send(String targetNode, CancelCommand command) {
+    Function<CancelCommand, Boolean> handler = handlers.get(targetNode);
+    if (handler == null) {
+      return CompletableFuture.failedFuture(new IllegalStateException("节点不可达: " + targetNode));
+    }
+    return CompletableFuture.supplyAsync(() -> handler.apply(command), executor);
+  }
+}
@@ -0,0 +1,97 @@
+package org.example.java_code.see;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * 响应式 SSE 控制器
+ * <p>
+ * 与 SimpleFluxSseController 的四个接口一一对应，事件名和数据完全一致，区别在于直接返回 Flux&lt;ServerSentEvent&gt;：
+ * 1. 不再创建 SseEmitter，也不占用 executor 线程 2. 由 Spring MVC 的异步请求处理订阅 Flux（Servlet async） 3.
+ * 流空闲时不占用任何线程，只有发送事件时才短暂占用调度线程
+ * <p>
+ * 取消接口沿用 POST /api/sse/cancel/{streamId}。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sse/reactive")
+@CrossOrigin(origins = "*", methods = { RequestMethod.GET, RequestMethod.POST,
+    RequestMethod.OPTIONS }, allowedHeaders = "*", maxAge = 3600)
+public class ReactiveFluxSseController {
+
+  @Autowired
+  private SimpleFluxSseService simpleFluxSseService;
+
+  @Autowired
+  private SseMetrics sseMetrics;
+
+  /**
+   * 请求：GET /api/sse/reactive/simple 数据：10个简单数字，每个间隔500ms
+   *
+   * @param encoding 数据编码 json | compact | binary，为空时为 json
+   */
+  @GetMapping(value = "/simple", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<byte[]>> simpleFluxStream(
+      @RequestParam(value = "encoding", required = false) String encoding) {
+    log.info("📡 收到响应式SSE请求: /api/sse/reactive/simple");
+    SseDataCodec codec = SseDataCodec.open(SimpleFluxSseController.parseEncoding(encoding), System.currentTimeMillis());
+    return sseMetrics.endpoint(SimpleFluxSseService.ENDPOINT_REACTIVE_SIMPLE)
+        .track(codec.withDictionary(simpleFluxSseService.simpleFluxEvents(codec)));
+  }
+
+  /**
+   * 请求：GET /api/sse/reactive/multi-stage 数据：分三个阶段发送数据
+   *
+   * @param encoding 数据编码 json | compact | binary，为空时为 json
+   */
+  @GetMapping(value = "/multi-stage", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<byte[]>> multiStageFluxStream(
+      @RequestParam(value = "encoding", required = false) String encoding) {
+    log.info("📡 收到响应式SSE请求: /api/sse/reactive/multi-stage");
+    SseDataCodec codec = SseDataCodec.open(SimpleFluxSseController.parseEncoding(encoding), System.currentTimeMillis());
+    return sseMetrics.endpoint(SimpleFluxSseService.ENDPOINT_REACTIVE_MULTI_STAGE)
+        .track(codec.withDictionary(simpleFluxSseService.multiStageFluxEvents(codec)));
+  }
+
+  /**
+   * 请求：GET /api/sse/reactive/heartbeat 数据：每秒一个心跳，共10次
+   */
+  @GetMapping(value = "/heartbeat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<String>> heartbeatStream() {
+    log.info("📡 收到响应式SSE请求: /api/sse/reactive/heartbeat");
+    return sseMetrics.endpoint(SimpleFluxSseService.ENDPOINT_REACTIVE_HEARTBEAT)
+        .track(simpleFluxSseService.heartbeatEvents());
+  }
+
+  /**
+   * 一直推送数据的响应式 SSE 流（可通过 POST /api/sse/cancel/{streamId} 取消），支持 Last-Event-ID 断线续传。
+   */
+  @GetMapping(value = "/cancelable", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<byte[]>> cancelableStream(
+      @RequestParam(value = "streamId", required = false) String streamId,
+      @RequestParam(value = "owner", required = false) String owner,
+      @RequestParam(value = "tags", required = false) List<String> tags,
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+      @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) throws IOException {
+    if (streamId == null || streamId.isBlank()) {
+      streamId = UUID.randomUUID().toString();
+    }
+    log.info("📡 [{}] 收到响应式可取消 SSE 请求", streamId);
+    return simpleFluxSseService.createCancelableEventFlux(streamId, owner, tags,
+        lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam,
+        simpleFluxSseService.connectionTimeout(SimpleFluxSseService.ENDPOINT_REACTIVE_CANCELABLE));
+  }
+}
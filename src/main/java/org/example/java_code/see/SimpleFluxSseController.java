@@ -1,10 +1,18 @@
 package org.example.java_code.see;
 
 import java.io.IOException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,6 +21,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
@@ -37,10 +46,19 @@ public class SimpleFluxSseController {
   @Autowired
   private SimpleFluxSseService simpleFluxSseService;
 
-  // 创建线程池用于异步处理（类似CommonChatOpenApiController中的executor）
-  private static final Executor executor = Executors.newFixedThreadPool(10);
+  // 线程池用于异步处理（类似CommonChatOpenApiController中的executor），模式由 sse.executor.mode 配置
+  @Autowired
+  private SseProducerExecutor executor;
+
+  @Autowired
+  private SseCompression compression;
 
-  private static final long SSE_TIMEOUT = 5 * 60 * 1000; // 5分钟超时
+  static final long SSE_TIMEOUT = 5 * 60 * 1000; // 5分钟超时
+
+  /**
+   * /firehose 单次最多事件数
+   */
+  private static final int MAX_FIREHOSE_EVENTS = 100_000;
 
   /**
    * 简单的SSE接口
@@ -57,10 +75,16 @@ public class SimpleFluxSseController {
    * │ │ ← SSE Event 10 ──────────────────────────────┤ (10号数据) │ ← SSE完成 │
    * ├─ 流结束
    *
+   * @param coalesce 事件合并方式 off | frame | flush，为空时使用 sse.coalesce.mode
+   * @param encoding 数据编码 json | compact | binary，为空时为 json
    * @return SseEmitter
    */
   @GetMapping("/simple")
-  public SseEmitter simpleFluxStream() {
+  public SseEmitter simpleFluxStream(
+      @org.springframework.web.bind.annotation.RequestParam(value = "coalesce", required = false) String coalesce,
+      @org.springframework.web.bind.annotation.RequestParam(value = "encoding", required = false) String encoding) {
+    SseProperties.CoalesceMode mode = parseCoalesce(coalesce);
+    SseDataCodec.Encoding dataEncoding = parseEncoding(encoding);
     long requestId = System.currentTimeMillis();
     log.info("📡 [{}] 收到SSE请求: /api/sse/simple", requestId);
 
@@ -84,7 +108,7 @@ public class SimpleFluxSseController {
     // }
     // });
     try {
-      simpleFluxSseService.createSimpleFluxStream(emitter);
+      simpleFluxSseService.createSimpleFluxStream(emitter, mode, dataEncoding);
 
     } catch (IOException e) {
       log.error("❌ [{}] Flux流处理异常", requestId, e);
@@ -102,22 +126,64 @@ public class SimpleFluxSseController {
    * 第二阶段：4-6（处理） -
    * 第三阶段：7-9（验证）
    *
+   * @param coalesce 事件合并方式 off | frame | flush，为空时使用 sse.coalesce.mode
+   * @param encoding 数据编码 json | compact | binary，为空时为 json
    * @return SseEmitter
    */
   @GetMapping("/multi-stage")
-  public SseEmitter multiStageFluxStream() {
+  public SseEmitter multiStageFluxStream(
+      @org.springframework.web.bind.annotation.RequestParam(value = "coalesce", required = false) String coalesce,
+      @org.springframework.web.bind.annotation.RequestParam(value = "encoding", required = false) String encoding) {
+    SseProperties.CoalesceMode mode = parseCoalesce(coalesce);
+    SseDataCodec.Encoding dataEncoding = parseEncoding(encoding);
     log.info("📡 收到SSE请求: /api/sse/multi-stage");
 
     SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
 
     executor.execute(() -> {
       log.info("🚀 启动多阶段Flux流处理");
-      simpleFluxSseService.createMultiStageFluxStream(emitter);
+      simpleFluxSseService.createMultiStageFluxStream(emitter, mode, dataEncoding);
     });
 
     return emitter;
   }
 
+  /**
+   * 高频数据流：GET /api/sse/firehose?count=2000&coalesce=flush&encoding=compact
+   * <p>
+   * 不加延迟地连续发送 count 个 firehoseEvent，用于对比合并前后、不同数据编码下每个连接每秒能发出的事件数和字节数。
+   */
+  @GetMapping("/firehose")
+  public SseEmitter firehoseStream(
+      @org.springframework.web.bind.annotation.RequestParam(value = "count", defaultValue = "2000") int count,
+      @org.springframework.web.bind.annotation.RequestParam(value = "coalesce", required = false) String coalesce,
+      @org.springframework.web.bind.annotation.RequestParam(value = "encoding", required = false) String encoding) {
+    SseProperties.CoalesceMode mode = parseCoalesce(coalesce);
+    SseDataCodec.Encoding dataEncoding = parseEncoding(encoding);
+    int events = Math.max(1, Math.min(count, MAX_FIREHOSE_EVENTS));
+    log.info("📡 收到SSE请求: /api/sse/firehose ({} 个事件, coalesce={})", events, coalesce);
+
+    SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+    executor.execute(() -> simpleFluxSseService.createFirehoseStream(emitter, events, mode, dataEncoding));
+    return emitter;
+  }
+
+  private static SseProperties.CoalesceMode parseCoalesce(String coalesce) {
+    try {
+      return SseCoalescer.parseMode(coalesce);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "未知的 coalesce 方式: " + coalesce);
+    }
+  }
+
+  static SseDataCodec.Encoding parseEncoding(String encoding) {
+    try {
+      return SseDataCodec.parse(encoding);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "未知的数据编码: " + encoding);
+    }
+  }
+
   /**
    * 心跳检测接口
    * <p>
@@ -130,81 +196,154 @@ public class SimpleFluxSseController {
     log.info("📡 收到SSE请求: /api/sse/heartbeat");
 
     SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
-
-    executor.execute(() -> {
-      log.info("🚀 启动心跳检测");
-      // 创建心跳Flux：每秒发送一个数字，共10个
-      reactor.core.publisher.Flux.range(1, 10)
-          .delaySequence(java.time.Duration.ofSeconds(1))
-          .subscribe(
-              number -> {
-                try {
-                  System.out.println("💓 发送心跳 " + number);
-                  emitter.send(SseEmitter.event()
-                      .id(number + "")
-                      .name("heartbeat")
-                      .data("心跳信号 #" + number)
-                      .build());
-                } catch (Exception e) {
-                  log.error("心跳发送失败", e);
-                  try {
-                    emitter.completeWithError(e);
-                  } catch (Exception ex) {
-                    // ignore
-                  }
-                }
-              },
-              error -> {
-                System.out.println("💓 发送心跳 " + error);
-                try {
-                  emitter.completeWithError(error);
-                } catch (Exception e) {
-                  // ignore
-                }
-              },
-              () -> {
-                log.info("✅ 心跳检测完成");
-                try {
-                  emitter.complete();
-                } catch (Exception e) {
-                  // ignore
-                }
-              });
-    });
+    executor.execute(() -> simpleFluxSseService.createHeartbeatStream(emitter));
 
     return emitter;
   }
 
   /**
    * 一直推送数据的 SSE 流（可由前端取消）。
+   * <p>
+   * 事件 id 为 {streamId}-{序号}。EventSource 自动重连时会带上 Last-Event-ID 请求头，只补发缺失的事件；
+   * 无法设置请求头的客户端可以用 lastEventId 参数。owner、tags（逗号分隔）用于 POST /api/sse/cancel 批量取消。
+   * <p>
+   * compress=gzip|deflate 且 Accept-Encoding 支持时整条连接共用一个压缩上下文，每个事件后 SYNC_FLUSH；
+   * 不支持时按未压缩返回。
    */
   @GetMapping("/cancelable")
-  public SseEmitter cancelableStream(
-      @org.springframework.web.bind.annotation.RequestParam(value = "streamId", required = false) String streamId)
+  public ResponseEntity<SseEmitter> cancelableStream(
+      @org.springframework.web.bind.annotation.RequestParam(value = "streamId", required = false) String streamId,
+      @org.springframework.web.bind.annotation.RequestParam(value = "owner", required = false) String owner,
+      @org.springframework.web.bind.annotation.RequestParam(value = "tags", required = false) List<String> tags,
+      @org.springframework.web.bind.annotation.RequestHeader(value = "Last-Event-ID", required = false)
+      String lastEventIdHeader,
+      @org.springframework.web.bind.annotation.RequestParam(value = "lastEventId", required = false)
+      String lastEventIdParam,
+      @org.springframework.web.bind.annotation.RequestParam(value = "compress", required = false) String compress,
+      @org.springframework.web.bind.annotation.RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding)
       throws IOException {
     if (streamId == null || streamId.isBlank()) {
       streamId = java.util.UUID.randomUUID().toString();
     }
-    log.info("📡 [{}] 收到可取消 SSE 请求", streamId);
-    SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
-    simpleFluxSseService.createCancelableFluxStream(streamId, emitter);
-    return emitter;
+    SseCompression.Encoding encoding;
+    try {
+      encoding = compression.negotiate(compress, acceptEncoding);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的 compress 编码: " + compress);
+    }
+    log.info("📡 [{}] 收到可取消 SSE 请求{}", streamId, encoding == null ? "" : "（" + encoding.token() + " 压缩）");
+    // 连接超时按该接口的最长存活时间（sse.reaper）计算，不再固定为 SSE_TIMEOUT
+    SseEmitter emitter = new SseEmitter(
+        simpleFluxSseService.connectionTimeout(SimpleFluxSseService.ENDPOINT_CANCELABLE).toMillis());
+    SseCompressor compressor = encoding == null ? null : compression.open(encoding);
+    simpleFluxSseService.createCancelableFluxStream(streamId, owner, tags,
+        lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam, emitter, compressor);
+    if (compressor == null) {
+      return ResponseEntity.ok(emitter);
+    }
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_ENCODING, encoding.token())
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+        // 防止代理重新压缩或缓冲整个响应
+        .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-transform")
+        .body(emitter);
+  }
+
+  /**
+   * SSE 运行指标（可取消流数量、共享心跳调度器、生产者线程池、堆和线程数）
+   */
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>(simpleFluxSseService.stats());
+    stats.put("executor", executor.stats());
+    stats.put("compression", compression.stats());
+    stats.put("jvm", jvmStats());
+    return stats;
+  }
+
+  /**
+   * 堆和线程数，压测时按固定间隔采样（虚拟线程不计入 liveThreads）
+   */
+  private static Map<String, Object> jvmStats() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    Map<String, Object> jvm = new LinkedHashMap<>();
+    jvm.put("heapUsed", heap.getUsed());
+    jvm.put("heapCommitted", heap.getCommitted());
+    jvm.put("heapMax", heap.getMax());
+    jvm.put("liveThreads", threads.getThreadCount());
+    jvm.put("peakThreads", threads.getPeakThreadCount());
+    return jvm;
   }
 
   /**
    * 前端发送 cancel 信号后，停止对应的 SSE 流。
+   * <p>
+   * 多副本部署时请求可能落到不持有该流的节点，此时按流归属目录转发给所属节点；所属节点不可达时返回 504。
    */
   @PostMapping("/cancel/{streamId}")
-  public ResponseEntity<?> cancelStream(@PathVariable String streamId) {
-    boolean cancelled = simpleFluxSseService.cancelCancelableStreamManual(streamId);
-    if (cancelled) {
-      log.info("🛑 [{}] 客户端请求取消 SSE 流", streamId);
-      return ResponseEntity.ok(java.util.Map.of(
-          "streamId", streamId,
-          "status", "cancelled"));
+  public CompletableFuture<ResponseEntity<?>> cancelStream(@PathVariable String streamId) {
+    return simpleFluxSseService.cancelClusterWide(streamId, "cancelled", "客户端主动取消")
+        .handle((cancelled, error) -> {
+          if (error != null) {
+            return ResponseEntity.status(504).body(java.util.Map.of(
+                "streamId", streamId,
+                "status", "owner_unreachable"));
+          }
+          if (cancelled) {
+            log.info("🛑 [{}] 客户端请求取消 SSE 流", streamId);
+            return ResponseEntity.ok(java.util.Map.of(
+                "streamId", streamId,
+                "status", "cancelled"));
+          }
+          return ResponseEntity.status(404).body(java.util.Map.of(
+              "streamId", streamId,
+              "status", "not_found"));
+        });
+  }
+
+  /**
+   * 客户端确认仍在接收：POST /api/sse/ack/{streamId}
+   * <p>
+   * 确认过的流以最后一次确认时间判断空闲，能识别写入仍然"成功"但对端已经不读的连接（例如代理后面的死连接）。
+   */
+  @PostMapping("/ack/{streamId}")
+  public ResponseEntity<?> ackStream(@PathVariable String streamId) {
+    if (simpleFluxSseService.ackCancelableStream(streamId)) {
+      return ResponseEntity.ok(Map.of("streamId", streamId, "status", "acked"));
+    }
+    return ResponseEntity.status(404).body(Map.of("streamId", streamId, "status", "not_found"));
+  }
+
+  /**
+   * 批量取消：POST /api/sse/cancel?owner=u1 或 POST /api/sse/cancel?tag=batch-7
+   * <p>
+   * 通过注册表的所有者/标签索引定位，只遍历匹配的流。
+   * <p>
+   * 只取消处理本请求的节点上的流（与按 streamId 取消不同，不经过取消总线转发），响应中的 nodeId 标明是哪个节点、
+   * cancelled 为该节点取消的数量；多节点部署时需要对每个节点分别调用。
+   */
+  @PostMapping("/cancel")
+  public ResponseEntity<?> cancelStreams(
+      @org.springframework.web.bind.annotation.RequestParam(value = "owner", required = false) String owner,
+      @org.springframework.web.bind.annotation.RequestParam(value = "tag", required = false) String tag) {
+    boolean byOwner = owner != null && !owner.isBlank();
+    if (byOwner == (tag != null && !tag.isBlank())) {
+      return ResponseEntity.badRequest().body(Map.of(
+          "status", "bad_request",
+          "message", "owner 和 tag 必须且只能指定一个"));
     }
-    return ResponseEntity.status(404).body(java.util.Map.of(
-        "streamId", streamId,
-        "status", "not_found"));
+    int cancelled = byOwner
+        ? simpleFluxSseService.cancelByOwner(owner, "cancelled", "按所有者批量取消")
+        : simpleFluxSseService.cancelByTag(tag, "cancelled", "按标签批量取消");
+    String nodeId = simpleFluxSseService.nodeId();
+    log.info("🛑 批量取消 SSE 流 (owner={}, tag={}, node={}): {} 个", owner, tag, nodeId, cancelled);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put(byOwner ? "owner" : "tag", byOwner ? owner : tag);
+    body.put("scope", "node");
+    body.put("nodeId", nodeId);
+    body.put("cancelled", cancelled);
+    return ResponseEntity.ok(body);
   }
 }
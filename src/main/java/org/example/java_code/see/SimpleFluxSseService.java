@@ -1,16 +1,30 @@
 package org.example.java_code.see;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 /**
  * SSE服务 - 创建Flux并推送数据给前端
@@ -23,12 +37,115 @@ import reactor.core.publisher.Flux;
 @Service
 public class SimpleFluxSseService {
 
-  private static final ObjectMapper objectMapper = new ObjectMapper();
+  /**
+   * 保存可取消的 SSE 流上下文，key 为 streamId，另按所有者、标签建索引用于批量取消。
+   */
+  private final SseStreamRegistry<CancelableStreamContext> cancelableStreams = new SseStreamRegistry<>();
+
+  /**
+   * 同名流并发建立时重新接入的最大次数
+   */
+  private static final int MAX_ATTACH_ATTEMPTS = 3;
+
+  /**
+   * sse.reaper.endpoints 中的接口名
+   */
+  public static final String ENDPOINT_CANCELABLE = "cancelable";
+
+  public static final String ENDPOINT_REACTIVE_CANCELABLE = "reactive-cancelable";
+
+  /**
+   * 指标中的接口名（endpoint 标签）
+   */
+  public static final String ENDPOINT_SIMPLE = "simple";
+
+  public static final String ENDPOINT_MULTI_STAGE = "multi-stage";
+
+  public static final String ENDPOINT_FIREHOSE = "firehose";
+
+  public static final String ENDPOINT_HEARTBEAT = "heartbeat";
+
+  public static final String ENDPOINT_REACTIVE_SIMPLE = "reactive-simple";
+
+  public static final String ENDPOINT_REACTIVE_MULTI_STAGE = "reactive-multi-stage";
+
+  public static final String ENDPOINT_REACTIVE_HEARTBEAT = "reactive-heartbeat";
+
+  /**
+   * 所有可取消流共用的心跳调度器（代替每个流一个 Flux.interval）
+   */
+  private final SseTickScheduler tickScheduler;
+
+  private final SseProperties.ResumeDTO resumeConfig;
+
+  private final LongAdder resumedStreams = new LongAdder();
+
+  private final LongAdder replayedEvents = new LongAdder();
+
+  private final LongAdder replayGaps = new LongAdder();
+
+  private final LongAdder expiredStreams = new LongAdder();
+
+  /**
+   * 处于等待重连状态的流数量，随状态切换增减，统计时不需要遍历注册表
+   */
+  private final AtomicInteger detachedStreams = new AtomicInteger();
+
+  private final LongAdder bulkCancelled = new LongAdder();
+
+  private final SseProperties.ReaperDTO reaperConfig;
+
+  private final SseProperties.CoalesceDTO coalesceConfig;
+
+  private final LongAdder idleReaped = new LongAdder();
+
+  private final LongAdder lifetimeReaped = new LongAdder();
+
+  private final LongAdder reclaimedHistoryEvents = new LongAdder();
+
+  private final LongAdder reclaimedQueuedBytes = new LongAdder();
+
+  private volatile long lastSweepMicros;
 
   /**
-   * 保存可取消的 SSE 流上下文，key 为 streamId。
+   * 后台巡检任务，start() 之前或 sse.reaper.interval 为 0 时为 null
    */
-  private final Map<String, CancelableStreamContext> cancelableStreamsMap = new ConcurrentHashMap<>();
+  private volatile Disposable reaper;
+
+  /**
+   * SseEmitter 接口的有界发送队列：生产线程只入队，慢客户端按策略合并或驱逐
+   */
+  private final SseOutboundQueues outboundQueues;
+
+  /**
+   * 多副本部署：登记流归属，取消请求落到其他节点时由所属节点执行
+   */
+  private final SseClusterNode clusterNode;
+
+  private final SseMetrics metrics;
+
+  /**
+   * 逐事件日志：按流采样、限速，异步输出
+   */
+  private final SseEventLog eventLog;
+
+  public SimpleFluxSseService(SseTickScheduler tickScheduler, SseOutboundQueues outboundQueues,
+      SseClusterNode clusterNode, SseProperties properties) {
+    this(tickScheduler, outboundQueues, clusterNode, properties, outboundQueues.getMetrics());
+  }
+
+  @Autowired
+  public SimpleFluxSseService(SseTickScheduler tickScheduler, SseOutboundQueues outboundQueues,
+      SseClusterNode clusterNode, SseProperties properties, SseMetrics metrics) {
+    this.tickScheduler = tickScheduler;
+    this.outboundQueues = outboundQueues;
+    this.clusterNode = clusterNode;
+    this.metrics = metrics;
+    this.eventLog = new SseEventLog(properties.getLogging());
+    this.resumeConfig = properties.getResume();
+    this.reaperConfig = properties.getReaper();
+    this.coalesceConfig = properties.getCoalesce();
+  }
 
   /**
    * 创建简单的Flux SSE流
@@ -40,93 +157,304 @@ public class SimpleFluxSseService {
    * @param emitter SSE发送器
    */
   public void createSimpleFluxStream(SseEmitter emitter) throws IOException {
+    createSimpleFluxStream(emitter, null);
+  }
+
+  /**
+   * 创建简单的Flux SSE流
+   *
+   * @param emitter SSE发送器
+   * @param mode    事件合并方式，null 使用 sse.coalesce.mode
+   */
+  public void createSimpleFluxStream(SseEmitter emitter, SseProperties.CoalesceMode mode) throws IOException {
+    createSimpleFluxStream(emitter, mode, null);
+  }
+
+  /**
+   * 创建简单的Flux SSE流
+   *
+   * @param emitter  SSE发送器
+   * @param mode     事件合并方式，null 使用 sse.coalesce.mode
+   * @param encoding 数据编码，null 为 JSON
+   */
+  public void createSimpleFluxStream(SseEmitter emitter, SseProperties.CoalesceMode mode,
+      SseDataCodec.Encoding encoding) throws IOException {
     // 在独立的线程中处理Flux流（不阻塞HTTP响应）
     // 这样前端可以立即收到HTTP 200，然后建立SSE连接
     long startTime = System.currentTimeMillis();
-    Flux<Integer> flux = Flux.range(1, 10); // 生成1到10的数字
-    // Flux.range(1, 10) // 生成1到10的数字
-    // 每个数字延迟500ms发送（模拟处理时间）
-    flux.delayElements(Duration.ofMillis(500))
-        // 对每个数据进行处理（添加标记和标签）
-        .map(number -> processDataWithLabel(number))
-        // 转换为JSON字符串
-        .map(data -> {
-          try {
-            return objectMapper.writeValueAsString(data);
-          } catch (Exception e) {
-            log.error("JSON转换失败", e);
-            return null;
+    SseOutboundQueue queue = outboundQueues.open(ENDPOINT_SIMPLE, "simple-" + startTime, emitter);
+    SseDataCodec codec = SseDataCodec.open(encoding, startTime);
+    SseEventLog.Stream eventLogStream = eventLog.open(queue.getStreamId());
+    Flux<ServerSentEvent<byte[]>> events = simpleFluxEvents(codec, queue.getMetrics())
+        .doOnNext(event -> {
+          // 只有采样到的事件才把数据转成字符串
+          if (eventLogStream.sample()) {
+            eventLogStream.info("📤 发送SSE数据:", new String(event.data(), StandardCharsets.UTF_8));
           }
-        })
-        // 发送给前端
+        });
+    // 注意：移除 .reconnectTime(1000) 以防止浏览器自动重新连接
+    // 如果客户端断开连接，不会自动重新连接
+    enqueueCoalesced(queue, codec, events, mode)
         .subscribe(
-            // onNext: 成功处理每个数据
-            json -> {
-              try {
-                long elapsed = System.currentTimeMillis() - startTime;
-                log.info("📤 [{}ms] 发送SSE数据: {}", elapsed, json);
-                emitter.send(SseEmitter.event()
-                    .id(System.currentTimeMillis() + "")
-                    .name("simpleFluxEvent")
-                    .data(json)
-                    // 注意：移除 .reconnectTime(1000) 以防止浏览器自动重新连接
-                    // 如果客户端断开连接，不会自动重新连接
-                    .build());
-              } catch (IOException e) {
-                log.error("SSE发送失败", e);
-                emitter.completeWithError(e);
-              }
+            // onNext: 已在 enqueueCoalesced 中入队
+            event -> {
             },
             // onError: 处理异常
             error -> {
               log.error("❌ Flux流异常: {}", error.getMessage());
+              queue.close();
               try {
                 emitter.completeWithError(error);
               } catch (Exception e) {
                 log.error("错误回调异常", e);
               }
             },
-            // onComplete: 流完成
+            // onComplete: 流完成，队列发完后关闭SSE连接
             () -> {
               long totalTime = System.currentTimeMillis() - startTime;
               log.info("✅ Flux流完成（总耗时: {}ms），关闭SSE连接", totalTime);
+              queue.complete();
+            });
+  }
+
+  /**
+   * 简单数据流的事件序列
+   * <p>
+   * SseEmitter 接口和响应式接口共用同一条流水线，保证事件名和数据完全一致。
+   *
+   * @return 10 个 simpleFluxEvent 事件，每个间隔 500ms
+   */
+  public Flux<ServerSentEvent<byte[]>> simpleFluxEvents() {
+    return simpleFluxEvents(SseDataCodec.open(null, 0));
+  }
+
+  /**
+   * 简单数据流的事件序列（不含字典事件）
+   *
+   * @param codec 当前连接的数据编码
+   * @return 10 个 simpleFluxEvent 事件，每个间隔 500ms
+   */
+  public Flux<ServerSentEvent<byte[]>> simpleFluxEvents(SseDataCodec codec) {
+    return simpleFluxEvents(codec, metrics.endpoint(ENDPOINT_REACTIVE_SIMPLE));
+  }
+
+  private Flux<ServerSentEvent<byte[]>> simpleFluxEvents(SseDataCodec codec, SseMetrics.Endpoint endpoint) {
+    Flux<Integer> flux = Flux.range(1, 10); // 生成1到10的数字
+    // 每个数字延迟500ms发送（模拟处理时间）
+    return flux.delayElements(Duration.ofMillis(500))
+        // 对每个数据进行处理（添加标记和标签），直接渲染预编码模板，不再逐个经过 ObjectMapper
+        .map(number -> encode(codec, number, endpoint))
+        .map(json -> ServerSentEvent.builder(json)
+            .id(System.currentTimeMillis() + "")
+            .event("simpleFluxEvent")
+            .build());
+  }
+
+  /**
+   * 心跳事件序列：每秒一个，共 10 个
+   *
+   * @return heartbeat 事件
+   */
+  public Flux<ServerSentEvent<String>> heartbeatEvents() {
+    return Flux.range(1, 10)
+        .delaySequence(Duration.ofSeconds(1))
+        .map(number -> ServerSentEvent.builder("心跳信号 #" + number)
+            .id(number + "")
+            .event("heartbeat")
+            .build());
+  }
+
+  /**
+   * 创建心跳流：与 /simple、/multi-stage 一样只入队，由 SseOutboundQueue 写出，Reactor 定时线程不会阻塞在慢客户端上
+   *
+   * @param emitter SSE发送器
+   */
+  public void createHeartbeatStream(SseEmitter emitter) {
+    SseOutboundQueue queue = outboundQueues.open(ENDPOINT_HEARTBEAT, "heartbeat-" + System.currentTimeMillis(),
+        emitter);
+    SseEventLog.Stream eventLogStream = eventLog.open(queue.getStreamId());
+    log.info("🚀 启动心跳检测");
+    heartbeatEvents()
+        .doOnNext(event -> {
+          if (eventLogStream.sample()) {
+            eventLogStream.info("💓 发送心跳", event.id());
+          }
+        })
+        .takeWhile(event -> queue.enqueueEvent(toEmitterEvent(event), true))
+        .subscribe(
+            event -> {
+            },
+            error -> {
+              log.error("❌ 心跳流异常: {}", error.getMessage());
+              queue.close();
               try {
-                emitter.complete();
+                emitter.completeWithError(error);
               } catch (Exception e) {
-                log.error("关闭连接失败", e);
+                log.error("错误回调异常", e);
               }
+            },
+            () -> {
+              log.info("✅ 心跳检测完成");
+              queue.complete();
             });
   }
 
   /**
    * 创建一个可取消的长时间 SSE 流。
+   * <p>
+   * 带 Last-Event-ID 重连且流仍在保留期内时，接回原来的流并只补发缺失的事件；连接断开时流不会立即取消，
+   * 而是保留 sse.resume.detach-grace-period，后台继续产生的事件进入环形缓冲区。
    *
-   * @param streamId 流标识
-   * @param emitter  SSE 发送器
+   * @param streamId    流标识
+   * @param owner       所有者（用户/租户），用于按所有者批量取消，可为空
+   * @param tags        标签，用于按标签批量取消，可为空
+   * @param lastEventId 客户端最后收到的事件 id（{streamId}-{sequence}），可为空
+   * @param emitter     SSE 发送器
+   * @throws IOException when stream init fails
+   */
+  public void createCancelableFluxStream(String streamId, String owner, Collection<String> tags,
+      String lastEventId, SseEmitter emitter) throws IOException {
+    createCancelableFluxStream(streamId, owner, tags, lastEventId, emitter, null);
+  }
+
+  /**
+   * 创建一个可取消的长时间 SSE 流，可选流式压缩。
+   *
+   * @param compressor 本连接的压缩器，null 表示不压缩；响应头 Content-Encoding 由调用方设置
    * @throws IOException when stream init fails
    */
-  public void createCancelableFluxStream(String streamId, SseEmitter emitter) throws IOException {
-    CancelableStreamContext context = new CancelableStreamContext(streamId, emitter);
-    cancelableStreamsMap.put(streamId, context);
+  public void createCancelableFluxStream(String streamId, String owner, Collection<String> tags,
+      String lastEventId, SseEmitter emitter, SseCompressor compressor) throws IOException {
+    SseOutboundQueue queue = outboundQueues.open(ENDPOINT_CANCELABLE, streamId, emitter);
+    CancelableEventSink sink = compressor == null ? CancelableEventSink.of(queue)
+        : CancelableEventSink.of(queue, compressor);
+    // 发送失败或慢客户端被驱逐：转为等待重连，客户端可以带 Last-Event-ID 接回
+    queue.onFailure(() -> detachCancelableStream(streamId, sink, "send failed"));
+    attachCancelableStream(streamId, ENDPOINT_CANCELABLE, owner, tags, lastEventId, sink);
 
-    sendCancelableEvent(emitter, streamId, -1, "CONTROL", "control",
-        "流已建立，streamId=" + streamId);
+    emitter.onCompletion(() -> {
+      queue.close();
+      detachCancelableStream(streamId, sink, "complete");
+      closeCompressor(compressor);
+    });
+    emitter.onTimeout(() -> cancelCancelableStream(streamId, "timeout", "连接超时"));
+    emitter.onError(throwable -> {
+      queue.close();
+      detachCancelableStream(streamId, sink, "error: " + throwable.getMessage());
+      closeCompressor(compressor);
+    });
+  }
 
-    Disposable disposable = Flux.interval(Duration.ofSeconds(1))
-        .subscribe(sequence -> {
-          try {
-            sendCancelableEvent(emitter, streamId, sequence.intValue(), "RUNNING", "running",
-                "后台持续发送数据 #" + sequence);
-          } catch (IOException e) {
-            log.error("❌ [{}] 可取消流发送失败: {}", streamId, e.getMessage());
-            cancelCancelableStream(streamId, "error", "发送异常，自动终止");
+  /**
+   * 连接结束时释放 Deflater；正常结束时 sink.complete 已写出压缩流尾部并释放，这里不会重复释放
+   */
+  private static void closeCompressor(SseCompressor compressor) {
+    if (compressor != null) {
+      compressor.close();
+    }
+  }
+
+  /**
+   * 创建一个可取消的长时间 SSE 流（响应式版本）。
+   * <p>
+   * 与 SseEmitter 版本共用同一份注册表、心跳调度器、重连补发和取消接口，客户端断开时 Flux 被取消，流进入等待重连状态。
+   *
+   * @param streamId    流标识
+   * @param owner       所有者，可为空
+   * @param tags        标签，可为空
+   * @param lastEventId 客户端最后收到的事件 id，可为空
+   * @param timeout     超时时间，到期后按 timeout 取消
+   * @return cancelableEvent 事件流
+   * @throws IOException when stream init fails
+   */
+  public Flux<ServerSentEvent<byte[]>> createCancelableEventFlux(String streamId, String owner,
+      Collection<String> tags, String lastEventId, Duration timeout) throws IOException {
+    Sinks.Many<ServerSentEvent<byte[]>> sink = Sinks.many().unicast().onBackpressureBuffer();
+    // 事件交给下游（写响应）的时间，供空闲回收判断
+    AtomicLong lastWrite = new AtomicLong(System.nanoTime());
+    SseMetrics.Endpoint endpoint = metrics.endpoint(ENDPOINT_REACTIVE_CANCELABLE);
+    CancelableEventSink eventSink = CancelableEventSink.of(sink, lastWrite, endpoint);
+    attachCancelableStream(streamId, ENDPOINT_REACTIVE_CANCELABLE, owner, tags, lastEventId, eventSink);
+
+    Disposable timeoutTask = Mono.delay(timeout)
+        .subscribe(ignored -> cancelCancelableStream(streamId, "timeout", "连接超时"));
+    return endpoint.track(sink.asFlux()
+        .doOnNext(event -> lastWrite.set(System.nanoTime()))
+        .doFinally(signal -> {
+          timeoutTask.dispose();
+          detachCancelableStream(streamId, eventSink, signal.toString());
+        }));
+  }
+
+  /**
+   * 接回仍在保留期内的流，否则新建一个流
+   * <p>
+   * 注册用 putIfAbsent：两个同名请求并发建立时只有一个成功，另一个重新走一遍接回/替换流程。
+   */
+  private void attachCancelableStream(String streamId, String endpoint, String owner, Collection<String> tags,
+      String lastEventId, CancelableEventSink sink) throws IOException {
+    long lastSequence = parseSequence(streamId, lastEventId);
+    for (int attempt = 0; attempt < MAX_ATTACH_ATTEMPTS; attempt++) {
+      CancelableStreamContext existing = cancelableStreams.get(streamId);
+      if (existing != null && lastSequence >= 0) {
+        long gap = existing.resume(sink, lastSequence);
+        if (gap >= 0) {
+          resumedStreams.increment();
+          if (gap > 0) {
+            replayGaps.increment();
+            log.warn("⚠️ [{}] 重连时有 {} 个事件已被覆盖，无法补发", streamId, gap);
           }
-        });
+          log.info("🔁 [{}] 客户端重连，从序号 {} 之后继续", streamId, lastSequence);
+          return;
+        }
+      }
+      if (existing != null) {
+        // 没有可用的 Last-Event-ID：同名旧流不再可达，取消后重新建立
+        cancel(existing, "replaced", "同名流重新建立");
+      }
+      if (openCancelableStream(streamId, endpoint, owner, tags, sink)) {
+        return;
+      }
+    }
+    throw new IOException("streamId 冲突，无法建立流: " + streamId);
+  }
+
+  /**
+   * @return streamId 已被并发请求占用时返回 false
+   */
+  private boolean openCancelableStream(String streamId, String endpoint, String owner, Collection<String> tags,
+      CancelableEventSink sink) {
+    CancelableStreamContext context = new CancelableStreamContext(streamId, endpoint, sink,
+        resumeConfig.getHistorySize());
+    if (!cancelableStreams.register(streamId, owner, tags, context)) {
+      return false;
+    }
+    clusterNode.claim(streamId);
+
+    sendCancelableEvent(context, -1, "CONTROL", "control", "流已建立，streamId=" + streamId);
+
+    // 由共享心跳调度器驱动，不再为每个流单独启动 Flux.interval
+    Disposable disposable = tickScheduler.register(sequence ->
+        sendCancelableEvent(context, (int) sequence, "RUNNING", "running", "后台持续发送数据 #" + sequence));
     context.setDisposable(disposable);
+    return true;
+  }
 
-    emitter.onCompletion(() -> cleanupCancelableStream(streamId, "complete"));
-    emitter.onTimeout(() -> cancelCancelableStream(streamId, "timeout", "连接超时"));
-    emitter.onError(throwable -> cancelCancelableStream(streamId, "error", "发生错误: " + throwable.getMessage()));
+  /**
+   * 连接断开：保留流一段时间等待重连，到期仍未重连再清理
+   */
+  private void detachCancelableStream(String streamId, CancelableEventSink sink, String reason) {
+    CancelableStreamContext context = cancelableStreams.get(streamId);
+    if (context == null || !context.detach(sink)) {
+      return;
+    }
+    log.info("🔌 [{}] 连接断开，保留 {} 等待重连 (原因: {})", streamId, resumeConfig.getDetachGracePeriod(), reason);
+    context.scheduleExpiry(Mono.delay(resumeConfig.getDetachGracePeriod())
+        .subscribe(ignored -> {
+          if (context.isDetached() && cleanupCancelableStream(context, "resume-timeout")) {
+            expiredStreams.increment();
+          }
+        }));
   }
 
   /**
@@ -138,33 +466,219 @@ public class SimpleFluxSseService {
    * @return 是否找到并取消成功
    */
   public boolean cancelCancelableStream(String streamId, String status, String message) {
-    CancelableStreamContext context = cancelableStreamsMap.get(streamId);
-    if (context == null || context.closed.get()) {
-      return false;
+    CancelableStreamContext context = cancelableStreams.get(streamId);
+    return context != null && cancel(context, status, message);
+  }
+
+  /**
+   * 取消流：不在本节点时转发给所属节点
+   *
+   * @return 是否找到并取消；所属节点不可达或超时时以异常结束
+   */
+  public CompletableFuture<Boolean> cancelClusterWide(String streamId, String status, String message) {
+    if (cancelCancelableStream(streamId, status, message)) {
+      return CompletableFuture.completedFuture(true);
     }
+    return clusterNode.forwardCancel(streamId, status, message);
+  }
+
+  /**
+   * 取消本节点上某个所有者的全部流，只遍历该所有者名下的流
+   * <p>
+   * 只作用于本节点：归属目录只记录 streamId → 节点，没有所有者/标签索引，其他节点上的流需要在各节点分别调用。
+   *
+   * @return 本节点实际取消的流数量
+   */
+  public int cancelByOwner(String owner, String status, String message) {
+    return cancelAll(cancelableStreams.findByOwner(owner), status, message);
+  }
 
-    context.closed.set(true);
-    Disposable disposable = context.disposable;
-    if (disposable != null && !disposable.isDisposed()) {
-      disposable.dispose();
+  /**
+   * 取消本节点上带有指定标签的全部流（只作用于本节点，同 cancelByOwner）
+   *
+   * @return 本节点实际取消的流数量
+   */
+  public int cancelByTag(String tag, String status, String message) {
+    return cancelAll(cancelableStreams.findByTag(tag), status, message);
+  }
+
+  /**
+   * 本节点标识，批量取消等只作用于本节点的操作在响应中带上，便于调用方确认覆盖了哪些节点
+   */
+  public String nodeId() {
+    return clusterNode.getNodeId();
+  }
+
+  private int cancelAll(List<CancelableStreamContext> contexts, String status, String message) {
+    int cancelled = 0;
+    for (CancelableStreamContext context : contexts) {
+      if (cancel(context, status, message)) {
+        cancelled++;
+      }
     }
+    bulkCancelled.add(cancelled);
+    return cancelled;
+  }
 
-    try {
-      sendCancelableEvent(context.emitter, streamId, -1, "CANCELLED", status, message);
-    } catch (IOException e) {
-      log.warn("发送取消事件失败: {}", e.getMessage());
+  private boolean cancel(CancelableStreamContext context, String status, String message) {
+    if (!context.close()) {
+      return false;
     }
 
+    context.dispose();
+    metrics.endpoint(context.endpoint).streamCancelled(status);
+    sendCancelableEvent(context, -1, "CANCELLED", status, message);
+
     try {
-      context.emitter.complete();
+      context.complete();
     } catch (Exception e) {
       log.warn("关闭 emitter 失败: {}", e.getMessage());
     } finally {
-      cancelableStreamsMap.remove(streamId);
+      unregister(context);
     }
     return true;
   }
 
+  private void unregister(CancelableStreamContext context) {
+    if (cancelableStreams.unregister(context.streamId, context)) {
+      clusterNode.release(context.streamId);
+    }
+  }
+
+  /**
+   * 客户端确认仍在接收：确认过的流以最后一次确认时间判断空闲
+   *
+   * @return 流不存在时返回 false
+   */
+  public boolean ackCancelableStream(String streamId) {
+    CancelableStreamContext context = cancelableStreams.get(streamId);
+    if (context == null) {
+      return false;
+    }
+    context.ack();
+    return true;
+  }
+
+  /**
+   * 接口的空闲上限
+   */
+  public Duration idleTimeout(String endpoint) {
+    SseProperties.LimitDTO limit = reaperConfig.getEndpoints().get(endpoint);
+    return limit != null && limit.getIdleTimeout() != null ? limit.getIdleTimeout() : reaperConfig.getIdleTimeout();
+  }
+
+  /**
+   * 接口的最长存活时间
+   */
+  public Duration maxLifetime(String endpoint) {
+    SseProperties.LimitDTO limit = reaperConfig.getEndpoints().get(endpoint);
+    return limit != null && limit.getMaxLifetime() != null ? limit.getMaxLifetime() : reaperConfig.getMaxLifetime();
+  }
+
+  /**
+   * 接口的连接超时：比最长存活时间多两个巡检间隔，正常情况下由巡检先发出 CANCELLED 事件再关闭，超时只作兜底
+   * <p>
+   * 返回 Flux 的响应由 Spring 设为不超时（不使用 spring.mvc.async.request-timeout），响应式版本的时长只受这里约束。
+   */
+  public Duration connectionTimeout(String endpoint) {
+    Duration interval = reaperConfig.getInterval();
+    return interval.isNegative() ? maxLifetime(endpoint) : maxLifetime(endpoint).plus(interval.multipliedBy(2));
+  }
+
+  /**
+   * 巡检一遍：关闭超过存活时间的流，以及已连接但空闲超过上限的流（写不出去的死连接）
+   * <p>
+   * 断开等待重连的流由重连保留期负责，这里只检查存活时间。
+   *
+   * @return 本次关闭的流数量
+   */
+  public int reapIdleStreams() {
+    long start = System.nanoTime();
+    int reaped = 0;
+    for (CancelableStreamContext context : cancelableStreams.values()) {
+      long now = System.nanoTime();
+      boolean expired = now - context.createdNanos > maxLifetime(context.endpoint).toNanos();
+      boolean idle = !expired && !context.isDetached()
+          && now - context.lastActivityNanos() > idleTimeout(context.endpoint).toNanos();
+      if (!expired && !idle) {
+        continue;
+      }
+      String reason = idle ? "idle-timeout" : "max-lifetime";
+      long retained = context.retainedEvents();
+      long queued = context.queuedBytes();
+      if (!cancel(context, reason, idle ? "连接空闲超时" : "超过最长存活时间")) {
+        continue;
+      }
+      (idle ? idleReaped : lifetimeReaped).increment();
+      reclaimedHistoryEvents.add(retained);
+      reclaimedQueuedBytes.add(queued);
+      reaped++;
+      log.info("🧹 [{}] 回收可取消流 (原因: {}, 缓冲事件: {}, 排队字节: {})", context.streamId, reason, retained, queued);
+    }
+    lastSweepMicros = (System.nanoTime() - start) / 1000;
+    return reaped;
+  }
+
+  /**
+   * 当前运行指标
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> registry = new LinkedHashMap<>();
+    registry.put("owners", cancelableStreams.owners());
+    registry.put("tags", cancelableStreams.tags());
+    registry.put("bulkCancelled", bulkCancelled.sum());
+    Map<String, Object> resume = new LinkedHashMap<>();
+    resume.put("detachedStreams", (long) detachedStreams.get());
+    resume.put("resumedStreams", resumedStreams.sum());
+    resume.put("replayedEvents", replayedEvents.sum());
+    resume.put("replayGaps", replayGaps.sum());
+    resume.put("expiredStreams", expiredStreams.sum());
+    Map<String, Object> reaperStats = new LinkedHashMap<>();
+    reaperStats.put("idleReaped", idleReaped.sum());
+    reaperStats.put("lifetimeReaped", lifetimeReaped.sum());
+    // 每个回收的流释放：环形缓冲区中的事件、发送队列中的字节、共享心跳调度器上的一个监听（不再占用线程）
+    reaperStats.put("reclaimedHistoryEvents", reclaimedHistoryEvents.sum());
+    reaperStats.put("reclaimedQueuedBytes", reclaimedQueuedBytes.sum());
+    reaperStats.put("lastSweepMicros", lastSweepMicros);
+    reaperStats.put("liveThreads", ManagementFactory.getThreadMXBean().getThreadCount());
+    return Map.of(
+        "cancelableStreams", cancelableStreams.size(),
+        "reaper", reaperStats,
+        "registry", registry,
+        "resume", resume,
+        "outbound", outboundQueues.stats(),
+        "cluster", clusterNode.stats(),
+        "tick", tickScheduler.stats());
+  }
+
+  /**
+   * 注册其他节点转发来的取消命令并启动后台巡检：放在构造完成之后，回调不会在字段初始化前被调用（this 逸出）
+   */
+  @PostConstruct
+  public void start() {
+    clusterNode.onCancel(command ->
+        cancelCancelableStream(command.streamId(), command.status(), command.message()));
+    Duration interval = reaperConfig.getInterval();
+    if (!interval.isZero() && !interval.isNegative()) {
+      reaper = Flux.interval(interval, interval)
+          .subscribe(tick -> {
+            try {
+              reapIdleStreams();
+            } catch (RuntimeException e) {
+              log.error("❌ 空闲流巡检失败", e);
+            }
+          });
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    Disposable current = reaper;
+    if (current != null) {
+      current.dispose();
+    }
+  }
+
   /**
    * 对外暴露的取消接口，默认提示消息。
    */
@@ -172,48 +686,373 @@ public class SimpleFluxSseService {
     return cancelCancelableStream(streamId, "cancelled", "客户端主动取消");
   }
 
-  private void cleanupCancelableStream(String streamId, String reason) {
-    CancelableStreamContext context = cancelableStreamsMap.get(streamId);
-    if (context != null && context.closed.compareAndSet(false, true)) {
-      Disposable disposable = context.disposable;
-      if (disposable != null && !disposable.isDisposed()) {
-        disposable.dispose();
-      }
-      cancelableStreamsMap.remove(streamId);
-      log.info("🧹 [{}] 清理可取消流 (原因: {})", streamId, reason);
+  private boolean cleanupCancelableStream(CancelableStreamContext context, String reason) {
+    if (!context.close()) {
+      return false;
     }
+    context.dispose();
+    unregister(context);
+    metrics.endpoint(context.endpoint).streamCancelled(reason);
+    log.info("🧹 [{}] 清理可取消流 (原因: {})", context.streamId, reason);
+    return true;
   }
 
-  private void sendCancelableEvent(SseEmitter emitter,
-      String streamId,
+  private void sendCancelableEvent(CancelableStreamContext context,
       int number,
       String label,
       String status,
-      String message) throws IOException {
-    emitter.send(SseEmitter.event()
-        .name("cancelableEvent")
-        .id(streamId + "-" + System.currentTimeMillis())
-        .data(Map.of(
-            "streamId", streamId,
-            "dataNumber", number,
-            "label", label,
-            "status", status,
-            "message", message,
-            "timestamp", System.currentTimeMillis())));
-  }
-
-  private static class CancelableStreamContext {
-    private final SseEmitter emitter;
-    private final AtomicBoolean closed = new AtomicBoolean(false);
+      String message) {
+    if (!context.send(new CancelableEvent(number, label, status, message, System.currentTimeMillis()))) {
+      // 当前连接写失败：事件已进入缓冲区，流转为等待重连
+      detachCancelableStream(context.streamId, context.currentSink(), "send failed");
+    }
+  }
+
+  /**
+   * 从 {streamId}-{sequence} 中取出序号；不是本流的 id 或格式不对时返回 -1
+   */
+  static long parseSequence(String streamId, String lastEventId) {
+    if (lastEventId == null || !lastEventId.startsWith(streamId + "-")) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(lastEventId.substring(streamId.length() + 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * 把响应式事件转换为 SseEmitter 事件
+   */
+  private static SseEmitter.SseEventBuilder toEmitterEvent(ServerSentEvent<?> event) {
+    SseEmitter.SseEventBuilder builder = SseEmitter.event();
+    // 字典事件没有 id，不能写出 id:null 覆盖客户端的 Last-Event-ID
+    if (event.id() != null) {
+      builder.id(event.id());
+    }
+    return builder
+        .name(event.event())
+        .data(event.data());
+  }
+
+  /**
+   * 缓冲区中保存的可取消流事件（补发时按当前连接的类型重新编码）
+   */
+  private record CancelableEvent(int number, String label, String status, String message, long timestamp) {
+  }
+
+  /**
+   * 可取消流的事件出口：SseEmitter 的发送队列或响应式 Sink
+   * <p>
+   * 事件由 SseFrameEncoder 直接编码，不再逐个创建 Map.of(...) 和 SseEventBuilder。
+   */
+  private interface CancelableEventSink {
+
+    void send(String streamId, long sequence, CancelableEvent event) throws IOException;
+
+    void complete();
+
+    /**
+     * 最后一次成功写出的时间（System.nanoTime）
+     */
+    long lastWriteNanos();
+
+    /**
+     * 尚未写出的字节数
+     */
+    long queuedBytes();
+
+    static CancelableEventSink of(SseOutboundQueue queue) {
+      return new CancelableEventSink() {
+        @Override
+        public void send(String streamId, long sequence, CancelableEvent event) throws IOException {
+          long start = System.nanoTime();
+          byte[] frame = SseFrameEncoder.encodeCancelableFrame(streamId, sequence, event.number(), event.label(),
+              event.status(), event.message(), event.timestamp());
+          queue.getMetrics().serialized(System.nanoTime() - start);
+          // 已编码的完整帧入队原样写出；RUNNING 是状态事件，慢客户端只需要最新一个
+          if (!queue.enqueueFrame(frame, "RUNNING".equals(event.label()))) {
+            throw new IOException("连接已关闭");
+          }
+        }
+
+        @Override
+        public void complete() {
+          queue.complete();
+        }
+
+        @Override
+        public long lastWriteNanos() {
+          return queue.getLastSentNanos();
+        }
+
+        @Override
+        public long queuedBytes() {
+          return queue.getQueuedBytes();
+        }
+      };
+    }
+
+    /**
+     * 压缩版本：压缩流的任何一段都不能丢，所以事件都不可合并，慢客户端只能被驱逐
+     */
+    static CancelableEventSink of(SseOutboundQueue queue, SseCompressor compressor) {
+      return new CancelableEventSink() {
+        @Override
+        public void send(String streamId, long sequence, CancelableEvent event) throws IOException {
+          // 编码耗时包含压缩
+          long start = System.nanoTime();
+          byte[] frame = compressor.compress(SseFrameEncoder.encodeCancelableFrame(streamId, sequence, event.number(),
+              event.label(), event.status(), event.message(), event.timestamp()));
+          queue.getMetrics().serialized(System.nanoTime() - start);
+          if (!queue.enqueueFrame(frame, false)) {
+            throw new IOException("连接已关闭");
+          }
+        }
+
+        @Override
+        public void complete() {
+          try {
+            queue.enqueueFrame(compressor.finish(), false);
+          } catch (IOException e) {
+            log.warn("结束压缩流失败: {}", e.getMessage());
+          }
+          queue.complete();
+        }
+
+        @Override
+        public long lastWriteNanos() {
+          return queue.getLastSentNanos();
+        }
+
+        @Override
+        public long queuedBytes() {
+          return queue.getQueuedBytes();
+        }
+      };
+    }
+
+    static CancelableEventSink of(Sinks.Many<ServerSentEvent<byte[]>> sink, AtomicLong lastWrite,
+        SseMetrics.Endpoint metrics) {
+      return new CancelableEventSink() {
+        @Override
+        public void send(String streamId, long sequence, CancelableEvent event) throws IOException {
+          long start = System.nanoTime();
+          byte[] data = SseFrameEncoder.encodeCancelableData(streamId, event.number(), event.label(), event.status(),
+              event.message(), event.timestamp());
+          metrics.serialized(System.nanoTime() - start);
+          ServerSentEvent<byte[]> sse = ServerSentEvent.builder(data)
+              .event(SseFrameEncoder.CANCELABLE_EVENT)
+              .id(streamId + "-" + sequence)
+              .build();
+          // 心跳线程与取消请求线程可能同时发送，Sinks 要求串行调用
+          synchronized (sink) {
+            if (sink.tryEmitNext(sse).isFailure()) {
+              throw new IOException("响应式流已关闭");
+            }
+          }
+        }
+
+        @Override
+        public void complete() {
+          synchronized (sink) {
+            sink.tryEmitComplete();
+          }
+        }
+
+        @Override
+        public long lastWriteNanos() {
+          return lastWrite.get();
+        }
+
+        @Override
+        public long queuedBytes() {
+          return 0;
+        }
+      };
+    }
+  }
+
+  /**
+   * 可取消流的生命周期：ATTACHED ⇄ DETACHED → CLOSED，CLOSED 为终态
+   */
+  private enum StreamState {
+    ATTACHED, DETACHED, CLOSED
+  }
+
+  /**
+   * 可取消流的状态：事件缓冲区 + 当前连接（断开期间为 null）
+   * <p>
+   * 分配序号、写入缓冲区、发送到当前连接在同一把锁内完成，补发与新事件不会交错或重复。生命周期状态是原子引用：
+   * 接回、断开在锁内切换，关闭只需一次 getAndSet，取消和统计不必等待正在发送的事件。
+   */
+  private class CancelableStreamContext {
+    private final String streamId;
+    private final String endpoint;
+    private final long createdNanos = System.nanoTime();
+    private final SseReplayBuffer<CancelableEvent> history;
+    private final AtomicReference<StreamState> state = new AtomicReference<>(StreamState.ATTACHED);
+    private CancelableEventSink sink;
     private Disposable disposable;
+    private Disposable expiry;
+    /**
+     * 客户端最后一次确认的时间，0 表示从未确认
+     */
+    private volatile long lastAckNanos;
 
-    private CancelableStreamContext(String streamId, SseEmitter emitter) {
-      this.emitter = emitter;
+    private CancelableStreamContext(String streamId, String endpoint, CancelableEventSink sink, int historySize) {
+      this.streamId = streamId;
+      this.endpoint = endpoint;
+      this.sink = sink;
+      this.history = new SseReplayBuffer<>(historySize);
     }
 
     private void setDisposable(Disposable disposable) {
       this.disposable = disposable;
     }
+
+    /**
+     * @return 当前连接写失败时返回 false
+     */
+    private synchronized boolean send(CancelableEvent event) {
+      long sequence = history.append(event);
+      if (sink == null) {
+        return true;
+      }
+      try {
+        sink.send(streamId, sequence, event);
+        return true;
+      } catch (IOException e) {
+        log.warn("❌ [{}] 可取消流发送失败: {}", streamId, e.getMessage());
+        return false;
+      }
+    }
+
+    /**
+     * 接入新连接并补发 lastSequence 之后的事件
+     *
+     * @return 无法补发的事件数；流已关闭或补发失败时返回 -1
+     */
+    private synchronized long resume(CancelableEventSink newSink, long lastSequence) {
+      StreamState current = state.get();
+      if (current == StreamState.CLOSED || !state.compareAndSet(current, StreamState.ATTACHED)) {
+        return -1;
+      }
+      if (current == StreamState.DETACHED) {
+        detachedStreams.decrementAndGet();
+      }
+      CancelableEventSink previous = sink;
+      sink = null;
+      if (previous != null && previous != newSink) {
+        // 旧连接仍未察觉断开（例如代理重置），由新连接接管
+        previous.complete();
+      }
+      if (expiry != null) {
+        expiry.dispose();
+        expiry = null;
+      }
+      long[] replayed = { 0 };
+      long gap;
+      try {
+        gap = history.replayAfter(lastSequence, (sequence, event) -> {
+          newSink.send(streamId, sequence, event);
+          replayed[0]++;
+        });
+      } catch (IOException e) {
+        // 新连接也写不出去：仍按断开处理，由调用方替换或等待过期
+        if (state.compareAndSet(StreamState.ATTACHED, StreamState.DETACHED)) {
+          detachedStreams.incrementAndGet();
+        }
+        return -1;
+      } finally {
+        replayedEvents.add(replayed[0]);
+      }
+      sink = newSink;
+      if (lastAckNanos != 0) {
+        // 重连本身就是客户端仍在接收的证明
+        lastAckNanos = System.nanoTime();
+      }
+      return gap;
+    }
+
+    private void ack() {
+      lastAckNanos = System.nanoTime();
+    }
+
+    /**
+     * 客户端确认过时以最后一次确认为准（写入可能只是进了内核缓冲区），否则以最后一次成功写出为准
+     */
+    private synchronized long lastActivityNanos() {
+      if (lastAckNanos != 0) {
+        return lastAckNanos;
+      }
+      return sink == null ? System.nanoTime() : sink.lastWriteNanos();
+    }
+
+    private synchronized long retainedEvents() {
+      return history.lastSequence() - history.oldestSequence() + 1;
+    }
+
+    private synchronized long queuedBytes() {
+      return sink == null ? 0 : sink.queuedBytes();
+    }
+
+    /**
+     * 断开指定连接；已被新连接接管时不处理
+     */
+    private synchronized boolean detach(CancelableEventSink oldSink) {
+      if (oldSink == null || sink != oldSink
+          || !state.compareAndSet(StreamState.ATTACHED, StreamState.DETACHED)) {
+        return false;
+      }
+      detachedStreams.incrementAndGet();
+      sink = null;
+      return true;
+    }
+
+    /**
+     * 进入终态
+     *
+     * @return 已经关闭过时返回 false
+     */
+    private boolean close() {
+      StreamState previous = state.getAndSet(StreamState.CLOSED);
+      if (previous == StreamState.DETACHED) {
+        detachedStreams.decrementAndGet();
+      }
+      return previous != StreamState.CLOSED;
+    }
+
+    private boolean isDetached() {
+      return state.get() == StreamState.DETACHED;
+    }
+
+    private synchronized CancelableEventSink currentSink() {
+      return sink;
+    }
+
+    private synchronized void scheduleExpiry(Disposable task) {
+      if (expiry != null) {
+        expiry.dispose();
+      }
+      expiry = task;
+    }
+
+    private synchronized void complete() {
+      if (sink != null) {
+        sink.complete();
+      }
+    }
+
+    private synchronized void dispose() {
+      if (disposable != null && !disposable.isDisposed()) {
+        disposable.dispose();
+      }
+      if (expiry != null) {
+        expiry.dispose();
+      }
+    }
   }
 
   /**
@@ -226,51 +1065,16 @@ public class SimpleFluxSseService {
    * @param number 数字
    * @return 处理后的数据对象
    */
-  private SimpleFluxSseData processDataWithLabel(Integer number) {
-    String label;
-    String status;
-    String message;
-
-    // 根据数字进行不同的处理
-    switch (number) {
-      case 1:
-      case 2:
-      case 3:
-        label = "INITIALIZATION";
-        status = "processing";
-        message = "初始化阶段...";
-        break;
-      case 4:
-      case 5:
-      case 6:
-        label = "PROCESSING";
-        status = "processing";
-        message = "处理数据中...";
-        break;
-      case 7:
-      case 8:
-      case 9:
-        label = "VERIFICATION";
-        status = "processing";
-        message = "验证结果中...";
-        break;
-      case 10:
-        label = "COMPLETED";
-        status = "completed";
-        message = "处理完成！";
-        break;
-      default:
-        label = "UNKNOWN";
-        status = "unknown";
-        message = "未知状态";
-    }
+  SimpleFluxSseData processDataWithLabel(Integer number) {
+    // 根据数字所在阶段取出 label/status/message
+    SseFrameTemplates.Template template = SseFrameTemplates.forNumber(number);
 
     return SimpleFluxSseData.builder()
         .dataNumber(number)
-        .label(label)
-        .status(status)
+        .label(template.getLabel())
+        .status(template.getStatus())
         .timestamp(System.currentTimeMillis())
-        .message(message)
+        .message(template.getMessage())
         .build();
   }
 
@@ -280,51 +1084,197 @@ public class SimpleFluxSseService {
    * @param emitter SSE发送器
    */
   public void createMultiStageFluxStream(SseEmitter emitter) {
+    createMultiStageFluxStream(emitter, null);
+  }
+
+  /**
+   * 创建多阶段Flux流
+   *
+   * @param emitter SSE发送器
+   * @param mode    事件合并方式，null 使用 sse.coalesce.mode
+   */
+  public void createMultiStageFluxStream(SseEmitter emitter, SseProperties.CoalesceMode mode) {
+    createMultiStageFluxStream(emitter, mode, null);
+  }
+
+  /**
+   * 创建多阶段Flux流
+   *
+   * @param emitter  SSE发送器
+   * @param mode     事件合并方式，null 使用 sse.coalesce.mode
+   * @param encoding 数据编码，null 为 JSON
+   */
+  public void createMultiStageFluxStream(SseEmitter emitter, SseProperties.CoalesceMode mode,
+      SseDataCodec.Encoding encoding) {
+    long startTime = System.currentTimeMillis();
+    SseOutboundQueue queue = outboundQueues.open(ENDPOINT_MULTI_STAGE, "multi-stage-" + startTime, emitter);
+    SseDataCodec codec = SseDataCodec.open(encoding, startTime);
+    enqueueCoalesced(queue, codec,
+        multiStageFluxEvents(codec, queue.getMetrics(), eventLog.open(queue.getStreamId())), mode)
+        .subscribe(
+            event -> {
+            },
+            error -> {
+              log.error("Flux异常", error);
+              queue.close();
+              emitter.completeWithError(error);
+            },
+            () -> {
+              log.info("多阶段流完成");
+              queue.complete();
+            });
+  }
+
+  /**
+   * 高频数据流：不加延迟地连续发送 count 个事件，用于对比不同合并方式下每个连接的事件吞吐
+   *
+   * @param emitter SSE发送器
+   * @param count   事件数
+   * @param mode    事件合并方式，null 使用 sse.coalesce.mode
+   */
+  public void createFirehoseStream(SseEmitter emitter, int count, SseProperties.CoalesceMode mode) {
+    createFirehoseStream(emitter, count, mode, null);
+  }
+
+  /**
+   * 高频数据流
+   *
+   * @param emitter  SSE发送器
+   * @param count    事件数
+   * @param mode     事件合并方式，null 使用 sse.coalesce.mode
+   * @param encoding 数据编码，null 为 JSON
+   */
+  public void createFirehoseStream(SseEmitter emitter, int count, SseProperties.CoalesceMode mode,
+      SseDataCodec.Encoding encoding) {
+    long startTime = System.nanoTime();
+    SseOutboundQueue queue = outboundQueues.open(ENDPOINT_FIREHOSE, "firehose-" + System.currentTimeMillis(), emitter);
+    SseDataCodec codec = SseDataCodec.open(encoding, System.currentTimeMillis());
+    enqueueCoalesced(queue, codec, firehoseEvents(count, codec, queue.getMetrics()), mode)
+        .subscribe(
+            event -> {
+            },
+            error -> {
+              log.error("Flux异常", error);
+              queue.close();
+              emitter.completeWithError(error);
+            },
+            () -> {
+              log.info("✅ 高频流入队完成: {} 个事件，耗时 {}ms", count, (System.nanoTime() - startTime) / 1_000_000);
+              queue.complete();
+            });
+  }
+
+  /**
+   * 高频数据流的事件序列
+   *
+   * @return count 个 firehoseEvent 事件
+   */
+  public Flux<ServerSentEvent<byte[]>> firehoseEvents(int count) {
+    return firehoseEvents(count, SseDataCodec.open(null, 0));
+  }
+
+  /**
+   * 高频数据流的事件序列（不含字典事件）
+   *
+   * @param codec 当前连接的数据编码
+   * @return count 个 firehoseEvent 事件
+   */
+  public Flux<ServerSentEvent<byte[]>> firehoseEvents(int count, SseDataCodec codec) {
+    return firehoseEvents(count, codec, metrics.endpoint(ENDPOINT_FIREHOSE));
+  }
+
+  private Flux<ServerSentEvent<byte[]>> firehoseEvents(int count, SseDataCodec codec, SseMetrics.Endpoint endpoint) {
+    return Flux.range(1, count)
+        .map(number -> ServerSentEvent.builder(encode(codec, number, endpoint))
+            .id(Integer.toString(number))
+            .event("firehoseEvent")
+            .build());
+  }
+
+  /**
+   * 把事件写入发送队列：只入队，由发送队列在生产者线程上写出；连接已断开时停止
+   * <p>
+   * 开启合并时按 sse.coalesce.max-events / max-delay 分批，每批只占一个队列元素、一次写出和一次 flush。
+   * 数据编码的字典事件先单独入队，不参与合并。
+   */
+  private Flux<?> enqueueCoalesced(SseOutboundQueue queue, SseDataCodec codec, Flux<ServerSentEvent<byte[]>> events,
+      SseProperties.CoalesceMode mode) {
+    ServerSentEvent<byte[]> dictionary = codec.dictionaryEvent();
+    if (dictionary != null) {
+      queue.enqueueEvent(toEmitterEvent(dictionary), false);
+    }
+    SseProperties.CoalesceMode effective = mode == null ? coalesceConfig.getMode() : mode;
+    if (effective == SseProperties.CoalesceMode.OFF) {
+      return events.takeWhile(event -> queue.enqueueEvent(toEmitterEvent(event), false));
+    }
+    Flux<List<ServerSentEvent<byte[]>>> batches = events.bufferTimeout(
+        Math.max(1, coalesceConfig.getMaxEvents()), coalesceConfig.getMaxDelay());
+    if (effective == SseProperties.CoalesceMode.FRAME) {
+      return batches.takeWhile(batch -> queue.enqueueEvent(toEmitterEvent(SseCoalescer.toBatchFrame(batch)), false));
+    }
+    return batches.takeWhile(batch -> queue.enqueueEvents(
+        batch.stream().map(SimpleFluxSseService::toEmitterEvent).toList(), false));
+  }
+
+  /**
+   * 多阶段流的事件序列（SseEmitter 接口与响应式接口共用）
+   *
+   * @return 9 个 multiStageEvent 事件
+   */
+  public Flux<ServerSentEvent<byte[]>> multiStageFluxEvents() {
+    return multiStageFluxEvents(SseDataCodec.open(null, 0));
+  }
+
+  /**
+   * 多阶段流的事件序列（不含字典事件）
+   *
+   * @param codec 当前连接的数据编码
+   * @return 9 个 multiStageEvent 事件
+   */
+  public Flux<ServerSentEvent<byte[]>> multiStageFluxEvents(SseDataCodec codec) {
+    return multiStageFluxEvents(codec, metrics.endpoint(ENDPOINT_REACTIVE_MULTI_STAGE),
+        eventLog.open(ENDPOINT_REACTIVE_MULTI_STAGE + "-" + System.currentTimeMillis()));
+  }
+
+  private Flux<ServerSentEvent<byte[]>> multiStageFluxEvents(SseDataCodec codec, SseMetrics.Endpoint endpoint,
+      SseEventLog.Stream eventLogStream) {
     // 第一个阶段：1-3
     Flux<Integer> stage1 = Flux.range(1, 3)
         .delayElements(Duration.ofMillis(300))
-        .doOnNext(n -> log.info("Stage 1: {}", n));
+        .doOnNext(n -> logStage(eventLogStream, 1, n));
 
     // 第二个阶段：4-6
     Flux<Integer> stage2 = Flux.range(4, 3)
         .delayElements(Duration.ofMillis(300))
-        .doOnNext(n -> log.info("Stage 2: {}", n));
+        .doOnNext(n -> logStage(eventLogStream, 2, n));
 
     // 第三个阶段：7-9
     Flux<Integer> stage3 = Flux.range(7, 3)
         .delayElements(Duration.ofMillis(300))
-        .doOnNext(n -> log.info("Stage 3: {}", n));
+        .doOnNext(n -> logStage(eventLogStream, 3, n));
 
     // 合并多个阶段
-    Flux.concat(stage1, stage2, stage3)
-        .map(this::processDataWithLabel)
-        .map(data -> {
-          try {
-            return objectMapper.writeValueAsString(data);
-          } catch (Exception e) {
-            return null;
-          }
-        })
-        .subscribe(
-            json -> {
-              try {
-                emitter.send(SseEmitter.event()
-                    .id(System.currentTimeMillis() + "")
-                    .name("multiStageEvent")
-                    .data(json)
-                    .build());
-              } catch (IOException e) {
-                log.error("SSE发送失败", e);
-                emitter.completeWithError(e);
-              }
-            },
-            error -> {
-              log.error("Flux异常", error);
-              emitter.completeWithError(error);
-            },
-            () -> {
-              log.info("多阶段流完成");
-              emitter.complete();
-            });
+    return Flux.concat(stage1, stage2, stage3)
+        .map(number -> encode(codec, number, endpoint))
+        .map(json -> ServerSentEvent.builder(json)
+            .id(System.currentTimeMillis() + "")
+            .event("multiStageEvent")
+            .build());
+  }
+
+  private static void logStage(SseEventLog.Stream eventLogStream, int stage, int number) {
+    if (eventLogStream.sample()) {
+      eventLogStream.info("Stage " + stage + ":", number);
+    }
+  }
+
+  /**
+   * 编码一个数据事件并记录编码耗时
+   */
+  private static byte[] encode(SseDataCodec codec, int number, SseMetrics.Endpoint endpoint) {
+    long start = System.nanoTime();
+    byte[] data = codec.encode(number, System.currentTimeMillis());
+    endpoint.serialized(System.nanoTime() - start);
+    return data;
   }
 }
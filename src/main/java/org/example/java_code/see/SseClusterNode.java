@@ -0,0 +1,158 @@
+package org.example.java_code.see;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本节点在集群中的身份：登记本节点持有的流，把落到本节点但流不在本地的取消请求转发给所属节点
+ * <p>
+ * 1. 流建立时在 StreamOwnershipDirectory 登记，清理时只移除本节点的登记 2. 同名流在另一个节点重新建立时，通知旧节点取消旧流 3.
+ * 转发的往返延迟在发起节点测量（不依赖节点间时钟同步），保留最近 sse.cluster.latency-samples 个样本
+ */
+@Slf4j
+@Component
+public class SseClusterNode {
+
+  private final String nodeId;
+
+  private final StreamOwnershipDirectory directory;
+
+  private final CancelBus cancelBus;
+
+  private final long forwardTimeoutMillis;
+
+  private final LongAdder forwarded = new LongAdder();
+
+  private final LongAdder forwardedCancelled = new LongAdder();
+
+  private final LongAdder forwardFailures = new LongAdder();
+
+  private final LongAdder received = new LongAdder();
+
+  private final LongAdder takeovers = new LongAdder();
+
+  /**
+   * 最近的转发延迟（微秒），环形覆盖
+   */
+  private final long[] latencySamples;
+
+  private long latencyCount;
+
+  public SseClusterNode(StreamOwnershipDirectory directory, CancelBus cancelBus, SseProperties properties) {
+    SseProperties.ClusterDTO config = properties.getCluster();
+    this.nodeId = config.getNodeId() == null || config.getNodeId().isBlank()
+        ? "node-" + UUID.randomUUID().toString().substring(0, 8)
+        : config.getNodeId();
+    this.directory = directory;
+    this.cancelBus = cancelBus;
+    this.forwardTimeoutMillis = config.getForwardTimeout().toMillis();
+    this.latencySamples = new long[Math.max(1, config.getLatencySamples())];
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * 接收其他节点转发来的取消命令
+   *
+   * @param handler 在本地取消流，返回是否找到
+   */
+  public void onCancel(Function<CancelBus.CancelCommand, Boolean> handler) {
+    cancelBus.subscribe(nodeId, command -> {
+      received.increment();
+      log.info("📨 [{}] 收到节点 {} 转发的取消命令", command.streamId(), command.fromNode());
+      return handler.apply(command);
+    });
+  }
+
+  /**
+   * 登记本节点持有 streamId；之前由其他节点持有时通知其取消旧流
+   */
+  public void claim(String streamId) {
+    String previous = directory.claim(streamId, nodeId);
+    if (previous != null && !previous.equals(nodeId)) {
+      takeovers.increment();
+      log.info("🔀 [{}] 流从节点 {} 转移到本节点，取消旧流", streamId, previous);
+      send(previous, new CancelBus.CancelCommand(streamId, "replaced", "同名流在其他节点重新建立", nodeId));
+    }
+  }
+
+  public void release(String streamId) {
+    directory.release(streamId, nodeId);
+  }
+
+  /**
+   * 把取消请求转发给持有流的节点
+   *
+   * @return 所属节点是否找到并取消了流；没有登记或登记在本节点时为 false；所属节点不可达或超时时以异常结束
+   */
+  public CompletableFuture<Boolean> forwardCancel(String streamId, String status, String message) {
+    String owner = directory.ownerOf(streamId);
+    if (owner == null || owner.equals(nodeId)) {
+      return CompletableFuture.completedFuture(false);
+    }
+    log.info("📤 [{}] 流不在本节点，转发取消命令到节点 {}", streamId, owner);
+    return send(owner, new CancelBus.CancelCommand(streamId, status, message, nodeId));
+  }
+
+  private CompletableFuture<Boolean> send(String target, CancelBus.CancelCommand command) {
+    forwarded.increment();
+    long start = System.nanoTime();
+    return cancelBus.send(target, command)
+        .orTimeout(forwardTimeoutMillis, TimeUnit.MILLISECONDS)
+        .whenComplete((cancelled, error) -> {
+          if (error != null) {
+            forwardFailures.increment();
+            log.warn("❌ [{}] 转发取消命令到节点 {} 失败: {}", command.streamId(), target, error.toString());
+            return;
+          }
+          recordLatency(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+          if (Boolean.TRUE.equals(cancelled)) {
+            forwardedCancelled.increment();
+          }
+        });
+  }
+
+  private synchronized void recordLatency(long micros) {
+    latencySamples[(int) (latencyCount++ % latencySamples.length)] = micros;
+  }
+
+  public Map<String, Object> stats() {
+    long[] sorted;
+    synchronized (this) {
+      sorted = Arrays.copyOf(latencySamples, (int) Math.min(latencyCount, latencySamples.length));
+    }
+    Arrays.sort(sorted);
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("samples", sorted.length);
+    latency.put("p50", SsePercentiles.percentile(sorted, 0.50));
+    latency.put("p99", SsePercentiles.percentile(sorted, 0.99));
+    latency.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("nodeId", nodeId);
+    stats.put("forwarded", forwarded.sum());
+    stats.put("forwardedCancelled", forwardedCancelled.sum());
+    stats.put("forwardFailures", forwardFailures.sum());
+    stats.put("received", received.sum());
+    stats.put("takeovers", takeovers.sum());
+    stats.put("latencyMicros", latency);
+    return stats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    cancelBus.unsubscribe(nodeId);
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.java_code.see;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Locale;
+import org.example.java_code.config.SseProperties;
+import org.springframework.http.codec.ServerSentEvent;
+
+/**
+ * 高频数据流的事件合并
+ * <p>
+ * 事件按 bufferTimeout（条数或等待时间先到者）分批： 1. frame：一批合并为一个 {事件名}Batch 帧，data 是各事件 data
+ * 组成的 JSON 数组，id 取最后一个事件的 id 2. flush：一批仍是多个独立帧，但作为一个发送队列元素写出，只 flush 一次，客户端无需改动
+ */
+public final class SseCoalescer {
+
+  /**
+   * 合并帧的事件名后缀
+   */
+  public static final String BATCH_SUFFIX = "Batch";
+
+  private SseCoalescer() {
+  }
+
+  /**
+   * 把一批事件合并为一个数组帧；各事件的 data 必须是 JSON
+   */
+  public static ServerSentEvent<byte[]> toBatchFrame(List<ServerSentEvent<byte[]>> batch) {
+    ServerSentEvent<byte[]> last = batch.get(batch.size() - 1);
+    return ServerSentEvent.builder(joinArray(batch))
+        .id(last.id())
+        .event(batch.get(0).event() + BATCH_SUFFIX)
+        .build();
+  }
+
+  /**
+   * [data1,data2,...]，直接拼接已编码的字节，不经过 ObjectMapper
+   */
+  static byte[] joinArray(List<ServerSentEvent<byte[]>> batch) {
+    int size = batch.size() + 1;
+    for (ServerSentEvent<byte[]> event : batch) {
+      size += event.data().length;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+    out.write('[');
+    for (int i = 0; i < batch.size(); i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      out.writeBytes(batch.get(i).data());
+    }
+    out.write(']');
+    return out.toByteArray();
+  }
+
+  /**
+   * 解析 off / frame / flush
+   *
+   * @return 为空时返回 null（使用 sse.coalesce.mode）
+   */
+  public static SseProperties.CoalesceMode parseMode(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return SseProperties.CoalesceMode.valueOf(value.strip().toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,115 @@
+package org.example.java_code.see;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.java_code.config.SseProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SSE 流式压缩：按请求协商编码、创建每个连接的压缩器并汇总指标
+ * <p>
+ * 压缩是可选的：客户端通过 compress 参数申请，且 Accept-Encoding 中包含对应编码时才启用。
+ */
+@Component
+public class SseCompression {
+
+  public enum Encoding {
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    Encoding(String token) {
+      this.token = token;
+    }
+
+    /**
+     * Content-Encoding 响应头的值
+     */
+    public String token() {
+      return token;
+    }
+  }
+
+  private final SseProperties.CompressionDTO config;
+
+  private final AtomicInteger activeStreams = new AtomicInteger();
+
+  private final LongAdder events = new LongAdder();
+
+  private final LongAdder rawBytes = new LongAdder();
+
+  private final LongAdder compressedBytes = new LongAdder();
+
+  private final LongAdder compressNanos = new LongAdder();
+
+  public SseCompression(SseProperties properties) {
+    this.config = properties.getCompression();
+  }
+
+  /**
+   * 协商压缩编码
+   *
+   * @param requested      compress 参数：gzip | deflate，为空表示不压缩
+   * @param acceptEncoding 请求的 Accept-Encoding
+   * @return 不压缩时返回 null
+   * @throws IllegalArgumentException compress 参数不是支持的编码
+   */
+  public Encoding negotiate(String requested, String acceptEncoding) {
+    if (requested == null || requested.isBlank() || !config.isEnabled()) {
+      return null;
+    }
+    Encoding encoding = Encoding.valueOf(requested.strip().toUpperCase(Locale.ROOT));
+    if (acceptEncoding == null) {
+      return null;
+    }
+    for (String token : acceptEncoding.split(",")) {
+      String name = token.split(";", 2)[0].strip();
+      if (name.equalsIgnoreCase(encoding.token()) || name.equals("*")) {
+        return encoding;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 为一个连接创建压缩器，连接结束时必须 finish 或 close
+   */
+  public SseCompressor open(Encoding encoding) throws IOException {
+    SseCompressor compressor = new SseCompressor(this, encoding, config.getLevel());
+    activeStreams.incrementAndGet();
+    return compressor;
+  }
+
+  void record(int raw, int compressed, long nanos) {
+    events.increment();
+    rawBytes.add(raw);
+    compressedBytes.add(compressed);
+    compressNanos.add(nanos);
+  }
+
+  void release() {
+    activeStreams.decrementAndGet();
+  }
+
+  public Map<String, Object> stats() {
+    long count = events.sum();
+    long raw = rawBytes.sum();
+    long compressed = compressedBytes.sum();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", config.isEnabled());
+    stats.put("level", config.getLevel());
+    stats.put("activeStreams", activeStreams.get());
+    stats.put("events", count);
+    stats.put("rawBytes", raw);
+    stats.put("compressedBytes", compressed);
+    // 压缩后 / 压缩前，越小越好
+    stats.put("ratio", raw == 0 ? 0 : Math.round(compressed * 1000.0 / raw) / 1000.0);
+    stats.put("nanosPerEvent", count == 0 ? 0 : compressNanos.sum() / count);
+    return stats;
+  }
+}
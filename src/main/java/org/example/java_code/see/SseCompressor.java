@@ -0,0 +1,112 @@
+package org.example.java_code.see;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 单个连接的流式压缩器
+ * <p>
+ * 整个连接共用一个 Deflater（字典跨事件保留，重复的键名、标签、消息只在第一次出现时占用字节），每个事件写完后 SYNC_FLUSH：
+ * 输出在字节边界对齐，客户端收到后立即能解压出完整事件，不会为了攒压缩块而增加延迟。
+ * <p>
+ * 压缩后的字节流不能丢弃中间任何一段，调用方必须按顺序完整写出。
+ */
+public final class SseCompressor implements AutoCloseable {
+
+  private final SseCompression owner;
+
+  private final SseCompression.Encoding encoding;
+
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+
+  private final DeflaterOutputStream out;
+
+  private final Deflater deflater;
+
+  private boolean closed;
+
+  SseCompressor(SseCompression owner, SseCompression.Encoding encoding, int level) throws IOException {
+    this.owner = owner;
+    this.encoding = encoding;
+    if (encoding == SseCompression.Encoding.GZIP) {
+      GzipStream gzip = new GzipStream(buffer, level);
+      this.out = gzip;
+      this.deflater = gzip.deflater();
+    } else {
+      this.deflater = new Deflater(level);
+      this.out = new DeflaterOutputStream(buffer, deflater, 512, true);
+    }
+  }
+
+  public SseCompression.Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * 压缩一个完整的 SSE 帧并 SYNC_FLUSH
+   *
+   * @return 本次产生的压缩字节（GZIP 的第一次调用包含文件头）
+   */
+  public synchronized byte[] compress(byte[] frame) throws IOException {
+    if (closed) {
+      throw new IOException("压缩器已关闭");
+    }
+    long start = System.nanoTime();
+    out.write(frame);
+    out.flush();
+    byte[] compressed = drain();
+    owner.record(frame.length, compressed.length, System.nanoTime() - start);
+    return compressed;
+  }
+
+  /**
+   * 结束压缩流（写出 GZIP 尾部 / zlib 校验和）并释放 Deflater
+   */
+  public synchronized byte[] finish() throws IOException {
+    if (closed) {
+      return new byte[0];
+    }
+    out.finish();
+    byte[] tail = drain();
+    close();
+    return tail;
+  }
+
+  /**
+   * 释放 Deflater 占用的本地内存；连接异常断开时调用
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    deflater.end();
+    owner.release();
+  }
+
+  private byte[] drain() {
+    byte[] bytes = buffer.toByteArray();
+    buffer.reset();
+    return bytes;
+  }
+
+  /**
+   * 可设置压缩级别的 GZIPOutputStream（syncFlush 模式）；finish 不会释放内部的 Deflater，统一在 close 中 end
+   */
+  private static final class GzipStream extends GZIPOutputStream {
+
+    private GzipStream(OutputStream out, int level) throws IOException {
+      super(out, 512, true);
+      def.setLevel(level);
+    }
+
+    private Deflater deflater() {
+      return def;
+    }
+  }
+}
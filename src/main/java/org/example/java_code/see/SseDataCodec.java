@@ -0,0 +1,246 @@
+package org.example.java_code.see;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * SimpleFluxSseData 的数据编码（每个连接一个实例）
+ * <p>
+ * 同一个数据模型的三种 data 格式，由 encoding 参数协商：
+ * <pre>
+ * json     {"dataNumber":4,"label":"PROCESSING","status":"processing","timestamp":1700000001503,"message":"处理数据中..."}
+ * compact  [4,1,1503]            dataNumber, 阶段下标, timestamp - baseTimestamp
+ * binary   "CAG+Fw"              同样三个数字的 varint 字节（有符号数先 zigzag），base64（无填充）后作为 JSON 字符串
+ * </pre>
+ * compact / binary 在流开始时先发送一个 dictionary 事件，包含 baseTimestamp 和阶段下标对应的 label/status/message，
+ * 后续事件只携带数字。三种格式的 data 都是合法 JSON，合并帧（SseCoalescer.toBatchFrame）无需区分。
+ */
+public final class SseDataCodec {
+
+  /**
+   * 字典事件名
+   */
+  public static final String DICTIONARY_EVENT = "dictionary";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final Base64.Encoder BASE64 = Base64.getEncoder().withoutPadding();
+
+  public enum Encoding {
+    JSON,
+    COMPACT,
+    BINARY;
+
+    /**
+     * encoding 参数和字典中的名称
+     */
+    public String token() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final Encoding encoding;
+
+  private final long baseTimestamp;
+
+  private SseDataCodec(Encoding encoding, long baseTimestamp) {
+    this.encoding = encoding;
+    this.baseTimestamp = baseTimestamp;
+  }
+
+  /**
+   * 为一个连接创建编码器
+   *
+   * @param encoding      null 时为 JSON
+   * @param baseTimestamp compact / binary 的时间戳基准，通常是连接建立时间
+   */
+  public static SseDataCodec open(Encoding encoding, long baseTimestamp) {
+    return new SseDataCodec(encoding == null ? Encoding.JSON : encoding, baseTimestamp);
+  }
+
+  /**
+   * 解析 json / compact / binary
+   *
+   * @return 为空时返回 null（使用 JSON）
+   * @throws IllegalArgumentException 不支持的编码
+   */
+  public static Encoding parse(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return Encoding.valueOf(value.strip().toUpperCase(Locale.ROOT));
+  }
+
+  public Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * 流开始时发送的字典事件；JSON 编码不需要字典，返回 null
+   */
+  public ServerSentEvent<byte[]> dictionaryEvent() {
+    if (encoding == Encoding.JSON) {
+      return null;
+    }
+    List<Map<String, Object>> stages = new ArrayList<>();
+    for (SseFrameTemplates.Template template : SseFrameTemplates.all()) {
+      Map<String, Object> stage = new LinkedHashMap<>();
+      stage.put("label", template.getLabel());
+      stage.put("status", template.getStatus());
+      stage.put("message", template.getMessage());
+      stages.add(stage);
+    }
+    Map<String, Object> dictionary = new LinkedHashMap<>();
+    dictionary.put("encoding", encoding.token());
+    dictionary.put("baseTimestamp", baseTimestamp);
+    dictionary.put("fields", List.of("dataNumber", "stage", "timestamp"));
+    dictionary.put("stages", stages);
+    try {
+      return ServerSentEvent.builder(objectMapper.writeValueAsBytes(dictionary))
+          .event(DICTIONARY_EVENT)
+          .build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("字典编码失败", e);
+    }
+  }
+
+  /**
+   * 在事件序列前加上字典事件（响应式接口使用；SseEmitter 接口的字典单独入队，不参与合并）
+   */
+  public Flux<ServerSentEvent<byte[]>> withDictionary(Flux<ServerSentEvent<byte[]>> events) {
+    ServerSentEvent<byte[]> dictionary = dictionaryEvent();
+    return dictionary == null ? events : Flux.concat(Flux.just(dictionary), events);
+  }
+
+  /**
+   * 编码一条 processDataWithLabel 数据
+   *
+   * @param number    数字
+   * @param timestamp 时间戳
+   * @return data 字段的 UTF-8 字节
+   */
+  public byte[] encode(int number, long timestamp) {
+    SseFrameTemplates.Template template = SseFrameTemplates.forNumber(number);
+    switch (encoding) {
+      case COMPACT:
+        return encodeCompact(number, template.getIndex(), timestamp - baseTimestamp);
+      case BINARY:
+        return encodeBinary(number, template.getIndex(), timestamp - baseTimestamp);
+      default:
+        return template.render(number, timestamp);
+    }
+  }
+
+  /**
+   * [N,stage,delta]
+   */
+  private static byte[] encodeCompact(int number, int stage, long delta) {
+    int numberLength = SseFrameTemplates.digits(number);
+    int stageLength = SseFrameTemplates.digits(stage);
+    int deltaLength = SseFrameTemplates.digits(delta);
+    byte[] out = new byte[numberLength + stageLength + deltaLength + 4];
+    int pos = 0;
+    out[pos++] = '[';
+    pos = SseFrameTemplates.writeDigits(out, pos, number, numberLength);
+    out[pos++] = ',';
+    pos = SseFrameTemplates.writeDigits(out, pos, stage, stageLength);
+    out[pos++] = ',';
+    pos = SseFrameTemplates.writeDigits(out, pos, delta, deltaLength);
+    out[pos] = ']';
+    return out;
+  }
+
+  /**
+   * "base64(varint(zigzag(N)) varint(stage) varint(zigzag(delta)))"
+   */
+  private static byte[] encodeBinary(int number, int stage, long delta) {
+    // 三个 varint 最多 5 + 5 + 10 字节
+    byte[] raw = new byte[20];
+    int pos = writeVarint(raw, 0, zigzag(number));
+    pos = writeVarint(raw, pos, stage);
+    pos = writeVarint(raw, pos, zigzag(delta));
+    byte[] encoded = BASE64.encode(Arrays.copyOf(raw, pos));
+    byte[] out = new byte[encoded.length + 2];
+    out[0] = '"';
+    System.arraycopy(encoded, 0, out, 1, encoded.length);
+    out[out.length - 1] = '"';
+    return out;
+  }
+
+  /**
+   * 按当前编码还原数据对象（测试和 Java 客户端使用）
+   *
+   * @param data data 字段的 UTF-8 字节
+   */
+  public SimpleFluxSseData decode(byte[] data) throws IOException {
+    if (encoding == Encoding.JSON) {
+      return objectMapper.readValue(data, SimpleFluxSseData.class);
+    }
+    long[] values;
+    if (encoding == Encoding.COMPACT) {
+      values = objectMapper.readValue(data, long[].class);
+    } else {
+      byte[] raw = Base64.getDecoder().decode(objectMapper.readValue(data, String.class));
+      values = readVarints(raw);
+      values[0] = unzigzag(values[0]);
+      values[2] = unzigzag(values[2]);
+    }
+    SseFrameTemplates.Template template = SseFrameTemplates.forIndex((int) values[1]);
+    return SimpleFluxSseData.builder()
+        .dataNumber((int) values[0])
+        .label(template.getLabel())
+        .status(template.getStatus())
+        .timestamp(baseTimestamp + values[2])
+        .message(template.getMessage())
+        .build();
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int writeVarint(byte[] out, int pos, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out[pos++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out[pos++] = (byte) value;
+    return pos;
+  }
+
+  private static long[] readVarints(byte[] raw) throws IOException {
+    long[] values = new long[3];
+    int pos = 0;
+    for (int i = 0; i < values.length; i++) {
+      long value = 0;
+      int shift = 0;
+      while (true) {
+        if (pos >= raw.length || shift > 63) {
+          throw new IOException("binary 数据不完整");
+        }
+        byte b = raw[pos++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+        shift += 7;
+      }
+      values[i] = value;
+    }
+    return values;
+  }
+}
@@ -0,0 +1,105 @@
+package org.example.java_code.see;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+
+/**
+ * 逐事件日志：按流采样、限速，经独立的 logger 输出
+ * <p>
+ * 本类的 logger（org.example.java_code.see.SseEventLog）在 logback-spring.xml 中接到 AsyncAppender 上：
+ * 发送线程只把日志事件放进有界队列，由后台线程格式化写出；队列满时直接丢弃（neverBlock），不会阻塞发送线程。
+ * <p>
+ * 每个流一个 Stream：先按 sse.logging.sample-every 采样，再按 sse.logging.max-per-second 限速，
+ * 被跳过的事件数在下一条日志中带出。sse.logging.per-event 关闭时 sample() 只做一次判断。
+ */
+@Slf4j
+public final class SseEventLog {
+
+  private static final long WINDOW_NANOS = 1_000_000_000L;
+
+  private final boolean enabled;
+
+  private final int sampleEvery;
+
+  private final int maxPerSecond;
+
+  public SseEventLog(SseProperties.LoggingDTO config) {
+    this.enabled = config.isPerEvent();
+    this.sampleEvery = Math.max(1, config.getSampleEvery());
+    this.maxPerSecond = Math.max(0, config.getMaxPerSecond());
+  }
+
+  public boolean isEnabled() {
+    return enabled && log.isInfoEnabled();
+  }
+
+  /**
+   * 为一个流创建采样器
+   */
+  public Stream open(String streamId) {
+    return new Stream(streamId);
+  }
+
+  /**
+   * 单个流的采样器
+   * <p>
+   * 只在该流自己的事件序列中调用（Reactor 的 onNext 串行执行），不加锁。
+   */
+  public final class Stream {
+
+    private final String streamId;
+
+    private final boolean active = isEnabled();
+
+    private long index;
+
+    private long skipped;
+
+    private long windowStart = System.nanoTime();
+
+    private int windowCount;
+
+    private Stream(String streamId) {
+      this.streamId = streamId;
+    }
+
+    /**
+     * 当前事件是否输出日志；返回 false 的事件计入下一条日志的跳过数
+     */
+    public boolean sample() {
+      if (!active) {
+        return false;
+      }
+      if (index++ % sampleEvery != 0) {
+        skipped++;
+        return false;
+      }
+      if (maxPerSecond > 0) {
+        long now = System.nanoTime();
+        if (now - windowStart >= WINDOW_NANOS) {
+          windowStart = now;
+          windowCount = 0;
+        }
+        if (windowCount >= maxPerSecond) {
+          skipped++;
+          return false;
+        }
+        windowCount++;
+      }
+      return true;
+    }
+
+    /**
+     * 输出一条事件日志，调用前应先 sample()
+     */
+    public void info(String message, Object arg) {
+      long count = skipped;
+      skipped = 0;
+      if (count == 0) {
+        log.info("[{}] {} {}", streamId, message, arg);
+      } else {
+        log.info("[{}] {} {} (跳过 {} 条)", streamId, message, arg, count);
+      }
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package org.example.java_code.see;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 低分配的 SSE 帧编码器（用于 cancelableEvent）
+ * <p>
+ * 原来的 sendCancelableEvent 每次都要创建 Map.of(...)、SseEventBuilder、拼接 id 字符串并装箱数字，
+ * 再交给 Jackson 序列化。这里直接把 id/event/data 三行写进线程私有的复用缓冲区：
+ * <pre>
+ * id:{streamId}-{sequence}
+ * event:cancelableEvent
+ * data:{"streamId":"...","dataNumber":N,"label":"...","status":"...","message":"...","timestamp":T}
+ * </pre>
+ * 最后只复制出一个恰好大小的 byte[]（SseEmitter 在连接初始化前会暂存数据，因此不能直接交出复用缓冲区）。
+ */
+public final class SseFrameEncoder {
+
+  public static final String CANCELABLE_EVENT = "cancelableEvent";
+
+  private static final byte[] ID_PREFIX = ascii("id:");
+  private static final byte[] EVENT_LINE = ascii("\nevent:" + CANCELABLE_EVENT + "\ndata:");
+  private static final byte[] STREAM_ID_KEY = ascii("{\"streamId\":");
+  private static final byte[] DATA_NUMBER_KEY = ascii(",\"dataNumber\":");
+  private static final byte[] LABEL_KEY = ascii(",\"label\":");
+  private static final byte[] STATUS_KEY = ascii(",\"status\":");
+  private static final byte[] MESSAGE_KEY = ascii(",\"message\":");
+  private static final byte[] TIMESTAMP_KEY = ascii(",\"timestamp\":");
+  private static final byte[] FRAME_END = ascii("}\n\n");
+  private static final byte[] HEX = ascii("0123456789abcdef");
+
+  private static final ThreadLocal<FrameBuffer> BUFFERS = ThreadLocal.withInitial(FrameBuffer::new);
+
+  private SseFrameEncoder() {
+  }
+
+  /**
+   * 编码完整的 cancelableEvent 帧（含 id/event/data 行和结尾空行）
+   *
+   * @param sequence 流内单调递增的序号，客户端重连时通过 Last-Event-ID 带回
+   */
+  public static byte[] encodeCancelableFrame(String streamId, long sequence, int number, String label,
+      String status, String message, long timestamp) {
+    FrameBuffer buffer = BUFFERS.get().reset();
+    buffer.write(ID_PREFIX);
+    buffer.writeIdText(streamId);
+    buffer.write('-');
+    buffer.writeLong(sequence);
+    buffer.write(EVENT_LINE);
+    writeCancelableJson(buffer, streamId, number, label, status, message, timestamp);
+    buffer.write(FRAME_END);
+    return buffer.toByteArray();
+  }
+
+  /**
+   * 只编码 data 部分的 JSON（响应式接口由 ServerSentEvent 负责 id/event 行）
+   */
+  public static byte[] encodeCancelableData(String streamId, int number, String label, String status,
+      String message, long timestamp) {
+    FrameBuffer buffer = BUFFERS.get().reset();
+    writeCancelableJson(buffer, streamId, number, label, status, message, timestamp);
+    buffer.write('}');
+    return buffer.toByteArray();
+  }
+
+  private static void writeCancelableJson(FrameBuffer buffer, String streamId, int number, String label,
+      String status, String message, long timestamp) {
+    buffer.write(STREAM_ID_KEY);
+    buffer.writeJsonString(streamId);
+    buffer.write(DATA_NUMBER_KEY);
+    buffer.writeLong(number);
+    buffer.write(LABEL_KEY);
+    buffer.writeJsonString(label);
+    buffer.write(STATUS_KEY);
+    buffer.writeJsonString(status);
+    buffer.write(MESSAGE_KEY);
+    buffer.writeJsonString(message);
+    buffer.write(TIMESTAMP_KEY);
+    buffer.writeLong(timestamp);
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * 线程私有的可增长缓冲区，直接按 UTF-8 写入字符，不经过 String.getBytes
+   */
+  private static final class FrameBuffer {
+
+    private byte[] bytes = new byte[512];
+    private int size;
+
+    private FrameBuffer reset() {
+      size = 0;
+      return this;
+    }
+
+    private void ensure(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+
+    private void write(int b) {
+      ensure(1);
+      bytes[size++] = (byte) b;
+    }
+
+    private void write(byte[] chunk) {
+      ensure(chunk.length);
+      System.arraycopy(chunk, 0, bytes, size, chunk.length);
+      size += chunk.length;
+    }
+
+    private void writeLong(long value) {
+      int length = SseFrameTemplates.digits(value);
+      ensure(length);
+      size = SseFrameTemplates.writeDigits(bytes, size, value, length);
+    }
+
+    /**
+     * id 行不能包含换行，否则会被浏览器截断成两行
+     */
+    private void writeIdText(String value) {
+      ensure(value.length() * 3);
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c != '\n' && c != '\r') {
+          i = writeUtf8(value, i, c);
+        }
+      }
+    }
+
+    private void writeJsonString(String value) {
+      // 最坏情况：每个字符都转义为 \\u00XX
+      ensure(value.length() * 6 + 2);
+      bytes[size++] = '"';
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"' || c == '\\') {
+          bytes[size++] = '\\';
+          bytes[size++] = (byte) c;
+        } else if (c < 0x20) {
+          bytes[size++] = '\\';
+          switch (c) {
+            case '\n':
+              bytes[size++] = 'n';
+              break;
+            case '\r':
+              bytes[size++] = 'r';
+              break;
+            case '\t':
+              bytes[size++] = 't';
+              break;
+            default:
+              bytes[size++] = 'u';
+              bytes[size++] = '0';
+              bytes[size++] = '0';
+              bytes[size++] = HEX[c >> 4];
+              bytes[size++] = HEX[c & 0xF];
+          }
+        } else {
+          i = writeUtf8(value, i, c);
+        }
+      }
+      bytes[size++] = '"';
+    }
+
+    /**
+     * 按 UTF-8 写入一个字符（代理对占用两个 char），返回最后消费的下标
+     */
+    private int writeUtf8(String value, int index, char c) {
+      if (c < 0x80) {
+        bytes[size++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[size++] = (byte) (0xC0 | (c >> 6));
+        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+          && Character.isLowSurrogate(value.charAt(index + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+        bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+        bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        return index + 1;
+      } else if (Character.isSurrogate(c)) {
+        // 孤立代理项，与 String.getBytes 一致替换为 '?'
+        bytes[size++] = '?';
+      } else {
+        bytes[size++] = (byte) (0xE0 | (c >> 12));
+        bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+      }
+      return index;
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+  }
+}
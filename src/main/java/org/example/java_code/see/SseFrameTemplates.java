@@ -0,0 +1,200 @@
+package org.example.java_code.see;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * SimpleFluxSseData 的预编码 JSON 模板
+ * <p>
+ * processDataWithLabel 的 label/status/message 只由数字所在阶段决定，只有 dataNumber 和 timestamp 会变化。
+ * 这里在类加载时把每个阶段的常量片段编码成字节，渲染时只拼接两个数字：
+ * <pre>
+ * {"dataNumber":<b>N</b>,"label":"...","status":"...","timestamp":<b>T</b>,"message":"..."}
+ * </pre>
+ * 字段顺序与 ObjectMapper 序列化 SimpleFluxSseData 的结果一致，前端无感知。
+ */
+public final class SseFrameTemplates {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final byte[] HEAD = "{\"dataNumber\":".getBytes(StandardCharsets.UTF_8);
+
+  public static final Template INITIALIZATION = new Template(0, "INITIALIZATION", "processing", "初始化阶段...");
+  public static final Template PROCESSING = new Template(1, "PROCESSING", "processing", "处理数据中...");
+  public static final Template VERIFICATION = new Template(2, "VERIFICATION", "processing", "验证结果中...");
+  public static final Template COMPLETED = new Template(3, "COMPLETED", "completed", "处理完成！");
+  public static final Template UNKNOWN = new Template(4, "UNKNOWN", "unknown", "未知状态");
+
+  /**
+   * 按 index 排列的全部阶段，紧凑编码的字典按这个顺序下发
+   */
+  private static final List<Template> ALL = List.of(INITIALIZATION, PROCESSING, VERIFICATION, COMPLETED, UNKNOWN);
+
+  private SseFrameTemplates() {
+  }
+
+  /**
+   * 根据数字找到所属阶段的模板
+   *
+   * @param number 数字
+   * @return 阶段模板
+   */
+  public static Template forNumber(int number) {
+    // 根据数字进行不同的处理
+    switch (number) {
+      case 1:
+      case 2:
+      case 3:
+        return INITIALIZATION;
+      case 4:
+      case 5:
+      case 6:
+        return PROCESSING;
+      case 7:
+      case 8:
+      case 9:
+        return VERIFICATION;
+      case 10:
+        return COMPLETED;
+      default:
+        return UNKNOWN;
+    }
+  }
+
+  /**
+   * 全部阶段模板，下标即 Template.getIndex()
+   */
+  public static List<Template> all() {
+    return ALL;
+  }
+
+  /**
+   * 按紧凑编码中的阶段下标取模板
+   *
+   * @throws IllegalArgumentException 下标不存在
+   */
+  public static Template forIndex(int index) {
+    if (index < 0 || index >= ALL.size()) {
+      throw new IllegalArgumentException("未知的阶段下标: " + index);
+    }
+    return ALL.get(index);
+  }
+
+  /**
+   * 单个阶段的模板：常量片段已编码为 UTF-8 字节
+   */
+  public static final class Template {
+
+    private final int index;
+    private final String label;
+    private final String status;
+    private final String message;
+    /**
+     * ,"label":"...","status":"...","timestamp":
+     */
+    private final byte[] middle;
+    /**
+     * ,"message":"..."}
+     */
+    private final byte[] tail;
+
+    private Template(int index, String label, String status, String message) {
+      this.index = index;
+      this.label = label;
+      this.status = status;
+      this.message = message;
+      this.middle = (",\"label\":" + quote(label) + ",\"status\":" + quote(status) + ",\"timestamp\":")
+          .getBytes(StandardCharsets.UTF_8);
+      this.tail = (",\"message\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 阶段下标（紧凑编码中代替 label/status/message 三个字段）
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    public String getLabel() {
+      return label;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    /**
+     * 渲染完整 JSON：只拼接 dataNumber 和 timestamp，一次分配恰好大小的数组
+     *
+     * @param number    数字
+     * @param timestamp 时间戳
+     * @return UTF-8 编码的 JSON
+     */
+    public byte[] render(int number, long timestamp) {
+      int numberLength = digits(number);
+      int timestampLength = digits(timestamp);
+      byte[] out = new byte[HEAD.length + numberLength + middle.length + timestampLength + tail.length];
+      int pos = 0;
+      System.arraycopy(HEAD, 0, out, pos, HEAD.length);
+      pos += HEAD.length;
+      pos = writeDigits(out, pos, number, numberLength);
+      System.arraycopy(middle, 0, out, pos, middle.length);
+      pos += middle.length;
+      pos = writeDigits(out, pos, timestamp, timestampLength);
+      System.arraycopy(tail, 0, out, pos, tail.length);
+      return out;
+    }
+  }
+
+  private static String quote(String value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("模板编码失败: " + value, e);
+    }
+  }
+
+  /**
+   * 十进制位数（含负号）
+   */
+  static int digits(long value) {
+    if (value == Long.MIN_VALUE) {
+      return 20;
+    }
+    int length = value < 0 ? 2 : 1;
+    long abs = Math.abs(value);
+    while (abs >= 10) {
+      abs /= 10;
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * 把 value 写入 out[pos, pos + length)，返回写入后的位置
+   */
+  static int writeDigits(byte[] out, int pos, long value, int length) {
+    if (value == Long.MIN_VALUE) {
+      byte[] min = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+      System.arraycopy(min, 0, out, pos, min.length);
+      return pos + min.length;
+    }
+    int end = pos + length;
+    long abs = Math.abs(value);
+    int i = end;
+    do {
+      out[--i] = (byte) ('0' + (abs % 10));
+      abs /= 10;
+    } while (abs != 0);
+    if (value < 0) {
+      out[--i] = '-';
+    }
+    return end;
+  }
+}
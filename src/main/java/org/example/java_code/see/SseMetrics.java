@@ -0,0 +1,187 @@
+package org.example.java_code.see;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+/**
+ * SSE 热路径指标（Micrometer），通过 /actuator/metrics 暴露
+ * <p>
+ * 按接口（endpoint 标签）统计：
+ * 1. sse.connections.active：当前连接数 2. sse.connections.closed：结束的连接数，outcome 为 completed | disconnected | failed
+ * 3. sse.events.sent：发出的事件数 4. sse.send.latency：事件从入队到写出的耗时（仅 SseEmitter 接口）
+ * 5. sse.serialization：事件编码耗时 6. sse.send.failures：发送失败，reason 为 io | evicted
+ * 7. sse.streams.cancelled：可取消流的结束原因，reason 为 cancelled | timeout | idle-timeout | max-lifetime 等
+ * <p>
+ * 每个接口的计量器在第一次使用时创建并缓存，热路径上只有计数器累加和 Timer 记录，不再查找注册表。
+ */
+@Component
+public class SseMetrics {
+
+  /**
+   * 连接结束方式
+   */
+  public enum Outcome {
+    /**
+     * 服务端发完全部事件后关闭
+     */
+    COMPLETED,
+    /**
+     * 客户端断开或容器关闭了连接（包括超时）
+     */
+    DISCONNECTED,
+    /**
+     * 写失败或被驱逐
+     */
+    FAILED
+  }
+
+  private final MeterRegistry registry;
+
+  private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+  public SseMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * 不接入 Actuator 时使用（单元测试、基准），指标记录在独立的 SimpleMeterRegistry 中
+   */
+  public static SseMetrics standalone() {
+    return new SseMetrics(new SimpleMeterRegistry());
+  }
+
+  public MeterRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * 接口的计量器，调用方应在建立流时取一次并持有
+   */
+  public Endpoint endpoint(String name) {
+    return endpoints.computeIfAbsent(name, Endpoint::new);
+  }
+
+  /**
+   * 单个接口的计量器
+   */
+  public final class Endpoint {
+
+    private final String name;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Counter eventsSent;
+
+    private final Timer sendLatency;
+
+    private final Timer serialization;
+
+    private final Counter ioFailures;
+
+    private final Counter evictions;
+
+    private final Map<Outcome, Counter> closed = new EnumMap<>(Outcome.class);
+
+    private final Map<String, Counter> cancelled = new ConcurrentHashMap<>();
+
+    private Endpoint(String name) {
+      this.name = name;
+      Gauge.builder("sse.connections.active", active, AtomicInteger::get)
+          .tag("endpoint", name)
+          .description("当前 SSE 连接数")
+          .register(registry);
+      this.eventsSent = Counter.builder("sse.events.sent")
+          .tag("endpoint", name)
+          .description("发出的 SSE 事件数")
+          .register(registry);
+      this.sendLatency = Timer.builder("sse.send.latency")
+          .tag("endpoint", name)
+          .description("事件从入队到写出的耗时")
+          .register(registry);
+      this.serialization = Timer.builder("sse.serialization")
+          .tag("endpoint", name)
+          .description("事件编码耗时")
+          .register(registry);
+      this.ioFailures = failureCounter("io");
+      this.evictions = failureCounter("evicted");
+      for (Outcome outcome : Outcome.values()) {
+        closed.put(outcome, Counter.builder("sse.connections.closed")
+            .tag("endpoint", name)
+            .tag("outcome", outcome.name().toLowerCase())
+            .register(registry));
+      }
+    }
+
+    private Counter failureCounter(String reason) {
+      return Counter.builder("sse.send.failures")
+          .tag("endpoint", name)
+          .tag("reason", reason)
+          .register(registry);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void connectionOpened() {
+      active.incrementAndGet();
+    }
+
+    public void connectionClosed(Outcome outcome) {
+      active.decrementAndGet();
+      closed.get(outcome).increment();
+    }
+
+    public void eventsSent(int events) {
+      eventsSent.increment(events);
+    }
+
+    public void sendLatency(long nanos) {
+      sendLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void serialized(long nanos) {
+      serialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void sendFailed() {
+      ioFailures.increment();
+    }
+
+    public void evicted() {
+      evictions.increment();
+    }
+
+    /**
+     * 可取消流结束：reason 来自服务端固定的状态值（cancelled、timeout、idle-timeout 等），基数有限
+     */
+    public void streamCancelled(String reason) {
+      cancelled.computeIfAbsent(reason, key -> Counter.builder("sse.streams.cancelled")
+          .tag("endpoint", name)
+          .tag("reason", key)
+          .register(registry)).increment();
+    }
+
+    /**
+     * 响应式接口：订阅时计为连接建立，每个交给下游的事件计为已发送，结束时按信号类型记录结束方式
+     */
+    public <T> Flux<T> track(Flux<T> events) {
+      return events
+          .doOnSubscribe(subscription -> connectionOpened())
+          .doOnNext(event -> eventsSent.increment())
+          .doFinally(signal -> connectionClosed(signal == SignalType.ON_COMPLETE ? Outcome.COMPLETED
+              : signal == SignalType.ON_ERROR ? Outcome.FAILED : Outcome.DISCONNECTED));
+    }
+  }
+}
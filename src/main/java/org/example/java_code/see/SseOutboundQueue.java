@@ -0,0 +1,392 @@
+package org.example.java_code.see;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 单个 SseEmitter 的有界发送队列
+ * <p>
+ * 生产者（心跳线程、Reactor 线程）只入队，不直接调用 emitter.send；真正的写操作由 drain 任务在独立的虚拟线程上串行完成，
+ * 每次最多写 drainBatch 个元素后重新提交。客户端 TCP 窗口满时阻塞的只是这个流自己的 drain 任务；驱逐时的
+ * emitter.complete() 同样交给 drain 线程（它要等 send 持有的写锁），生产者线程不会被慢客户端拖住。
+ * <p>
+ * 慢客户端判定：排队字节数超过高水位并持续 slowClientTimeout，或超过 maxQueuedBytes。判定为慢客户端后按策略处理：
+ * 1. conflate：丢掉队列中可合并的状态事件，只保留最新一个 2. evict：清空队列并关闭连接
+ */
+@Slf4j
+public final class SseOutboundQueue {
+
+  /**
+   * 终止信号，排在所有事件之后
+   */
+  private static final Object COMPLETE = new Object();
+
+  private final String streamId;
+
+  private final SseEmitter emitter;
+
+  private final SseOutboundQueues owner;
+
+  private final SseMetrics.Endpoint metrics;
+
+  private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+
+  private long queuedBytes;
+
+  /**
+   * 排队字节数开始超过高水位的时间，0 表示当前低于高水位
+   */
+  private long aboveHighWaterSince;
+
+  private boolean draining;
+
+  private boolean closed;
+
+  private boolean slow;
+
+  /**
+   * 最后一次成功写出的时间（System.nanoTime），建立时为创建时间
+   */
+  private volatile long lastSentNanos = System.nanoTime();
+
+  private Runnable onFailure = () -> {
+  };
+
+  SseOutboundQueue(String streamId, SseEmitter emitter, SseOutboundQueues owner, SseMetrics.Endpoint metrics) {
+    this.streamId = streamId;
+    this.emitter = emitter;
+    this.owner = owner;
+    this.metrics = metrics;
+    metrics.connectionOpened();
+  }
+
+  /**
+   * 发送失败或被驱逐时的回调（只调用一次）
+   */
+  public void onFailure(Runnable onFailure) {
+    this.onFailure = onFailure;
+  }
+
+  /**
+   * 入队一个已编码的完整 SSE 帧
+   *
+   * @param conflatable 是否为可合并的状态事件（慢客户端只保留最新一个）
+   * @return 队列已关闭（连接断开或被驱逐）时返回 false
+   */
+  public boolean enqueueFrame(byte[] frame, boolean conflatable) {
+    return enqueue(Set.of(new ResponseBodyEmitter.DataWithMediaType(frame, MediaType.TEXT_EVENT_STREAM)),
+        frame.length, 1, conflatable);
+  }
+
+  /**
+   * 入队一个 SseEventBuilder 事件
+   */
+  public boolean enqueueEvent(SseEmitter.SseEventBuilder event, boolean conflatable) {
+    Set<ResponseBodyEmitter.DataWithMediaType> items = event.build();
+    return enqueue(items, sizeOf(items), 1, conflatable);
+  }
+
+  /**
+   * 把多个事件作为一个队列元素入队：一次 emitter.send 写出，只 flush 一次
+   */
+  public boolean enqueueEvents(List<SseEmitter.SseEventBuilder> events, boolean conflatable) {
+    Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>();
+    for (SseEmitter.SseEventBuilder event : events) {
+      items.addAll(event.build());
+    }
+    return enqueue(items, sizeOf(items), events.size(), conflatable);
+  }
+
+  private static long sizeOf(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+    long bytes = 0;
+    for (ResponseBodyEmitter.DataWithMediaType item : items) {
+      Object data = item.getData();
+      bytes += data instanceof byte[] ? ((byte[]) data).length : utf8Length(String.valueOf(data));
+    }
+    return bytes;
+  }
+
+  /**
+   * 按 UTF-8 编码后的字节数计算（中文每个字符 3 字节），不分配临时数组
+   */
+  static long utf8Length(CharSequence text) {
+    long bytes = 0;
+    for (int i = 0, n = text.length(); i < n; i++) {
+      char c = text.charAt(i);
+      if (c < 0x80) {
+        bytes++;
+      } else if (c < 0x800) {
+        bytes += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+        bytes += 4;
+        i++;
+      } else {
+        bytes += 3;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * 已入队的事件全部发出后关闭连接
+   */
+  public void complete() {
+    enqueue(COMPLETE, 0, 0, false);
+  }
+
+  /**
+   * 丢弃未发送的事件并注销（连接已由容器关闭时调用）
+   */
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      owner.queuedBytes.add(-queuedBytes);
+      queue.clear();
+      queuedBytes = 0;
+    }
+    owner.unregister(this);
+    metrics.connectionClosed(SseMetrics.Outcome.DISCONNECTED);
+  }
+
+  public String getStreamId() {
+    return streamId;
+  }
+
+  public synchronized long getQueuedBytes() {
+    return queuedBytes;
+  }
+
+  public synchronized int getQueuedEvents() {
+    return queue.size();
+  }
+
+  /**
+   * 本流所属接口的计量器
+   */
+  public SseMetrics.Endpoint getMetrics() {
+    return metrics;
+  }
+
+  public long getLastSentNanos() {
+    return lastSentNanos;
+  }
+
+  public synchronized boolean isSlow() {
+    return slow;
+  }
+
+  private boolean enqueue(Object data, long bytes, int events, boolean conflatable) {
+    boolean evict = false;
+    boolean schedule = false;
+    synchronized (this) {
+      if (closed) {
+        return false;
+      }
+      queue.addLast(new Entry(data, bytes, events, conflatable, System.nanoTime()));
+      queuedBytes += bytes;
+      owner.queuedBytes.add(bytes);
+      if (checkSlowClient()) {
+        if (owner.policy == SseProperties.SlowClientPolicy.EVICT) {
+          evict = true;
+        } else {
+          conflate();
+          // 不可合并的事件本身就超过上限，合并也救不回来
+          evict = queuedBytes > owner.maxQueuedBytes;
+        }
+      }
+      if (!evict && !draining) {
+        draining = true;
+        schedule = true;
+      }
+    }
+    if (evict) {
+      evict();
+      return false;
+    }
+    return !schedule || scheduleDrain();
+  }
+
+  private boolean scheduleDrain() {
+    try {
+      owner.drainExecutor.execute(this::drain);
+      return true;
+    } catch (RejectedExecutionException e) {
+      fail(new IOException("发送线程池已关闭", e));
+      return false;
+    }
+  }
+
+  /**
+   * 更新慢客户端状态，返回是否需要处理
+   */
+  private boolean checkSlowClient() {
+    if (queuedBytes <= owner.highWaterMarkBytes) {
+      return false;
+    }
+    long now = System.nanoTime();
+    if (aboveHighWaterSince == 0) {
+      aboveHighWaterSince = now;
+    }
+    if (queuedBytes > owner.maxQueuedBytes || now - aboveHighWaterSince >= owner.slowClientTimeoutNanos) {
+      if (!slow) {
+        slow = true;
+        owner.slowClients.increment();
+        log.warn("🐢 [{}] 慢客户端：排队 {} 字节 / {} 个事件", streamId, queuedBytes, queue.size());
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 只保留最后一个可合并事件，不可合并的事件（控制、取消）保持原顺序
+   */
+  private void conflate() {
+    Entry latest = null;
+    for (Iterator<Entry> it = queue.descendingIterator(); it.hasNext(); ) {
+      Entry entry = it.next();
+      if (!entry.conflatable) {
+        continue;
+      }
+      if (latest == null) {
+        latest = entry;
+        continue;
+      }
+      it.remove();
+      queuedBytes -= entry.bytes;
+      owner.queuedBytes.add(-entry.bytes);
+      owner.conflatedEvents.increment();
+    }
+    // 仍标记为慢客户端，直到 drain 真正把队列写到高水位以下
+  }
+
+  private void evict() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      owner.queuedBytes.add(-queuedBytes);
+      queue.clear();
+      queuedBytes = 0;
+    }
+    owner.evictedStreams.increment();
+    owner.unregister(this);
+    metrics.evicted();
+    metrics.connectionClosed(SseMetrics.Outcome.FAILED);
+    log.warn("🚫 [{}] 慢客户端被驱逐", streamId);
+    // 当前线程是生产者，而 complete() 要等阻塞中的 send 释放写锁：交给 drain 线程关闭
+    try {
+      owner.drainExecutor.execute(this::completeEmitter);
+    } catch (RejectedExecutionException e) {
+      log.debug("[{}] 发送线程池已关闭，不再关闭被驱逐的连接", streamId);
+    }
+    onFailure.run();
+  }
+
+  private void completeEmitter() {
+    try {
+      emitter.complete();
+    } catch (RuntimeException e) {
+      log.debug("[{}] 关闭连接失败: {}", streamId, e.getMessage());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void drain() {
+    for (int written = 0; ; written++) {
+      if (written == owner.drainBatch) {
+        // 让出线程，draining 保持 true，剩余事件由新的 drain 任务继续写出
+        scheduleDrain();
+        return;
+      }
+      Entry entry;
+      synchronized (this) {
+        entry = queue.pollFirst();
+        if (entry == null || closed) {
+          draining = false;
+          return;
+        }
+        queuedBytes -= entry.bytes;
+        owner.queuedBytes.add(-entry.bytes);
+        if (queuedBytes <= owner.highWaterMarkBytes) {
+          aboveHighWaterSince = 0;
+          slow = false;
+        }
+      }
+      if (entry.data == COMPLETE) {
+        synchronized (this) {
+          closed = true;
+          draining = false;
+        }
+        owner.unregister(this);
+        metrics.connectionClosed(SseMetrics.Outcome.COMPLETED);
+        completeEmitter();
+        return;
+      }
+      try {
+        emitter.send((Set<ResponseBodyEmitter.DataWithMediaType>) entry.data);
+        owner.sentBytes.add(entry.bytes);
+        owner.sentEvents.add(entry.events);
+        owner.flushes.increment();
+        long now = System.nanoTime();
+        lastSentNanos = now;
+        // 排队等待 + 阻塞写的时间，慢客户端和线程池排队都体现在这里
+        metrics.sendLatency(now - entry.enqueuedNanos);
+        metrics.eventsSent(entry.events);
+      } catch (IOException | RuntimeException e) {
+        // 除了连接断开，消息转换失败等运行时异常也必须结束 drain，否则 draining 一直为 true，流静默卡住
+        fail(e);
+        return;
+      }
+    }
+  }
+
+  private void fail(Exception e) {
+    synchronized (this) {
+      if (closed) {
+        draining = false;
+        return;
+      }
+      closed = true;
+      draining = false;
+      owner.queuedBytes.add(-queuedBytes);
+      queue.clear();
+      queuedBytes = 0;
+    }
+    owner.unregister(this);
+    metrics.sendFailed();
+    metrics.connectionClosed(SseMetrics.Outcome.FAILED);
+    log.warn("❌ [{}] SSE 发送失败: {}", streamId, e.getMessage());
+    onFailure.run();
+  }
+
+  private static final class Entry {
+    private final Object data;
+    private final long bytes;
+    private final int events;
+    private final boolean conflatable;
+    private final long enqueuedNanos;
+
+    private Entry(Object data, long bytes, int events, boolean conflatable, long enqueuedNanos) {
+      this.data = data;
+      this.bytes = bytes;
+      this.events = events;
+      this.conflatable = conflatable;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+}
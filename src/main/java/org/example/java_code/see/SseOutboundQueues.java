@@ -0,0 +1,131 @@
+package org.example.java_code.see;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.java_code.config.SseProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SseEmitter 发送队列的工厂和指标
+ * <p>
+ * 每个 SseEmitter 流一个 SseOutboundQueue。drain 任务使用独立的虚拟线程（每个任务一个），不与 SseProducerExecutor
+ * 共用：阻塞在 emitter.send 上的慢客户端只占用自己的虚拟线程，不会占满固定大小的生产者线程池而拖住其他流。
+ */
+@Component
+public class SseOutboundQueues {
+
+  /**
+   * stats() 中列出的排队最多的流数量
+   */
+  private static final int TOP_STREAMS = 20;
+
+  /**
+   * drain 和关闭连接使用的线程
+   */
+  final ExecutorService drainExecutor = Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name("sse-drain-", 0).factory());
+
+  final int drainBatch;
+
+  final long highWaterMarkBytes;
+
+  final long maxQueuedBytes;
+
+  final long slowClientTimeoutNanos;
+
+  final SseProperties.SlowClientPolicy policy;
+
+  final LongAdder queuedBytes = new LongAdder();
+
+  final LongAdder sentBytes = new LongAdder();
+
+  final LongAdder slowClients = new LongAdder();
+
+  final LongAdder conflatedEvents = new LongAdder();
+
+  final LongAdder evictedStreams = new LongAdder();
+
+  final LongAdder sentEvents = new LongAdder();
+
+  final LongAdder flushes = new LongAdder();
+
+  private final Map<SseOutboundQueue, Boolean> queues = new ConcurrentHashMap<>();
+
+  private final SseMetrics metrics;
+
+  public SseOutboundQueues(SseProperties properties) {
+    this(properties, SseMetrics.standalone());
+  }
+
+  @Autowired
+  public SseOutboundQueues(SseProperties properties, SseMetrics metrics) {
+    SseProperties.OutboundDTO config = properties.getOutbound();
+    this.drainBatch = Math.max(1, config.getDrainBatch());
+    this.metrics = metrics;
+    this.highWaterMarkBytes = config.getHighWaterMark().toBytes();
+    this.maxQueuedBytes = Math.max(config.getMaxQueued().toBytes(), highWaterMarkBytes);
+    this.slowClientTimeoutNanos = config.getSlowClientTimeout().toNanos();
+    this.policy = config.getSlowClientPolicy();
+  }
+
+  /**
+   * 为一个 SseEmitter 创建发送队列
+   *
+   * @param endpoint 接口名，作为指标的 endpoint 标签
+   */
+  public SseOutboundQueue open(String endpoint, String streamId, SseEmitter emitter) {
+    SseOutboundQueue queue = new SseOutboundQueue(streamId, emitter, this, metrics.endpoint(endpoint));
+    queues.put(queue, Boolean.TRUE);
+    return queue;
+  }
+
+  public SseMetrics getMetrics() {
+    return metrics;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    drainExecutor.shutdownNow();
+  }
+
+  void unregister(SseOutboundQueue queue) {
+    queues.remove(queue);
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> top = new LinkedHashMap<>();
+    queues.keySet().stream()
+        .filter(queue -> queue.getQueuedBytes() > 0)
+        .sorted(Comparator.comparingLong(SseOutboundQueue::getQueuedBytes).reversed())
+        .limit(TOP_STREAMS)
+        .forEach(queue -> {
+          Map<String, Object> stream = new LinkedHashMap<>();
+          stream.put("queuedBytes", queue.getQueuedBytes());
+          stream.put("queuedEvents", queue.getQueuedEvents());
+          stream.put("slow", queue.isSlow());
+          top.put(queue.getStreamId(), stream);
+        });
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("streams", queues.size());
+    stats.put("queuedBytes", queuedBytes.sum());
+    stats.put("sentBytes", sentBytes.sum());
+    stats.put("sentEvents", sentEvents.sum());
+    // 每次 emitter.send 写出一个队列元素并 flush 一次，合并发送时一次包含多个事件
+    stats.put("flushes", flushes.sum());
+    stats.put("highWaterMarkBytes", highWaterMarkBytes);
+    stats.put("policy", policy.name().toLowerCase());
+    stats.put("slowClients", slowClients.sum());
+    stats.put("conflatedEvents", conflatedEvents.sum());
+    stats.put("evictedStreams", evictedStreams.sum());
+    stats.put("topQueued", top);
+    return stats;
+  }
+}
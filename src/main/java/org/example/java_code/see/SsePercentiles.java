@@ -0,0 +1,25 @@
+package org.example.java_code.see;
+
+/**
+ * 延迟分位数计算（批量流的耗时汇总、跨节点取消延迟、压测报告共用）
+ */
+public final class SsePercentiles {
+
+  private SsePercentiles() {
+  }
+
+  /**
+   * 最近秩法：第 ceil(p * n) 个值
+   *
+   * @param sorted 已升序排列的样本
+   * @param p      分位（0 ~ 1）
+   * @return 分位值，没有样本时为 0
+   */
+  public static long percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(p * sorted.length);
+    return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+  }
+}
@@ -0,0 +1,147 @@
+package org.example.java_code.see;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SseEmitter 接口的生产者线程池（代替 SimpleFluxSseController 中固定的 newFixedThreadPool(10)）
+ * <p>
+ * 三种模式（sse.executor.mode）：
+ * 1. fixed：固定数量的平台线程，超出的任务在队列中排队
+ * 2. virtual：每个任务一个虚拟线程，不排队
+ * 3. bounded-virtual：每个任务一个虚拟线程，但最多 maxConcurrency 个同时运行，其余任务在信号量上等待
+ * <p>
+ * 三种模式统一统计排队数和运行数，便于观察长连接占满线程导致的队头阻塞。排队数和运行数同时作为 Micrometer 指标
+ * sse.executor.queued / sse.executor.active 暴露（MeterBinder 由 Actuator 自动绑定）。
+ */
+@Slf4j
+@Component
+public class SseProducerExecutor implements Executor, MeterBinder {
+
+  private final SseProperties.ExecutorMode mode;
+
+  private final ExecutorService delegate;
+
+  /**
+   * 仅 bounded-virtual 模式使用
+   */
+  private final Semaphore permits;
+
+  private final int concurrencyLimit;
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final AtomicInteger active = new AtomicInteger();
+
+  private final AtomicInteger peakActive = new AtomicInteger();
+
+  private final LongAdder completed = new LongAdder();
+
+  public SseProducerExecutor(SseProperties properties) {
+    SseProperties.ExecutorDTO config = properties.getExecutor();
+    this.mode = config.getMode();
+    switch (mode) {
+      case VIRTUAL:
+        this.delegate = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-producer-vt-", 0).factory());
+        this.permits = null;
+        this.concurrencyLimit = -1;
+        break;
+      case BOUNDED_VIRTUAL:
+        this.delegate = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-producer-vt-", 0).factory());
+        this.permits = new Semaphore(config.getMaxConcurrency());
+        this.concurrencyLimit = config.getMaxConcurrency();
+        break;
+      case FIXED:
+      default:
+        this.delegate = Executors.newFixedThreadPool(config.getPoolSize(),
+            Thread.ofPlatform().name("sse-producer-", 0).factory());
+        this.permits = null;
+        this.concurrencyLimit = config.getPoolSize();
+    }
+    log.info("🧵 SSE 生产者线程模式: {} (并发上限: {})", mode, concurrencyLimit);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    queued.incrementAndGet();
+    try {
+      delegate.execute(() -> run(task));
+    } catch (Throwable e) {
+      // 已关闭时的 RejectedExecutionException、创建线程失败时的 OutOfMemoryError：任务不会执行，排队数必须退回
+      queued.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void run(Runnable task) {
+    if (permits != null) {
+      try {
+        // 虚拟线程在信号量上阻塞不占用平台线程
+        permits.acquire();
+      } catch (InterruptedException e) {
+        queued.decrementAndGet();
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    queued.decrementAndGet();
+    peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+    try {
+      task.run();
+    } finally {
+      active.decrementAndGet();
+      completed.increment();
+      if (permits != null) {
+        permits.release();
+      }
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    String modeTag = mode.name().toLowerCase();
+    Gauge.builder("sse.executor.queued", queued, AtomicInteger::get)
+        .tag("mode", modeTag)
+        .description("等待执行的 SSE 生产者任务数")
+        .register(registry);
+    Gauge.builder("sse.executor.active", active, AtomicInteger::get)
+        .tag("mode", modeTag)
+        .description("正在执行的 SSE 生产者任务数")
+        .register(registry);
+  }
+
+  /**
+   * 线程池运行指标：排队数、运行数、峰值、完成数
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("mode", mode);
+    stats.put("concurrencyLimit", concurrencyLimit);
+    stats.put("queued", queued.get());
+    stats.put("active", active.get());
+    stats.put("peakActive", peakActive.get());
+    stats.put("completed", completed.sum());
+    return stats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // fixed 模式下还在队列里的任务不会再执行
+    queued.addAndGet(-delegate.shutdownNow().size());
+  }
+}
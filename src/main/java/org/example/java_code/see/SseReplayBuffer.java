@@ -0,0 +1,76 @@
+package org.example.java_code.see;
+
+/**
+ * 固定容量的事件环形缓冲区（用于断线重连后按 Last-Event-ID 补发）
+ * <p>
+ * 1. 每追加一个事件分配一个单调递增的序号（从 1 开始），作为 SSE id 的后半部分 2. 容量满后覆盖最旧的事件 3.
+ * 重连时只补发序号大于 Last-Event-ID 的事件；如果客户端落后太多、需要的事件已被覆盖，则补发仍保留的全部事件并报告缺口
+ * <p>
+ * 非线程安全，由调用方（每个流的上下文）加锁。
+ *
+ * @param <E> 事件类型
+ */
+public final class SseReplayBuffer<E> {
+
+  /**
+   * 逐个补发事件的回调
+   */
+  @FunctionalInterface
+  public interface ReplayConsumer<E, X extends Exception> {
+
+    void accept(long sequence, E event) throws X;
+  }
+
+  private final Object[] events;
+
+  /**
+   * 下一个事件的序号
+   */
+  private long nextSequence = 1;
+
+  public SseReplayBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.events = new Object[capacity];
+  }
+
+  /**
+   * 追加事件
+   *
+   * @return 分配给该事件的序号
+   */
+  public long append(E event) {
+    long sequence = nextSequence++;
+    events[(int) (sequence % events.length)] = event;
+    return sequence;
+  }
+
+  /**
+   * 最近一个事件的序号，还没有事件时为 0
+   */
+  public long lastSequence() {
+    return nextSequence - 1;
+  }
+
+  /**
+   * 仍保留的最旧事件序号，还没有事件时为 1
+   */
+  public long oldestSequence() {
+    return Math.max(1, nextSequence - events.length);
+  }
+
+  /**
+   * 按顺序补发序号大于 lastSequence 的事件
+   *
+   * @return 需要补发但已被覆盖的事件数（0 表示没有缺口）
+   */
+  @SuppressWarnings("unchecked")
+  public <X extends Exception> long replayAfter(long lastSequence, ReplayConsumer<E, X> consumer) throws X {
+    long from = Math.max(lastSequence + 1, oldestSequence());
+    for (long sequence = from; sequence < nextSequence; sequence++) {
+      consumer.accept(sequence, (E) events[(int) (sequence % events.length)]);
+    }
+    return Math.max(0, from - lastSequence - 1);
+  }
+}
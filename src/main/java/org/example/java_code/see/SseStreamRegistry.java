@@ -0,0 +1,127 @@
+package org.example.java_code.see;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 流注册表：streamId → 流对象，外加按所有者（用户/租户）和标签的二级索引
+ * <p>
+ * 1. 注册用 putIfAbsent，注销用 remove(key, value)：只会移除自己注册的那一个，不会误删同名的新流 2.
+ * 索引的增删都在 ConcurrentHashMap.compute 中完成（只锁单个所有者/标签），空集合随最后一个流一起移除 3.
+ * 按所有者/标签查找只遍历匹配的流，批量取消的开销与匹配数成正比，与注册总数无关
+ *
+ * @param <V> 流对象类型
+ */
+public final class SseStreamRegistry<V> {
+
+  private final Map<String, Entry<V>> streams = new ConcurrentHashMap<>();
+
+  private final Map<String, Set<String>> byOwner = new ConcurrentHashMap<>();
+
+  private final Map<String, Set<String>> byTag = new ConcurrentHashMap<>();
+
+  /**
+   * 注册流
+   *
+   * @param owner 所有者，可为空
+   * @param tags  标签，可为空
+   * @return streamId 已被占用时返回 false
+   */
+  public boolean register(String streamId, String owner, Collection<String> tags, V value) {
+    Set<String> tagSet = tags == null || tags.isEmpty() ? Set.of() : Set.copyOf(tags);
+    Entry<V> entry = new Entry<>(value, owner, tagSet);
+    if (streams.putIfAbsent(streamId, entry) != null) {
+      return false;
+    }
+    if (owner != null) {
+      index(byOwner, owner, streamId);
+    }
+    for (String tag : tagSet) {
+      index(byTag, tag, streamId);
+    }
+    return true;
+  }
+
+  /**
+   * 注销流；streamId 当前对应的不是 value（已被新流替换）时不处理
+   */
+  public boolean unregister(String streamId, V value) {
+    Entry<V> entry = streams.get(streamId);
+    if (entry == null || entry.value != value || !streams.remove(streamId, entry)) {
+      return false;
+    }
+    if (entry.owner != null) {
+      unindex(byOwner, entry.owner, streamId);
+    }
+    for (String tag : entry.tags) {
+      unindex(byTag, tag, streamId);
+    }
+    return true;
+  }
+
+  public V get(String streamId) {
+    Entry<V> entry = streams.get(streamId);
+    return entry == null ? null : entry.value;
+  }
+
+  public List<V> findByOwner(String owner) {
+    return find(byOwner, owner);
+  }
+
+  public List<V> findByTag(String tag) {
+    return find(byTag, tag);
+  }
+
+  public Collection<V> values() {
+    return streams.values().stream().map(entry -> entry.value).toList();
+  }
+
+  public int size() {
+    return streams.size();
+  }
+
+  public int owners() {
+    return byOwner.size();
+  }
+
+  public int tags() {
+    return byTag.size();
+  }
+
+  private List<V> find(Map<String, Set<String>> index, String key) {
+    Set<String> ids = key == null ? null : index.get(key);
+    if (ids == null) {
+      return List.of();
+    }
+    List<V> result = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      V value = get(id);
+      if (value != null) {
+        result.add(value);
+      }
+    }
+    return result;
+  }
+
+  private static void index(Map<String, Set<String>> index, String key, String streamId) {
+    index.compute(key, (k, ids) -> {
+      Set<String> set = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+      set.add(streamId);
+      return set;
+    });
+  }
+
+  private static void unindex(Map<String, Set<String>> index, String key, String streamId) {
+    index.computeIfPresent(key, (k, ids) -> {
+      ids.remove(streamId);
+      return ids.isEmpty() ? null : ids;
+    });
+  }
+
+  private record Entry<V>(V value, String owner, Set<String> tags) {
+  }
+}
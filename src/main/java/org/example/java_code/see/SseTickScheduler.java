@@ -0,0 +1,220 @@
+package org.example.java_code.see;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+/**
+ * 共享心跳调度器
+ * <p>
+ * 所有可取消流共用一个定时线程，代替每个流各自的 Flux.interval： 1. 流注册一个 TickListener 2.
+ * 定时线程每个周期遍历一次注册表，按 batchSize 切分批次 3. 批次交给 fan-out 线程池并行发送 4.
+ * 上一次发送尚未结束的流跳过本次 tick，避免同一个流堆积任务
+ * <p>
+ * 无论注册多少个流，定时任务只有一个。fan-out 队列有上限（maxPendingBatches）：上一个 tick 的批次还在排队时整个 tick 跳过
+ * （排队的批次执行时本来就会发出最新的心跳，相当于合并），队列排满时剩余批次跳过，两者都计入指标，发送跟不上时堆内存不会增长。
+ */
+@Slf4j
+@Component
+public class SseTickScheduler {
+
+  /**
+   * 每个 tick 的回调，sequence 为该流自己的计数（从 0 开始，与 Flux.interval 一致）
+   */
+  @FunctionalInterface
+  public interface TickListener {
+
+    void onTick(long sequence);
+  }
+
+  private final Map<Long, Registration> registrations = new ConcurrentHashMap<>();
+
+  private final AtomicLong registrationIds = new AtomicLong();
+
+  private final ScheduledExecutorService ticker;
+
+  private final ThreadPoolExecutor fanOut;
+
+  private final int batchSize;
+
+  private final long periodMillis;
+
+  private final LongAdder ticks = new LongAdder();
+
+  private final LongAdder dispatched = new LongAdder();
+
+  private final LongAdder skippedBusy = new LongAdder();
+
+  private final LongAdder skippedTicks = new LongAdder();
+
+  private final LongAdder skippedBatches = new LongAdder();
+
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  private volatile long lastTickNanos;
+
+  public SseTickScheduler(SseProperties properties) {
+    SseProperties.TickDTO tick = properties.getTick();
+    this.batchSize = Math.max(1, tick.getBatchSize());
+    this.periodMillis = tick.getPeriod().toMillis();
+    this.fanOut = new ThreadPoolExecutor(tick.getFanOutThreads(), tick.getFanOutThreads(),
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, tick.getMaxPendingBatches())),
+        Thread.ofPlatform().name("sse-tick-fanout-", 0).daemon().factory());
+    this.ticker = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("sse-tick").daemon().factory());
+  }
+
+  /**
+   * 启动定时任务（容器在构造完成后调用，手动构造时需自行调用），重复调用无效果
+   */
+  @PostConstruct
+  public void start() {
+    if (started.compareAndSet(false, true)) {
+      ticker.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 注册一个流，返回的 Disposable 用于注销（与原来 Flux.interval 的订阅句柄用法一致）
+   *
+   * @param listener tick 回调
+   * @return 注销句柄
+   */
+  public Disposable register(TickListener listener) {
+    long id = registrationIds.incrementAndGet();
+    Registration registration = new Registration(id, listener);
+    registrations.put(id, registration);
+    return registration;
+  }
+
+  /**
+   * 执行一次 tick（定时线程调用；包内可见，供基准测试直接驱动）
+   */
+  void tick() {
+    long start = System.nanoTime();
+    ticks.increment();
+    if (!fanOut.getQueue().isEmpty()) {
+      skippedTicks.increment();
+      lastTickNanos = System.nanoTime() - start;
+      return;
+    }
+    try {
+      Registration[] batch = new Registration[batchSize];
+      int size = 0;
+      for (Registration registration : registrations.values()) {
+        batch[size++] = registration;
+        if (size == batchSize) {
+          submit(batch, size);
+          batch = new Registration[batchSize];
+          size = 0;
+        }
+      }
+      if (size > 0) {
+        submit(batch, size);
+      }
+    } catch (Exception e) {
+      // 定时任务抛出异常会被 ScheduledExecutorService 静默取消，这里必须兜住
+      log.error("❌ 共享心跳调度异常", e);
+    }
+    lastTickNanos = System.nanoTime() - start;
+  }
+
+  private void submit(Registration[] batch, int size) {
+    try {
+      fanOut.execute(() -> {
+        for (int i = 0; i < size; i++) {
+          batch[i].fire();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      if (fanOut.isShutdown()) {
+        log.warn("⚠️ 心跳批次被拒绝（调度器已关闭）");
+      } else {
+        skippedBatches.increment();
+      }
+    }
+  }
+
+  /**
+   * 调度器运行指标
+   */
+  public Map<String, Object> stats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("registered", registrations.size());
+    stats.put("periodMillis", periodMillis);
+    stats.put("batchSize", batchSize);
+    stats.put("ticks", ticks.sum());
+    stats.put("dispatched", dispatched.sum());
+    stats.put("skippedBusy", skippedBusy.sum());
+    stats.put("skippedTicks", skippedTicks.sum());
+    stats.put("skippedBatches", skippedBatches.sum());
+    stats.put("pendingBatches", fanOut.getQueue().size());
+    stats.put("lastTickMicros", TimeUnit.NANOSECONDS.toMicros(lastTickNanos));
+    return stats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    ticker.shutdownNow();
+    fanOut.shutdownNow();
+    registrations.clear();
+  }
+
+  private final class Registration implements Disposable {
+
+    private final long id;
+    private final TickListener listener;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean disposed;
+
+    private Registration(long id, TickListener listener) {
+      this.id = id;
+      this.listener = listener;
+    }
+
+    private void fire() {
+      if (disposed) {
+        return;
+      }
+      if (!running.compareAndSet(false, true)) {
+        skippedBusy.increment();
+        return;
+      }
+      try {
+        listener.onTick(sequence.getAndIncrement());
+        dispatched.increment();
+      } catch (Exception e) {
+        log.error("❌ 心跳回调异常", e);
+      } finally {
+        running.set(false);
+      }
+    }
+
+    @Override
+    public void dispose() {
+      disposed = true;
+      registrations.remove(id);
+    }
+
+    @Override
+    public boolean isDisposed() {
+      return disposed;
+    }
+  }
+}
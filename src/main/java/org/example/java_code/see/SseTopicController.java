@@ -0,0 +1,74 @@
+package org.example.java_code.see;
+
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+/**
+ * 多播主题 SSE 控制器
+ * <p>
+ * 与 /api/sse/heartbeat、/api/sse/cancelable 每个连接一条独立管道不同，同一主题的订阅者共享一个生产者。
+ * <p>
+ * 统计接口放在 /api/sse/topic-stats 而不是 /api/sse/topics 下面，/api/sse/topics/{topic} 下的任何名字都是合法主题。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sse")
+@CrossOrigin(origins = "*", methods = { RequestMethod.GET, RequestMethod.POST,
+    RequestMethod.OPTIONS }, allowedHeaders = "*", maxAge = 3600)
+public class SseTopicController {
+
+  @Autowired
+  private SseTopicService sseTopicService;
+
+  /**
+   * 请求：GET /api/sse/topics/{topic}?bufferSize=256&overflow=drop-oldest
+   * <p>
+   * 数据：topicSubscribed + 主题心跳（每个 tick 一次）和发布的消息（topicEvent）
+   */
+  @GetMapping(value = "/topics/{topic}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<String>> subscribe(@PathVariable String topic,
+      @RequestParam(value = "bufferSize", required = false) Integer bufferSize,
+      @RequestParam(value = "overflow", required = false) String overflow) {
+    SseProperties.OverflowPolicy policy;
+    try {
+      policy = SseTopicService.parseOverflow(overflow);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "未知的 overflow 策略: " + overflow);
+    }
+    log.info("📡 [{}] 收到主题订阅请求", topic);
+    return sseTopicService.subscribe(topic, bufferSize, policy);
+  }
+
+  /**
+   * 请求：POST /api/sse/topics/{topic}/publish 请求体：消息文本
+   */
+  @PostMapping("/topics/{topic}/publish")
+  public Map<String, Object> publish(@PathVariable String topic, @RequestBody String message) {
+    int delivered = sseTopicService.publish(topic, message);
+    return Map.of("topic", topic, "delivered", delivered);
+  }
+
+  /**
+   * 请求：GET /api/sse/topic-stats
+   */
+  @GetMapping("/topic-stats")
+  public Map<String, Object> stats() {
+    return sseTopicService.stats();
+  }
+}
@@ -0,0 +1,226 @@
+package org.example.java_code.see;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.SseProperties;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 多播主题服务
+ * <p>
+ * 同一个主题的所有订阅者共享一个生产者和一个 Sinks.many().multicast().directBestEffort()： 1.
+ * 第一个订阅者到来时向共享心跳调度器注册生产者，最后一个离开时注销并移除主题（引用计数） 2. 每个事件只编码一次，所有订阅者共享同一个
+ * ServerSentEvent 对象 3. 每个订阅者有自己的有界缓冲区，满了按策略丢最旧 / 丢最新 / 断开，慢订阅者不会拖慢其他订阅者
+ * <p>
+ * 与 testSinks 演示的 multicast().onBackpressureBuffer 不同，directBestEffort 不会让最慢的消费者决定整体流速。
+ */
+@Slf4j
+@Service
+public class SseTopicService {
+
+  static final String TOPIC_EVENT = "topicEvent";
+
+  static final String SUBSCRIBED_EVENT = "topicSubscribed";
+
+  private final Map<String, TopicContext> topics = new ConcurrentHashMap<>();
+
+  private final SseTickScheduler tickScheduler;
+
+  private final ObjectMapper objectMapper;
+
+  private final SseProperties.TopicDTO topicConfig;
+
+  private final LongAdder published = new LongAdder();
+
+  private final LongAdder droppedOldest = new LongAdder();
+
+  private final LongAdder droppedNewest = new LongAdder();
+
+  private final LongAdder disconnectedSlow = new LongAdder();
+
+  public SseTopicService(SseTickScheduler tickScheduler, ObjectMapper objectMapper, SseProperties properties) {
+    this.tickScheduler = tickScheduler;
+    this.objectMapper = objectMapper;
+    this.topicConfig = properties.getTopic();
+  }
+
+  /**
+   * 订阅主题
+   *
+   * @param topic      主题名
+   * @param bufferSize 订阅者缓冲区大小，null 使用 sse.topic.buffer-size
+   * @param overflow   缓冲区满时的策略，null 使用 sse.topic.overflow
+   * @return 主题事件流
+   */
+  public Flux<ServerSentEvent<String>> subscribe(String topic, Integer bufferSize,
+      SseProperties.OverflowPolicy overflow) {
+    int size = Math.max(1, Math.min(bufferSize == null ? topicConfig.getBufferSize() : bufferSize,
+        topicConfig.getMaxBufferSize()));
+    SseProperties.OverflowPolicy policy = overflow == null ? topicConfig.getOverflow() : overflow;
+
+    return Flux.defer(() -> {
+      TopicContext context = acquire(topic);
+      Map<String, Object> subscribed = new LinkedHashMap<>();
+      subscribed.put("topic", topic);
+      subscribed.put("subscribers", context.sink.currentSubscriberCount() + 1);
+      subscribed.put("bufferSize", size);
+      subscribed.put("overflow", policy.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+      ServerSentEvent<String> first = ServerSentEvent.<String>builder()
+          .event(SUBSCRIBED_EVENT)
+          .data(toJson(subscribed))
+          .build();
+
+      return withOverflowPolicy(context.sink.asFlux(), size, policy)
+          .startWith(first)
+          .doFinally(signal -> release(topic, context));
+    });
+  }
+
+  /**
+   * 向主题发布一条消息
+   *
+   * @return 收到该消息的订阅者数；主题不存在（没有订阅者）时返回 0
+   */
+  public int publish(String topic, String message) {
+    TopicContext context = topics.get(topic);
+    if (context == null) {
+      return 0;
+    }
+    return context.emit(message);
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> perTopic = new LinkedHashMap<>();
+    topics.forEach((name, context) -> perTopic.put(name, context.sink.currentSubscriberCount()));
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("topics", topics.size());
+    stats.put("subscribers", perTopic);
+    stats.put("published", published.sum());
+    stats.put("droppedOldest", droppedOldest.sum());
+    stats.put("droppedNewest", droppedNewest.sum());
+    stats.put("disconnectedSlow", disconnectedSlow.sum());
+    return stats;
+  }
+
+  /**
+   * 解析 drop-oldest / drop_oldest / DROP_OLDEST
+   */
+  public static SseProperties.OverflowPolicy parseOverflow(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return SseProperties.OverflowPolicy.valueOf(value.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+
+  private Flux<ServerSentEvent<String>> withOverflowPolicy(Flux<ServerSentEvent<String>> source, int size,
+      SseProperties.OverflowPolicy policy) {
+    switch (policy) {
+      case DROP_NEWEST:
+        return source.onBackpressureBuffer(size, dropped -> droppedNewest.increment(),
+            BufferOverflowStrategy.DROP_LATEST);
+      case DISCONNECT:
+        // 不用 BufferOverflowStrategy.ERROR：错误要排在缓冲的事件之后，客户端不读就永远不会断开
+        Sinks.One<Boolean> overflowed = Sinks.one();
+        return source.onBackpressureBuffer(size, dropped -> {
+              if (overflowed.tryEmitValue(Boolean.TRUE).isSuccess()) {
+                disconnectedSlow.increment();
+                log.warn("🐢 订阅者缓冲区已满（{} 个事件），断开慢订阅者", size);
+              }
+            }, BufferOverflowStrategy.DROP_LATEST)
+            .takeUntilOther(overflowed.asMono());
+      case DROP_OLDEST:
+      default:
+        return source.onBackpressureBuffer(size, dropped -> droppedOldest.increment(),
+            BufferOverflowStrategy.DROP_OLDEST);
+    }
+  }
+
+  private TopicContext acquire(String topic) {
+    return topics.compute(topic, (name, context) -> {
+      TopicContext current = context == null ? new TopicContext(name) : context;
+      if (current.references++ == 0) {
+        // 第一个订阅者：启动共享生产者
+        current.producer = tickScheduler.register(sequence -> current.emit("主题心跳 #" + sequence));
+        log.info("📢 [{}] 主题生产者启动", name);
+      }
+      return current;
+    });
+  }
+
+  private void release(String topic, TopicContext context) {
+    topics.computeIfPresent(topic, (name, current) -> {
+      if (current != context) {
+        return current;
+      }
+      if (--current.references > 0) {
+        return current;
+      }
+      current.producer.dispose();
+      current.close();
+      log.info("🔕 [{}] 最后一个订阅者离开，主题生产者停止", name);
+      return null;
+    });
+  }
+
+  private String toJson(Map<String, Object> data) {
+    try {
+      return objectMapper.writeValueAsString(data);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private class TopicContext {
+    private final String name;
+    private final Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().multicast().directBestEffort();
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 引用计数，只在 topics.compute 内修改
+     */
+    private int references;
+    private Disposable producer;
+
+    private TopicContext(String name) {
+      this.name = name;
+    }
+
+    /**
+     * 编码一次，多播给所有订阅者；心跳线程与发布接口可能并发调用，Sinks 要求串行
+     */
+    private synchronized int emit(String message) {
+      long id = sequence.incrementAndGet();
+      Map<String, Object> data = new LinkedHashMap<>();
+      data.put("topic", name);
+      data.put("sequence", id);
+      data.put("message", message);
+      data.put("timestamp", System.currentTimeMillis());
+      ServerSentEvent<String> event = ServerSentEvent.<String>builder()
+          .id(name + "-" + id)
+          .event(TOPIC_EVENT)
+          .data(toJson(data))
+          .build();
+      int subscribers = sink.currentSubscriberCount();
+      if (sink.tryEmitNext(event).isSuccess()) {
+        published.increment();
+        return subscribers;
+      }
+      return 0;
+    }
+
+    private synchronized void close() {
+      sink.tryEmitComplete();
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.java_code.see;
+
+/**
+ * 流归属目录：streamId → 持有该流的节点
+ * <p>
+ * 多个节点共享同一份目录（生产环境可以是 Redis、数据库等），取消请求落到不持有流的节点时据此找到所属节点。
+ */
+public interface StreamOwnershipDirectory {
+
+  /**
+   * 登记 streamId 由 nodeId 持有，已有记录时覆盖（同名流在新节点重新建立）
+   *
+   * @return 之前的持有节点，没有时为 null
+   */
+  String claim(String streamId, String nodeId);
+
+  /**
+   * 仅当 streamId 仍由 nodeId 持有时移除，不会删掉其他节点的新登记
+   */
+  boolean release(String streamId, String nodeId);
+
+  /**
+   * @return 持有节点，没有登记时为 null
+   */
+  String ownerOf(String streamId);
+}
@@ -1,9 +1,45 @@
 package org.example.java_code.service;
 
+import java.util.Map;
 import org.example.java_code.dto.ApiResponse;
 import org.example.java_code.dto.GenerationRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public interface ApiService {
     ApiResponse generateIntroduction(GenerationRequest request);
-}
 
+    /**
+     * 非阻塞版本。默认把阻塞调用放到 boundedElastic 上执行，非阻塞实现应覆盖此方法。
+     */
+    default Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        return Mono.fromCallable(() -> generateIntroduction(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * generateIntroductionAsync 是否只是把阻塞调用放到其他线程上：为 true 时取消返回的 Mono 不会中断底层调用，
+     * 线程仍等到上游返回或读超时。真正非阻塞的实现应覆盖为 false。
+     */
+    default boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * 流式版本：边生成边返回 output.introduction 的增量片段。
+     * 默认等整个结果返回后作为一个片段发出，支持流式的实现应覆盖此方法。
+     */
+    default Flux<String> streamIntroduction(GenerationRequest request) {
+        return generateIntroductionAsync(request)
+                .mapNotNull(response -> response.getOutput() == null ? null : response.getOutput().getIntroduction())
+                .flux();
+    }
+
+    /**
+     * 运行指标。装饰器在下层指标的基础上追加自己的部分。
+     */
+    default Map<String, Object> stats() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.java_code.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 上游调用被保护层直接拒绝或超时（没有拿到上游结果）
+ * <p>
+ * 继承 ResponseStatusException：接口直接返回 503（熔断、并发已满）或 504（超过调用期限）。
+ */
+public class UpstreamRejectedException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        /**
+         * 熔断器打开，快速失败
+         */
+        CIRCUIT_OPEN(HttpStatus.SERVICE_UNAVAILABLE),
+        /**
+         * 并发上游调用已达上限
+         */
+        BULKHEAD_FULL(HttpStatus.SERVICE_UNAVAILABLE),
+        /**
+         * 超过单次调用期限
+         */
+        DEADLINE_EXCEEDED(HttpStatus.GATEWAY_TIMEOUT);
+
+        private final HttpStatus status;
+
+        Reason(HttpStatus status) {
+            this.status = status;
+        }
+    }
+
+    private final Reason rejectReason;
+
+    public UpstreamRejectedException(Reason reason, String message) {
+        super(reason.status, message);
+        this.rejectReason = reason;
+    }
+
+    public Reason getRejectReason() {
+        return rejectReason;
+    }
+}
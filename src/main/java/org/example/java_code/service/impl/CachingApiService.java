@@ -0,0 +1,133 @@
+package org.example.java_code.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.java_code.config.ApiClientProperties;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 生成结果缓存（装饰 ApiService）
+ * <p>
+ * 1. 以 GenerationRequestKeys 计算的内容哈希为 key 2. 按条数上限和写入后 TTL 淘汰 3.
+ * 缓存的是 CompletableFuture：同一个 key 正在生成时，后来的请求直接等待同一个 future，只调用一次上游 4.
+ * 失败或空结果不缓存（Caffeine 会自动移除异常/空值的 future）
+ */
+public class CachingApiService implements ApiService {
+
+    private final ApiService delegate;
+
+    private final AsyncCache<String, ApiResponse> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingApiService(ApiService delegate, ApiClientProperties.CacheDTO config) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .removalListener((String key, ApiResponse value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .buildAsync();
+    }
+
+    @Override
+    public ApiResponse generateIntroduction(GenerationRequest request) {
+        CompletableFuture<ApiResponse> created = new CompletableFuture<>();
+        CompletableFuture<ApiResponse> future = lookup(GenerationRequestKeys.of(request), created);
+        if (future == created) {
+            try {
+                created.complete(delegate.generateIntroduction(request));
+            } catch (Throwable e) {
+                // 包括 Error：future 必须完成，否则它一直留在缓存里，同一个 key 的调用方永远等待
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return Futures.join(future);
+    }
+
+    @Override
+    public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        return Mono.defer(() -> {
+            CompletableFuture<ApiResponse> created = new CompletableFuture<>();
+            CompletableFuture<ApiResponse> future = lookup(GenerationRequestKeys.of(request), created);
+            if (future == created) {
+                try {
+                    delegate.generateIntroductionAsync(request)
+                            .subscribe(created::complete, created::completeExceptionally, () -> created.complete(null));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            // 某个调用方取消时不能取消共享的 future
+            return Mono.fromFuture(future, true);
+        });
+    }
+
+    /**
+     * 已有完整结果时直接作为一个片段返回，否则转发给下层流式接口（流式结果不写入缓存）
+     */
+    @Override
+    public Flux<String> streamIntroduction(GenerationRequest request) {
+        return Flux.defer(() -> {
+            CompletableFuture<ApiResponse> cached = cache.getIfPresent(GenerationRequestKeys.of(request));
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                ApiResponse response = cached.join();
+                if (response != null && response.getOutput() != null) {
+                    hits.increment();
+                    return Mono.justOrEmpty(response.getOutput().getIntroduction()).flux();
+                }
+            }
+            return delegate.streamIntroduction(request);
+        });
+    }
+
+    /**
+     * 查找缓存；未命中时放入 created 并返回它，调用方负责完成 created
+     */
+    private CompletableFuture<ApiResponse> lookup(String key, CompletableFuture<ApiResponse> created) {
+        CompletableFuture<ApiResponse> existing = cache.asMap().putIfAbsent(key, created);
+        if (existing == null) {
+            misses.increment();
+            return created;
+        }
+        if (existing.isDone()) {
+            hits.increment();
+        } else {
+            coalesced.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> cacheStats = new LinkedHashMap<>();
+        cacheStats.put("size", cache.synchronous().estimatedSize());
+        cacheStats.put("hits", hits.sum());
+        cacheStats.put("misses", misses.sum());
+        cacheStats.put("coalesced", coalesced.sum());
+        cacheStats.put("evictions", evictions.sum());
+        Map<String, Object> stats = new LinkedHashMap<>(delegate.stats());
+        stats.put("cache", cacheStats);
+        return stats;
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.java_code.service.impl;
+
+import java.util.function.BiConsumer;
+import org.example.java_code.config.ApiClientProperties;
+
+/**
+ * 按最近 N 次调用结果计算失败率的熔断器
+ * <p>
+ * 1. CLOSED：记录最近 slidingWindowSize 次结果，达到 minimumCalls 且失败率不低于阈值时打开
+ * 2. OPEN：openDuration 内所有调用直接拒绝，到期后进入 HALF_OPEN
+ * 3. HALF_OPEN：最多放行 halfOpenCalls 个试探调用，全部成功则关闭，任一失败重新打开
+ * <p>
+ * 每次调用 tryAcquire 成功后必须以 onSuccess / onFailure / release 之一结束，并带上 tryAcquire 返回的许可。
+ * 许可记录的是放行时的状态代数，每次状态切换代数加一：CLOSED 时放行的慢调用在 HALF_OPEN 期间才返回，
+ * 它的结果不能算作试探结果。上游调用以秒计，这里直接加锁。
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * tryAcquire 拒绝调用时的返回值
+     */
+    static final long REJECTED = -1;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    /**
+     * 状态切换回调（from, to），在锁内调用，只应做计数和日志
+     */
+    private final BiConsumer<State, State> onTransition;
+
+    /**
+     * 最近的调用结果环形缓冲，true 表示失败
+     */
+    private final boolean[] outcomes;
+
+    private int recorded;
+
+    private int next;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int halfOpenPermits;
+
+    private int halfOpenSuccesses;
+
+    /**
+     * 状态代数，每次切换加一
+     */
+    private long generation;
+
+    CircuitBreaker(ApiClientProperties.CircuitBreakerDTO config, BiConsumer<State, State> onTransition) {
+        this.windowSize = Math.max(1, config.getSlidingWindowSize());
+        this.minimumCalls = Math.min(Math.max(1, config.getMinimumCalls()), windowSize);
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.openNanos = config.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+        this.onTransition = onTransition;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * @return 调用许可（放行时的状态代数）；熔断打开或半开试探名额已用完时返回 REJECTED
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return REJECTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return REJECTED;
+            }
+            halfOpenPermits--;
+        }
+        return generation;
+    }
+
+    synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100.0 / recorded >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * 调用没有结果（调用方取消、被并发上限拒绝）：归还半开试探名额，不计入失败率
+     */
+    synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return recorded == 0 ? 0 : failures * 100.0 / recorded;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        generation++;
+        switch (target) {
+            case OPEN:
+                openedAt = System.nanoTime();
+                break;
+            case HALF_OPEN:
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+                break;
+            case CLOSED:
+            default:
+                recorded = 0;
+                next = 0;
+                failures = 0;
+        }
+        onTransition.accept(previous, target);
+    }
+}
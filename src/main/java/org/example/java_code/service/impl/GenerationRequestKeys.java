@@ -0,0 +1,56 @@
+package org.example.java_code.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import org.example.java_code.dto.GenerationRequest;
+
+/**
+ * GenerationRequest 的稳定内容哈希
+ * <p>
+ * 只取影响生成结果的字段：tableGroupId、reg、每个 rawDocs 的 title/indexInfo/textContent（保持顺序）。
+ * userEmail 不参与，不同用户打开同一个表组共享结果。字段两端空白去掉，null 与空串等价；
+ * 每个字段带长度前缀，避免拼接歧义。
+ */
+public final class GenerationRequestKeys {
+
+    private GenerationRequestKeys() {
+    }
+
+    public static String of(GenerationRequest request) {
+        MessageDigest digest = sha256();
+        GenerationRequest.InputDTO input = request.getInput();
+        GenerationRequest.ConfigDTO config = request.getConfig();
+        update(digest, input == null ? null : input.getTableGroupId());
+        update(digest, config == null || config.getMetadata() == null ? null : config.getMetadata().getReg());
+        List<GenerationRequest.InputDTO.RawDocsDTO> rawDocs = input == null ? null : input.getRawDocs();
+        int size = rawDocs == null ? 0 : rawDocs.size();
+        update(digest, Integer.toString(size));
+        for (int i = 0; i < size; i++) {
+            GenerationRequest.InputDTO.RawDocsDTO doc = rawDocs.get(i);
+            update(digest, doc == null ? null : doc.getTitle());
+            update(digest, doc == null ? null : doc.getIndexInfo());
+            update(digest, doc == null ? null : doc.getTextContent());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.strip().getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package org.example.java_code.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.java_code.config.ApiClientProperties;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.UpstreamRejectedException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 上游保护层（装饰 ApiService）
+ * <p>
+ * 上游变慢时调用方不再无限堆积：
+ * 1. 调用期限：超过 timeout 取消上游调用，返回 504 2. 并发隔离：同时进行的上游调用超过 maxConcurrentCalls 时直接返回 503
+ * 3. 熔断：最近调用失败率过高时打开，期间直接返回 503，到期后半开试探 4. 对冲：主请求超过最近耗时的 p95 仍未返回时再发一个，
+ * 先成功的结果生效，另一个被取消（对冲请求同样占用并发名额，名额不足时不对冲）
+ * <p>
+ * 指标（Micrometer）：api.client.calls{outcome}、api.client.latency、api.client.circuit.state、
+ * api.client.circuit.transitions{from,to}、api.client.bulkhead.active、api.client.hedge{result}。
+ * <p>
+ * 阻塞实现（rest-template）的调用期限只取消等待方，底层线程仍等到读超时，并发名额在底层调用真正返回后才归还，
+ * 上游变慢时不会因为超时、对冲而让实际进行中的上游请求超过 maxConcurrentCalls；流式请求直接转发，不经过本层。
+ */
+@Slf4j
+public class ResilientApiService implements ApiService {
+
+    private final ApiService delegate;
+
+    private final Duration timeout;
+
+    private final int maxConcurrentCalls;
+
+    private final Semaphore bulkhead;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final ApiClientProperties.HedgeDTO hedgeConfig;
+
+    private final LatencyWindow latencies;
+
+    private final Map<Outcome, Counter> calls = new EnumMap<>(Outcome.class);
+
+    private final Timer latency;
+
+    private final MeterRegistry registry;
+
+    private final Counter hedgeLaunched;
+
+    private final Counter hedgeWon;
+
+    private final Counter hedgeSkipped;
+
+    private final LongAdder transitions = new LongAdder();
+
+    private enum Outcome {
+        SUCCESS, FAILURE, TIMEOUT, CIRCUIT_OPEN, BULKHEAD_FULL
+    }
+
+    public ResilientApiService(ApiService delegate, ApiClientProperties.ResilienceDTO config, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.timeout = config.getTimeout();
+        this.maxConcurrentCalls = Math.max(1, config.getMaxConcurrentCalls());
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.hedgeConfig = config.getHedge();
+        this.latencies = new LatencyWindow(Math.max(1, hedgeConfig.getSampleSize()));
+        this.registry = registry;
+        this.circuitBreaker = new CircuitBreaker(config.getCircuitBreaker(), this::onTransition);
+
+        for (Outcome outcome : Outcome.values()) {
+            calls.put(outcome, Counter.builder("api.client.calls").tag("outcome", tag(outcome)).register(registry));
+        }
+        this.latency = Timer.builder("api.client.latency")
+                .description("上游调用耗时（每个实际发出的请求，含对冲请求）")
+                .register(registry);
+        Gauge.builder("api.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("熔断器状态：0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("api.client.bulkhead.active", bulkhead,
+                        semaphore -> maxConcurrentCalls - semaphore.availablePermits())
+                .description("进行中的上游调用数")
+                .register(registry);
+        this.hedgeLaunched = Counter.builder("api.client.hedge").tag("result", "launched").register(registry);
+        this.hedgeWon = Counter.builder("api.client.hedge").tag("result", "won").register(registry);
+        this.hedgeSkipped = Counter.builder("api.client.hedge").tag("result", "skipped").register(registry);
+    }
+
+    @Override
+    public ApiResponse generateIntroduction(GenerationRequest request) {
+        return generateIntroductionAsync(request).block();
+    }
+
+    @Override
+    public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        return Mono.defer(() -> {
+            long permit = circuitBreaker.tryAcquire();
+            if (permit == CircuitBreaker.REJECTED) {
+                count(Outcome.CIRCUIT_OPEN);
+                return Mono.error(new UpstreamRejectedException(UpstreamRejectedException.Reason.CIRCUIT_OPEN,
+                        "上游熔断中，请稍后重试"));
+            }
+            Duration hedgeDelay = hedgeDelay();
+            Mono<ApiResponse> call = hedgeDelay == null ? attempt(request, false) : hedged(request, hedgeDelay);
+            return call
+                    .timeout(timeout)
+                    .doOnSuccess(response -> {
+                        circuitBreaker.onSuccess(permit);
+                        count(Outcome.SUCCESS);
+                    })
+                    .onErrorMap(TimeoutException.class, e -> new UpstreamRejectedException(
+                            UpstreamRejectedException.Reason.DEADLINE_EXCEEDED, "上游调用超过 " + timeout))
+                    .doOnError(error -> onError(error, permit))
+                    .doOnCancel(() -> circuitBreaker.release(permit));
+        });
+    }
+
+    /**
+     * 流式请求持续时间不确定，直接转发
+     */
+    @Override
+    public Flux<String> streamIntroduction(GenerationRequest request) {
+        return delegate.streamIntroduction(request);
+    }
+
+    private void onError(Throwable error, long permit) {
+        if (error instanceof UpstreamRejectedException rejected
+                && rejected.getRejectReason() == UpstreamRejectedException.Reason.BULKHEAD_FULL) {
+            // 没有发出上游请求，不影响失败率
+            circuitBreaker.release(permit);
+            count(Outcome.BULKHEAD_FULL);
+            return;
+        }
+        circuitBreaker.onFailure(permit);
+        count(error instanceof UpstreamRejectedException ? Outcome.TIMEOUT : Outcome.FAILURE);
+    }
+
+    /**
+     * 占用一个并发名额发出一次上游请求，名额不足时立即失败
+     */
+    private Mono<ApiResponse> attempt(GenerationRequest request, boolean hedge) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                return Mono.error(new UpstreamRejectedException(UpstreamRejectedException.Reason.BULKHEAD_FULL,
+                        "上游并发调用已达上限 " + maxConcurrentCalls));
+            }
+            if (hedge) {
+                hedgeLaunched.increment();
+            }
+            long start = System.nanoTime();
+            return upstreamCall(request)
+                    .doOnSuccess(response -> {
+                        long nanos = System.nanoTime() - start;
+                        latency.record(nanos, TimeUnit.NANOSECONDS);
+                        latencies.record(nanos);
+                        if (hedge) {
+                            hedgeWon.increment();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 发出上游请求，结束时归还已占用的并发名额
+     * <p>
+     * 非阻塞实现取消即结束；阻塞实现被取消后线程仍在等待上游，名额由调用线程在返回后归还。
+     * 调用线程还没开始执行就被取消（或调度失败）时，由 doFinally 归还，两处通过 claimed 只归还一次。
+     */
+    private Mono<ApiResponse> upstreamCall(GenerationRequest request) {
+        if (!delegate.isBlocking()) {
+            return delegate.generateIntroductionAsync(request)
+                    .doFinally(signal -> bulkhead.release());
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        return Mono.fromCallable(() -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        return null;
+                    }
+                    try {
+                        return delegate.generateIntroduction(request);
+                    } finally {
+                        bulkhead.release();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> {
+                    if (claimed.compareAndSet(false, true)) {
+                        bulkhead.release();
+                    }
+                });
+    }
+
+    /**
+     * 主请求失败立即失败；对冲请求的失败（包括名额不足）被忽略，主请求继续
+     */
+    private Mono<ApiResponse> hedged(GenerationRequest request, Duration delay) {
+        Mono<ApiResponse> hedge = Mono.delay(delay)
+                .then(attempt(request, true))
+                .onErrorResume(e -> {
+                    hedgeSkipped.increment();
+                    return Mono.empty();
+                });
+        return Flux.merge(attempt(request, false), hedge).next();
+    }
+
+    /**
+     * 对冲延迟：最近成功调用耗时的分位数，不低于 minDelay；未开启或样本不足时返回 null
+     */
+    private Duration hedgeDelay() {
+        if (!hedgeConfig.isEnabled()) {
+            return null;
+        }
+        long nanos = latencies.percentile(hedgeConfig.getPercentile(), hedgeConfig.getMinSamples());
+        if (nanos < 0) {
+            return null;
+        }
+        Duration delay = Duration.ofNanos(nanos);
+        return delay.compareTo(hedgeConfig.getMinDelay()) < 0 ? hedgeConfig.getMinDelay() : delay;
+    }
+
+    private void count(Outcome outcome) {
+        calls.get(outcome).increment();
+    }
+
+    private static String tag(Outcome outcome) {
+        return outcome.name().toLowerCase().replace('_', '-');
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        transitions.increment();
+        Counter.builder("api.client.circuit.transitions")
+                .tag("from", from.name().toLowerCase())
+                .tag("to", to.name().toLowerCase())
+                .register(registry)
+                .increment();
+        if (to == CircuitBreaker.State.OPEN) {
+            log.warn("🔌 上游熔断打开 ({} -> {})", from, to);
+        } else {
+            log.info("🔌 上游熔断状态 {} -> {}", from, to);
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> resilienceStats = new LinkedHashMap<>();
+        resilienceStats.put("circuitState", circuitBreaker.getState().name().toLowerCase());
+        resilienceStats.put("failureRate", circuitBreaker.failureRate());
+        resilienceStats.put("transitions", transitions.sum());
+        resilienceStats.put("activeCalls", maxConcurrentCalls - bulkhead.availablePermits());
+        resilienceStats.put("maxConcurrentCalls", maxConcurrentCalls);
+        Map<String, Object> callStats = new LinkedHashMap<>();
+        calls.forEach((outcome, counter) -> callStats.put(tag(outcome), (long) counter.count()));
+        resilienceStats.put("calls", callStats);
+        Duration hedgeDelay = hedgeDelay();
+        resilienceStats.put("hedgeDelayMillis", hedgeDelay == null ? -1 : hedgeDelay.toMillis());
+        resilienceStats.put("hedgeLaunched", (long) hedgeLaunched.count());
+        resilienceStats.put("hedgeWon", (long) hedgeWon.count());
+        Map<String, Object> stats = new LinkedHashMap<>(delegate.stats());
+        stats.put("resilience", resilienceStats);
+        return stats;
+    }
+
+    /**
+     * 最近 N 次成功调用的耗时，用于计算对冲延迟
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+        }
+
+        /**
+         * @return 样本数少于 minSamples 时返回 -1
+         */
+        private long percentile(double percentile, int minSamples) {
+            long[] sorted;
+            synchronized (this) {
+                if (count == 0 || count < minSamples) {
+                    return -1;
+                }
+                sorted = Arrays.copyOf(samples, count);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.java_code.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 进行中请求去重（装饰 ApiService）
+ * <p>
+ * 不依赖缓存：同一时刻内容相同的请求（GenerationRequestKeys 相同）只发一次上游调用，其余调用方等待同一个 future，
+ * 拿到同一个 ApiResponse。调用结束后立即从表中移除，之后的请求会重新调用上游。
+ */
+public class SingleFlightApiService implements ApiService {
+
+    private final ApiService delegate;
+
+    private final Map<String, CompletableFuture<ApiResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder upstreamCalls = new LongAdder();
+
+    private final LongAdder savedCalls = new LongAdder();
+
+    public SingleFlightApiService(ApiService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ApiResponse generateIntroduction(GenerationRequest request) {
+        String key = GenerationRequestKeys.of(request);
+        CompletableFuture<ApiResponse> created = new CompletableFuture<>();
+        CompletableFuture<ApiResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            savedCalls.increment();
+            return Futures.join(existing);
+        }
+        upstreamCalls.increment();
+        try {
+            created.complete(delegate.generateIntroduction(request));
+        } catch (Throwable e) {
+            // 包括 Error：等待方必须被唤醒
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+        return Futures.join(created);
+    }
+
+    @Override
+    public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        return Mono.defer(() -> {
+            String key = GenerationRequestKeys.of(request);
+            CompletableFuture<ApiResponse> created = new CompletableFuture<>();
+            CompletableFuture<ApiResponse> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                savedCalls.increment();
+                return Mono.fromFuture(existing, true);
+            }
+            upstreamCalls.increment();
+            // 先移出 inFlight 再完成 future：等待方被唤醒时这次调用已经结束，后续同样的请求会重新调用上游
+            try {
+                delegate.generateIntroductionAsync(request)
+                        .subscribe(response -> {
+                            inFlight.remove(key, created);
+                            created.complete(response);
+                        }, error -> {
+                            inFlight.remove(key, created);
+                            created.completeExceptionally(error);
+                        }, () -> {
+                            inFlight.remove(key, created);
+                            created.complete(null);
+                        });
+            } catch (Throwable e) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+            // 某个调用方取消时不能取消其他调用方等待的上游请求
+            return Mono.fromFuture(created, true);
+        });
+    }
+
+    /**
+     * 流式请求逐个转发：每个订阅方需要从头收到全部片段，不参与去重
+     */
+    @Override
+    public Flux<String> streamIntroduction(GenerationRequest request) {
+        return delegate.streamIntroduction(request);
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> singleFlightStats = new LinkedHashMap<>();
+        singleFlightStats.put("inFlight", inFlight.size());
+        singleFlightStats.put("upstreamCalls", upstreamCalls.sum());
+        singleFlightStats.put("savedCalls", savedCalls.sum());
+        Map<String, Object> stats = new LinkedHashMap<>(delegate.stats());
+        stats.put("singleFlight", singleFlightStats);
+        return stats;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.java_code.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 WebClient 的非阻塞实现：请求在连接池和 event-loop 上完成，不为每个生成请求占用线程
+ */
+@Service
+public class WebClientApiServiceImpl implements ApiService {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${api.url}")
+    private String apiUrl;
+
+    /**
+     * 流式接口地址，未配置时把 api.url 结尾的 /invoke 换成 /stream（LangServe 约定）
+     */
+    @Value("${api.stream-url:}")
+    private String streamUrl;
+
+    public WebClientApiServiceImpl(WebClient apiWebClient, ObjectMapper objectMapper) {
+        this.webClient = apiWebClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ApiResponse generateIntroduction(GenerationRequest request) {
+        return generateIntroductionAsync(request).block();
+    }
+
+    /**
+     * 取消订阅会关闭连接，底层调用随之结束
+     */
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        return webClient.post()
+                .uri(apiUrl)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(ApiResponse.class);
+    }
+
+    /**
+     * 调用上游流式接口，上游每推一个 data 事件就向下游发出一个片段；收到 end 事件结束，error 事件转成异常
+     */
+    @Override
+    public Flux<String> streamIntroduction(GenerationRequest request) {
+        return webClient.post()
+                .uri(resolveStreamUrl())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .takeUntil(event -> "end".equals(event.event()))
+                .handle((event, sink) -> {
+                    if ("error".equals(event.event())) {
+                        sink.error(new IllegalStateException("上游流式生成失败: " + event.data()));
+                        return;
+                    }
+                    if (!"data".equals(event.event()) || event.data() == null) {
+                        return;
+                    }
+                    String chunk = extractIntroduction(event.data());
+                    if (chunk != null && !chunk.isEmpty()) {
+                        sink.next(chunk);
+                    }
+                });
+    }
+
+    private String resolveStreamUrl() {
+        if (streamUrl != null && !streamUrl.isBlank()) {
+            return streamUrl;
+        }
+        return apiUrl.endsWith("/invoke")
+                ? apiUrl.substring(0, apiUrl.length() - "/invoke".length()) + "/stream"
+                : apiUrl;
+    }
+
+    /**
+     * data 可能是 {"introduction": ...}、{"output": {"introduction": ...}} 或直接是 JSON 字符串
+     */
+    private String extractIntroduction(String data) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(data);
+        } catch (JsonProcessingException e) {
+            return data;
+        }
+        if (node.isTextual()) {
+            return node.asText();
+        }
+        JsonNode output = node.path("output");
+        JsonNode introduction = output.isObject() ? output.path("introduction") : node.path("introduction");
+        return introduction.isTextual() ? introduction.asText() : null;
+    }
+}
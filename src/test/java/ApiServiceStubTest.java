@@ -0,0 +1,115 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.impl.ApiServiceImpl;
+import org.example.java_code.service.impl.WebClientApiServiceImpl;
+import org.example.java_code.stub.StubGenerationServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ApiServiceIntegrationTest 的离线版本：两种客户端实现对接本地 StubGenerationServer
+ */
+class ApiServiceStubTest {
+
+  private StubGenerationServer stub;
+
+  private ApiService restTemplateApiService;
+
+  private ApiService webClientApiService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    stub = StubGenerationServer.start();
+    restTemplateApiService = new ApiServiceImpl(new RestTemplate());
+    ReflectionTestUtils.setField(restTemplateApiService, "apiUrl", stub.invokeUrl());
+    webClientApiService = new WebClientApiServiceImpl(WebClient.create(), new ObjectMapper());
+    ReflectionTestUtils.setField(webClientApiService, "apiUrl", stub.invokeUrl());
+  }
+
+  @AfterEach
+  void tearDown() {
+    stub.close();
+  }
+
+  @Test
+  void generateIntroduction_returnsStubResponse() {
+    stub.setIntroductionLength(120);
+
+    ApiResponse response = restTemplateApiService.generateIntroduction(buildRequest());
+
+    assertTrue(response.getOutput().getIntroduction().startsWith("Order Mart 简介："));
+    assertEquals(120, response.getOutput().getIntroduction().length());
+    assertEquals("stub-1", response.getMetadata().getRunId());
+    assertEquals(1, stub.requests());
+  }
+
+  @Test
+  void generateIntroduction_surfacesInjectedErrors() {
+    stub.setErrorRate(1.0);
+    stub.setErrorStatus(503);
+
+    HttpServerErrorException e = assertThrows(HttpServerErrorException.class,
+        () -> restTemplateApiService.generateIntroduction(buildRequest()));
+
+    assertEquals(503, e.getStatusCode().value());
+    assertEquals(1, stub.errors());
+  }
+
+  @Test
+  void streamIntroduction_emitsConfiguredChunks() {
+    stub.setChunks(5);
+    stub.setChunkDelay(Duration.ofMillis(10));
+
+    List<String> chunks = webClientApiService.streamIntroduction(buildRequest())
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(5, chunks.size());
+    assertEquals(webClientApiService.generateIntroduction(buildRequest()).getOutput().getIntroduction(),
+        String.join("", chunks));
+    assertEquals(1, stub.streams());
+  }
+
+  @Test
+  void streamIntroduction_failsMidStream() {
+    stub.setChunks(4);
+    stub.setErrorRate(1.0);
+    List<String> received = new ArrayList<>();
+
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> webClientApiService.streamIntroduction(buildRequest())
+            .doOnNext(received::add)
+            .blockLast(Duration.ofSeconds(5)));
+
+    assertTrue(e.getMessage().contains("stub failure"));
+    assertEquals(2, received.size());
+  }
+
+  private GenerationRequest buildRequest() {
+    GenerationRequest request = new GenerationRequest();
+    GenerationRequest.InputDTO inputDTO = new GenerationRequest.InputDTO();
+    inputDTO.setTableGroupId("Order Mart");
+    GenerationRequest.InputDTO.RawDocsDTO rawDocsDTO = new GenerationRequest.InputDTO.RawDocsDTO();
+    rawDocsDTO.setTitle("FAQ");
+    rawDocsDTO.setTextContent("Order Mart v3 User guide");
+    inputDTO.setRawDocs(Collections.singletonList(rawDocsDTO));
+    request.setInput(inputDTO);
+    return request;
+  }
+}
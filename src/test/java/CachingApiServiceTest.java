@@ -0,0 +1,130 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.java_code.config.ApiClientProperties;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.impl.CachingApiService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CachingApiServiceTest {
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final ApiService upstream = request -> {
+    upstreamCalls.incrementAndGet();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    ApiResponse response = new ApiResponse();
+    ApiResponse.OutputDTO output = new ApiResponse.OutputDTO();
+    output.setIntroduction("intro of " + request.getInput().getTableGroupId());
+    response.setOutput(output);
+    return response;
+  };
+
+  @Test
+  void concurrentIdenticalRequests_shareOneUpstreamCall() throws Exception {
+    ApiService apiService = new CachingApiService(upstream, cacheConfig());
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<ApiResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      // 不同用户发起的相同内容请求
+      String userEmail = "user" + i;
+      futures.add(pool.submit(() -> apiService.generateIntroduction(buildRequest("Order Mart", userEmail))));
+    }
+    Thread.sleep(200);
+    release.countDown();
+
+    ApiResponse first = futures.get(0).get(5, TimeUnit.SECONDS);
+    for (Future<ApiResponse> future : futures) {
+      assertSame(first, future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, upstreamCalls.get());
+
+    apiService.generateIntroduction(buildRequest("Order Mart", "other"));
+    assertEquals(1, upstreamCalls.get());
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> cache = (Map<String, Object>) apiService.stats().get("cache");
+    assertEquals(1L, cache.get("misses"));
+    assertEquals(8L, (Long) cache.get("hits") + (Long) cache.get("coalesced"));
+    pool.shutdownNow();
+  }
+
+  @Test
+  void differentContent_missesCache() {
+    release.countDown();
+    ApiService apiService = new CachingApiService(upstream, cacheConfig());
+
+    apiService.generateIntroduction(buildRequest("Order Mart", "a"));
+    apiService.generateIntroduction(buildRequest("Item Mart", "a"));
+    apiService.generateIntroductionAsync(buildRequest("Item Mart", "b")).block(Duration.ofSeconds(5));
+
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void errorFromUpstream_isNotLeftInCache() {
+    AtomicInteger calls = new AtomicInteger();
+    ApiService failingOnce = request -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new StackOverflowError("simulated");
+      }
+      return new ApiResponse();
+    };
+    ApiService apiService = new CachingApiService(failingOnce, cacheConfig());
+
+    assertThrows(StackOverflowError.class, () -> apiService.generateIntroduction(buildRequest("Order Mart", "a")));
+    // 同一个 key 的下一次调用重新调用上游，而不是永远等待未完成的 future
+    assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> assertNotNull(apiService.generateIntroduction(buildRequest("Order Mart", "a"))));
+    assertEquals(2, calls.get());
+  }
+
+  private ApiClientProperties.CacheDTO cacheConfig() {
+    ApiClientProperties.CacheDTO config = new ApiClientProperties.CacheDTO();
+    config.setMaximumSize(100);
+    config.setTtl(Duration.ofMinutes(1));
+    return config;
+  }
+
+  private GenerationRequest buildRequest(String tableGroupId, String userEmail) {
+    GenerationRequest request = new GenerationRequest();
+    GenerationRequest.ConfigDTO configDTO = new GenerationRequest.ConfigDTO();
+    GenerationRequest.ConfigDTO.MetadataDTO metadataDTO = new GenerationRequest.ConfigDTO.MetadataDTO();
+    metadataDTO.setReg("SG");
+    metadataDTO.setUserEmail(userEmail);
+    configDTO.setMetadata(metadataDTO);
+    request.setConfig(configDTO);
+
+    GenerationRequest.InputDTO inputDTO = new GenerationRequest.InputDTO();
+    inputDTO.setTableGroupId(tableGroupId);
+    GenerationRequest.InputDTO.RawDocsDTO rawDocsDTO = new GenerationRequest.InputDTO.RawDocsDTO();
+    rawDocsDTO.setIndexInfo(tableGroupId + " User guide");
+    rawDocsDTO.setTextContent(tableGroupId + " User guide\n\n.......");
+    rawDocsDTO.setTitle("FAQ");
+    inputDTO.setRawDocs(Collections.singletonList(rawDocsDTO));
+    request.setInput(inputDTO);
+    return request;
+  }
+}
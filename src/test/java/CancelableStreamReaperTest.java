@@ -0,0 +1,104 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SimpleFluxSseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancelableStreamReaperTest {
+
+  private SseTestFixture fixture;
+
+  private SimpleFluxSseService service;
+
+  private SseProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(20));
+    properties.getTick().setFanOutThreads(1);
+    // 测试中手动巡检
+    properties.getReaper().setInterval(Duration.ZERO);
+    properties.getReaper().setIdleTimeout(Duration.ofMillis(200));
+    fixture = SseTestFixture.start(properties);
+    service = fixture.service;
+  }
+
+  @AfterEach
+  void tearDown() {
+    fixture.close();
+  }
+
+  @Test
+  void streamNobodyReads_isReapedAsIdle() throws Exception {
+    // 没有订阅：事件只进缓冲区，从未成功写出
+    Flux<ServerSentEvent<byte[]>> stream = service.createCancelableEventFlux("idle", null, null, null,
+        Duration.ofMinutes(1));
+    Thread.sleep(100);
+    assertEquals(0, service.reapIdleStreams());
+
+    Thread.sleep(200);
+    assertEquals(1, service.reapIdleStreams());
+
+    ServerSentEvent<byte[]> last = stream.blockLast(Duration.ofSeconds(5));
+    assertTrue(new String(last.data(), StandardCharsets.UTF_8).contains("idle-timeout"));
+    Map<String, Object> reaper = reaperStats();
+    assertEquals(1L, reaper.get("idleReaped"));
+    assertTrue((Long) reaper.get("reclaimedHistoryEvents") > 0);
+    assertEquals(0, service.stats().get("cancelableStreams"));
+  }
+
+  @Test
+  void ackedStream_isJudgedByLastAck() throws Exception {
+    Disposable reader = service.createCancelableEventFlux("acked", null, null, null, Duration.ofMinutes(1))
+        .subscribe();
+    try {
+      Thread.sleep(250);
+      // 一直在写出：不是空闲
+      assertEquals(0, service.reapIdleStreams());
+
+      assertTrue(service.ackCancelableStream("acked"));
+      Thread.sleep(100);
+      assertEquals(0, service.reapIdleStreams());
+
+      // 确认过之后不再确认：即使写出仍然成功也按空闲回收
+      Thread.sleep(150);
+      assertEquals(1, service.reapIdleStreams());
+    } finally {
+      reader.dispose();
+    }
+  }
+
+  @Test
+  void endpointLimits_overrideDefaults() throws Exception {
+    SseProperties.LimitDTO reactive = new SseProperties.LimitDTO();
+    reactive.setMaxLifetime(Duration.ofMillis(300));
+    properties.getReaper().getEndpoints().put(SimpleFluxSseService.ENDPOINT_REACTIVE_CANCELABLE, reactive);
+    assertEquals(Duration.ofMillis(300), service.maxLifetime(SimpleFluxSseService.ENDPOINT_REACTIVE_CANCELABLE));
+    assertEquals(Duration.ofMinutes(5), service.maxLifetime(SimpleFluxSseService.ENDPOINT_CANCELABLE));
+
+    Disposable reader = service.createCancelableEventFlux("short", null, null, null, Duration.ofMinutes(1))
+        .subscribe();
+    try {
+      Thread.sleep(350);
+      assertEquals(1, service.reapIdleStreams());
+      assertEquals(1L, reaperStats().get("lifetimeReaped"));
+    } finally {
+      reader.dispose();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> reaperStats() {
+    return (Map<String, Object>) service.stats().get("reaper");
+  }
+}
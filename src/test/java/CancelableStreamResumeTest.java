@@ -0,0 +1,103 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SimpleFluxSseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancelableStreamResumeTest {
+
+  private SseTestFixture fixture;
+
+  private SimpleFluxSseService service;
+
+  @BeforeEach
+  void setUp() {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(20));
+    properties.getTick().setFanOutThreads(1);
+    properties.getResume().setHistorySize(64);
+    properties.getResume().setDetachGracePeriod(Duration.ofMillis(300));
+    fixture = SseTestFixture.start(properties);
+    service = fixture.service;
+  }
+
+  @AfterEach
+  void tearDown() {
+    fixture.close();
+  }
+
+  @Test
+  void reconnectWithLastEventId_replaysOnlyMissedEvents() throws Exception {
+    List<ServerSentEvent<byte[]>> first = service
+        .createCancelableEventFlux("s1", null, null, null, Duration.ofMinutes(1))
+        .take(4)
+        .collectList()
+        .block(Duration.ofSeconds(5));
+    assertEquals(List.of("s1-1", "s1-2", "s1-3", "s1-4"), first.stream().map(ServerSentEvent::id).toList());
+
+    // 断开期间流继续产生事件
+    Thread.sleep(100);
+    assertEquals(1L, resumeStats().get("detachedStreams"));
+
+    List<ServerSentEvent<byte[]>> second = service
+        .createCancelableEventFlux("s1", null, null, "s1-4", Duration.ofMinutes(1))
+        .take(5)
+        .collectList()
+        .block(Duration.ofSeconds(5));
+    assertEquals(List.of("s1-5", "s1-6", "s1-7", "s1-8", "s1-9"), second.stream().map(ServerSentEvent::id).toList());
+    assertEquals(1L, resumeStats().get("resumedStreams"));
+    assertEquals(0L, resumeStats().get("replayGaps"));
+  }
+
+  @Test
+  void detachedStream_isReclaimedAfterGracePeriod() throws Exception {
+    service.createCancelableEventFlux("s2", null, null, null, Duration.ofMinutes(1))
+        .take(2)
+        .blockLast(Duration.ofSeconds(5));
+    assertEquals(1, service.stats().get("cancelableStreams"));
+
+    Thread.sleep(600);
+
+    assertEquals(0, service.stats().get("cancelableStreams"));
+    assertEquals(1L, resumeStats().get("expiredStreams"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cancelByOwnerAndTag_onlyCancelsMatchingStreams() throws Exception {
+    Flux<ServerSentEvent<byte[]>> a1 = service.createCancelableEventFlux("a1", "alice", List.of("t1"), null,
+        Duration.ofMinutes(1));
+    Flux<ServerSentEvent<byte[]>> a2 = service.createCancelableEventFlux("a2", "alice", List.of("t2"), null,
+        Duration.ofMinutes(1));
+    service.createCancelableEventFlux("b1", "bob", List.of("t1", "t2"), null, Duration.ofMinutes(1));
+
+    assertEquals(2, service.cancelByOwner("alice", "cancelled", "bulk"));
+    assertEquals(0, service.cancelByOwner("alice", "cancelled", "bulk"));
+    // 被取消的流以 CANCELLED 事件结束
+    ServerSentEvent<byte[]> last = a1.blockLast(Duration.ofSeconds(5));
+    assertTrue(new String(last.data(), StandardCharsets.UTF_8).contains("CANCELLED"));
+    a2.blockLast(Duration.ofSeconds(5));
+    assertEquals(1, service.stats().get("cancelableStreams"));
+
+    assertEquals(1, service.cancelByTag("t2", "cancelled", "bulk"));
+    assertEquals(0, service.stats().get("cancelableStreams"));
+    Map<String, Object> registry = (Map<String, Object>) service.stats().get("registry");
+    assertEquals(0, registry.get("owners"));
+    assertEquals(0, registry.get("tags"));
+    assertEquals(3L, registry.get("bulkCancelled"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> resumeStats() {
+    return (Map<String, Object>) service.stats().get("resume");
+  }
+}
@@ -0,0 +1,169 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.see.IntroductionSseService;
+import org.example.java_code.service.ApiService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntroductionSseServiceTest {
+
+  @Test
+  void chunksAreForwardedBeforeCompletedEvent() {
+    ApiService upstream = new ApiService() {
+      @Override
+      public ApiResponse generateIntroduction(GenerationRequest request) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Flux<String> streamIntroduction(GenerationRequest request) {
+        return Flux.just("Order ", "Mart ", "intro.").delayElements(Duration.ofMillis(20));
+      }
+    };
+    IntroductionSseService service = new IntroductionSseService(upstream, new SseProperties());
+
+    List<ServerSentEvent<Map<String, Object>>> events = service.streamIntroduction("s1", new GenerationRequest())
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(4, events.size());
+    assertEquals("introChunk", events.get(0).event());
+    assertEquals("s1-1", events.get(0).id());
+    assertEquals("Order ", events.get(0).data().get("delta"));
+    assertEquals("introCompleted", events.get(3).event());
+    assertEquals("Order Mart intro.", events.get(3).data().get("introduction"));
+    assertEquals(3, events.get(3).data().get("chunks"));
+    assertEquals(0, service.stats().get("activeStreams"));
+  }
+
+  @Test
+  void upstreamFailure_endsWithErrorEvent() {
+    ApiService upstream = new ApiService() {
+      @Override
+      public ApiResponse generateIntroduction(GenerationRequest request) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Flux<String> streamIntroduction(GenerationRequest request) {
+        return Flux.concat(Flux.just("partial"), Flux.error(new IllegalStateException("boom")));
+      }
+    };
+    IntroductionSseService service = new IntroductionSseService(upstream, new SseProperties());
+
+    List<ServerSentEvent<Map<String, Object>>> events = service.streamIntroduction("s2", new GenerationRequest())
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(2, events.size());
+    assertEquals("introError", events.get(1).event());
+    assertEquals("boom", events.get(1).data().get("message"));
+    assertEquals(1L, service.stats().get("failedStreams"));
+  }
+
+  @Test
+  void batch_respectsConcurrencyAndReportsEveryItem() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    ApiService upstream = new ApiService() {
+      @Override
+      public ApiResponse generateIntroduction(GenerationRequest request) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        if ("bad".equals(request.getInput().getTableGroupId())) {
+          return Mono.error(new IllegalStateException("upstream 500"));
+        }
+        return Mono.defer(() -> {
+          peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+          ApiResponse.OutputDTO output = new ApiResponse.OutputDTO();
+          output.setIntroduction("intro for " + request.getInput().getTableGroupId());
+          ApiResponse response = new ApiResponse();
+          response.setOutput(output);
+          return Mono.delay(Duration.ofMillis(30))
+              .doOnNext(tick -> running.decrementAndGet())
+              .thenReturn(response);
+        });
+      }
+    };
+    IntroductionSseService service = new IntroductionSseService(upstream, new SseProperties());
+    List<GenerationRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      requests.add(buildRequest(i == 7 ? "bad" : "tg" + i));
+    }
+
+    List<ServerSentEvent<Map<String, Object>>> events = service.batchIntroductions("b1", requests, 4, null)
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(22, events.size());
+    assertEquals("batchStarted", events.get(0).event());
+    assertEquals(20L, events.stream().filter(e -> "batchItem".equals(e.event())).count());
+    assertTrue(peak.get() <= 4, "peak concurrency " + peak.get());
+    Map<String, Object> summary = events.get(21).data();
+    assertEquals("batchCompleted", events.get(21).event());
+    assertEquals(19, summary.get("succeeded"));
+    assertEquals(1, summary.get("failed"));
+    assertEquals("completed", summary.get("status"));
+    assertEquals(0, service.stats().get("activeBatches"));
+  }
+
+  @Test
+  void batch_pastDeadline_endsWithTimeoutSummary() {
+    ApiService upstream = new ApiService() {
+      @Override
+      public ApiResponse generateIntroduction(GenerationRequest request) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Mono<ApiResponse> generateIntroductionAsync(GenerationRequest request) {
+        ApiResponse response = new ApiResponse();
+        response.setOutput(new ApiResponse.OutputDTO());
+        return Mono.delay(Duration.ofMillis(300)).thenReturn(response);
+      }
+    };
+    SseProperties properties = new SseProperties();
+    properties.getBatch().setItemTimeout(Duration.ofMillis(100));
+    IntroductionSseService service = new IntroductionSseService(upstream, properties);
+    List<GenerationRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      requests.add(buildRequest("tg" + i));
+    }
+
+    // 4 条、并发 1：期限 4 × 100ms，每条实际 300ms，只能完成 1 条
+    List<ServerSentEvent<Map<String, Object>>> events = service.batchIntroductions("b2", requests, 1, null)
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(400L, events.get(0).data().get("timeoutMillis"));
+    assertEquals(3, events.size());
+    Map<String, Object> summary = events.get(2).data();
+    assertEquals("batchCompleted", events.get(2).event());
+    assertEquals("timeout", summary.get("status"));
+    assertEquals(1, summary.get("succeeded"));
+    assertEquals(3, summary.get("skipped"));
+    assertEquals(0, service.stats().get("activeBatches"));
+  }
+
+  private GenerationRequest buildRequest(String tableGroupId) {
+    GenerationRequest.InputDTO input = new GenerationRequest.InputDTO();
+    input.setTableGroupId(tableGroupId);
+    GenerationRequest request = new GenerationRequest();
+    request.setInput(input);
+    return request;
+  }
+}
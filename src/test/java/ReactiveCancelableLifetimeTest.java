@@ -0,0 +1,44 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.JavaCodeApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 响应式可取消流经过真实容器：异步超时远小于最长存活时间，流仍由巡检以 max-lifetime 的 CANCELLED 事件正常结束
+ */
+@SpringBootTest(classes = JavaCodeApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.mvc.async.request-timeout=300ms",
+        "sse.tick.period=200ms",
+        "sse.reaper.interval=100ms",
+        "sse.reaper.idle-timeout=1m",
+        "sse.reaper.max-lifetime=1s"
+    })
+class ReactiveCancelableLifetimeTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Test
+  void maxLifetime_endsWithCancelledEvent() throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + port + "/api/sse/reactive/cancelable?streamId=lifetime")).build();
+
+    String body = HttpClient.newHttpClient()
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .get(10, TimeUnit.SECONDS)
+        .body();
+
+    String[] events = body.trim().split("\n\n");
+    String last = events[events.length - 1];
+    assertTrue(events.length > 3, body);
+    assertTrue(last.contains("CANCELLED") && last.contains("max-lifetime"), last);
+  }
+}
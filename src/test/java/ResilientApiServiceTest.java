@@ -0,0 +1,233 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.ApiClientProperties;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.UpstreamRejectedException;
+import org.example.java_code.service.impl.ApiServiceImpl;
+import org.example.java_code.service.impl.ResilientApiService;
+import org.example.java_code.service.impl.WebClientApiServiceImpl;
+import org.example.java_code.stub.StubGenerationServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以本地 StubGenerationServer 模拟生成接口，底层使用真实的 WebClientApiServiceImpl
+ */
+class ResilientApiServiceTest {
+
+  private StubGenerationServer stub;
+
+  private ApiService upstream;
+
+  private MeterRegistry registry;
+
+  private ApiClientProperties.ResilienceDTO config;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    stub = StubGenerationServer.start();
+    upstream = new WebClientApiServiceImpl(WebClient.create(), new ObjectMapper());
+    ReflectionTestUtils.setField(upstream, "apiUrl", stub.invokeUrl());
+    registry = new SimpleMeterRegistry();
+    config = new ApiClientProperties.ResilienceDTO();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stub.close();
+  }
+
+  @Test
+  void slowUpstream_failsAtDeadline() {
+    config.setTimeout(Duration.ofMillis(300));
+    ApiService apiService = new ResilientApiService(upstream, config, registry);
+    stub.setLatency(StubGenerationServer.Latency.fixed(Duration.ofSeconds(3)));
+
+    long start = System.nanoTime();
+    UpstreamRejectedException e = assertThrows(UpstreamRejectedException.class,
+        () -> apiService.generateIntroduction(buildRequest()));
+
+    assertEquals(UpstreamRejectedException.Reason.DEADLINE_EXCEEDED, e.getRejectReason());
+    assertEquals(504, e.getStatusCode().value());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    assertEquals(1.0, registry.get("api.client.calls").tag("outcome", "timeout").counter().count());
+    assertEquals(0.0, registry.get("api.client.bulkhead.active").gauge().value());
+  }
+
+  @Test
+  void bulkhead_rejectsCallsOverLimit() {
+    config.setMaxConcurrentCalls(2);
+    ApiService apiService = new ResilientApiService(upstream, config, registry);
+    stub.setLatency(StubGenerationServer.Latency.fixed(Duration.ofMillis(500)));
+
+    List<Mono<String>> calls = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      calls.add(apiService.generateIntroductionAsync(buildRequest())
+          .map(response -> "ok")
+          .onErrorResume(UpstreamRejectedException.class, e -> Mono.just(e.getRejectReason().name())));
+    }
+    List<String> results = Flux.merge(calls).collectList().block(Duration.ofSeconds(5));
+
+    assertEquals(2, Collections.frequency(results, "ok"));
+    assertEquals(3, Collections.frequency(results, "BULKHEAD_FULL"));
+    assertEquals(2, stub.requests());
+    // 并发已满不是上游故障，不计入熔断失败率
+    assertEquals(0.0, registry.get("api.client.circuit.state").gauge().value());
+  }
+
+  @Test
+  void bulkhead_holdsPermitUntilBlockingCallReturns() throws Exception {
+    config.setTimeout(Duration.ofMillis(100));
+    config.setMaxConcurrentCalls(2);
+    ApiService blocking = new ApiServiceImpl(new RestTemplate());
+    ReflectionTestUtils.setField(blocking, "apiUrl", stub.invokeUrl());
+    ApiService apiService = new ResilientApiService(blocking, config, registry);
+    stub.setLatency(StubGenerationServer.Latency.fixed(Duration.ofMillis(800)));
+
+    // 每次调用都在期限内超时，但 rest-template 线程仍阻塞在上游上
+    List<String> results = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      try {
+        apiService.generateIntroduction(buildRequest());
+        results.add("ok");
+      } catch (UpstreamRejectedException e) {
+        results.add(e.getRejectReason().name());
+      }
+    }
+
+    assertEquals(2, Collections.frequency(results, "DEADLINE_EXCEEDED"));
+    assertEquals(4, Collections.frequency(results, "BULKHEAD_FULL"));
+    assertEquals(2.0, registry.get("api.client.bulkhead.active").gauge().value());
+    Thread.sleep(1000);
+    assertEquals(2, stub.maxInFlight());
+    assertEquals(0.0, registry.get("api.client.bulkhead.active").gauge().value());
+  }
+
+  @Test
+  void circuitBreaker_opensFailsFastAndRecovers() throws Exception {
+    ApiClientProperties.CircuitBreakerDTO breaker = config.getCircuitBreaker();
+    breaker.setSlidingWindowSize(4);
+    breaker.setMinimumCalls(4);
+    breaker.setFailureRateThreshold(50);
+    breaker.setOpenDuration(Duration.ofMillis(300));
+    breaker.setHalfOpenCalls(1);
+    ApiService apiService = new ResilientApiService(upstream, config, registry);
+    stub.setErrorRate(1.0);
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(RuntimeException.class, () -> apiService.generateIntroduction(buildRequest()));
+    }
+    UpstreamRejectedException open = assertThrows(UpstreamRejectedException.class,
+        () -> apiService.generateIntroduction(buildRequest()));
+    assertEquals(UpstreamRejectedException.Reason.CIRCUIT_OPEN, open.getRejectReason());
+    assertEquals(4, stub.requests());
+
+    stub.setErrorRate(0);
+    Thread.sleep(350);
+    assertNotNull(apiService.generateIntroduction(buildRequest()));
+
+    assertEquals(0.0, registry.get("api.client.circuit.state").gauge().value());
+    assertEquals(1.0, transitions("closed", "open"));
+    assertEquals(1.0, transitions("open", "half_open"));
+    assertEquals(1.0, transitions("half_open", "closed"));
+  }
+
+  @Test
+  void circuitBreaker_ignoresResultFromEarlierState() throws Exception {
+    ApiClientProperties.CircuitBreakerDTO breaker = config.getCircuitBreaker();
+    breaker.setSlidingWindowSize(2);
+    breaker.setMinimumCalls(2);
+    breaker.setFailureRateThreshold(50);
+    breaker.setOpenDuration(Duration.ofMillis(200));
+    breaker.setHalfOpenCalls(1);
+    ApiService apiService = new ResilientApiService(upstream, config, registry);
+
+    // CLOSED 时放行的慢调用
+    stub.delayNext(Duration.ofMillis(800));
+    CompletableFuture<ApiResponse> slow = apiService.generateIntroductionAsync(buildRequest()).toFuture();
+    while (stub.requests() == 0) {
+      Thread.sleep(5);
+    }
+    stub.setErrorRate(1.0);
+    for (int i = 0; i < 2; i++) {
+      assertThrows(RuntimeException.class, () -> apiService.generateIntroduction(buildRequest()));
+    }
+    assertEquals(1.0, registry.get("api.client.circuit.state").gauge().value());
+
+    // 打开期满后发出试探调用，慢调用在试探期间返回
+    stub.setErrorRate(0);
+    stub.setLatency(StubGenerationServer.Latency.fixed(Duration.ofSeconds(1)));
+    Thread.sleep(250);
+    CompletableFuture<ApiResponse> probe = apiService.generateIntroductionAsync(buildRequest()).toFuture();
+    assertNotNull(slow.get(5, TimeUnit.SECONDS));
+
+    assertEquals(2.0, registry.get("api.client.circuit.state").gauge().value());
+    UpstreamRejectedException rejected = assertThrows(UpstreamRejectedException.class,
+        () -> apiService.generateIntroduction(buildRequest()));
+    assertEquals(UpstreamRejectedException.Reason.CIRCUIT_OPEN, rejected.getRejectReason());
+
+    assertNotNull(probe.get(5, TimeUnit.SECONDS));
+    assertEquals(0.0, registry.get("api.client.circuit.state").gauge().value());
+    assertEquals(1.0, transitions("half_open", "closed"));
+  }
+
+  @Test
+  void hedgedRequest_winsWhenPrimaryIsSlow() {
+    config.getHedge().setEnabled(true);
+    config.getHedge().setMinSamples(5);
+    config.getHedge().setMinDelay(Duration.ofMillis(50));
+    stub.setLatency(StubGenerationServer.Latency.fixed(Duration.ofMillis(20)));
+    // 首次调用含连接建立和类加载，不计入耗时样本
+    upstream.generateIntroduction(buildRequest());
+    ApiService apiService = new ResilientApiService(upstream, config, registry);
+    for (int i = 0; i < 5; i++) {
+      apiService.generateIntroduction(buildRequest());
+    }
+
+    stub.delayNext(Duration.ofSeconds(3));
+    long start = System.nanoTime();
+    ApiResponse response = apiService.generateIntroduction(buildRequest());
+
+    assertTrue(response.getOutput().getIntroduction().startsWith("Order Mart"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    assertEquals(8, stub.requests());
+    assertEquals(1.0, registry.get("api.client.hedge").tag("result", "launched").counter().count());
+    assertEquals(1.0, registry.get("api.client.hedge").tag("result", "won").counter().count());
+  }
+
+  private double transitions(String from, String to) {
+    return registry.get("api.client.circuit.transitions").tags("from", from, "to", to).counter().count();
+  }
+
+  private GenerationRequest buildRequest() {
+    GenerationRequest request = new GenerationRequest();
+    GenerationRequest.InputDTO inputDTO = new GenerationRequest.InputDTO();
+    inputDTO.setTableGroupId("Order Mart");
+    GenerationRequest.InputDTO.RawDocsDTO rawDocsDTO = new GenerationRequest.InputDTO.RawDocsDTO();
+    rawDocsDTO.setTitle("FAQ");
+    inputDTO.setRawDocs(Collections.singletonList(rawDocsDTO));
+    request.setInput(inputDTO);
+    return request;
+  }
+}
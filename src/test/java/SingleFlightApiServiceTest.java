@@ -0,0 +1,110 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+import org.example.java_code.service.ApiService;
+import org.example.java_code.service.impl.SingleFlightApiService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SingleFlightApiServiceTest {
+
+  @Test
+  void concurrentIdenticalRequests_waitOnOneUpstreamCall() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ApiService upstream = request -> {
+      upstreamCalls.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new ApiResponse();
+    };
+    ApiService apiService = new SingleFlightApiService(upstream);
+
+    List<Mono<ApiResponse>> calls = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      calls.add(apiService.generateIntroductionAsync(buildRequest()));
+    }
+    Mono<List<ApiResponse>> all = Flux.merge(calls).collectList().subscribeOn(Schedulers.boundedElastic());
+    Schedulers.boundedElastic().schedule(release::countDown, 200, TimeUnit.MILLISECONDS);
+    List<ApiResponse> responses = all.block(Duration.ofSeconds(5));
+
+    assertEquals(20, responses.size());
+    responses.forEach(response -> assertEquals(responses.get(0), response));
+    assertEquals(1, upstreamCalls.get());
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> singleFlight = (Map<String, Object>) apiService.stats().get("singleFlight");
+    assertEquals(1L, singleFlight.get("upstreamCalls"));
+    assertEquals(19L, singleFlight.get("savedCalls"));
+    assertEquals(0, singleFlight.get("inFlight"));
+
+    // 上一次调用已结束：不缓存，重新调用上游
+    apiService.generateIntroduction(buildRequest());
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void errorFromUpstream_wakesWaitersAndClearsInFlight() throws Exception {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ApiService upstream = request -> {
+      if (upstreamCalls.incrementAndGet() == 1) {
+        entered.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new StackOverflowError("simulated");
+      }
+      return new ApiResponse();
+    };
+    ApiService apiService = new SingleFlightApiService(upstream);
+
+    CompletableFuture<ApiResponse> leader = CompletableFuture.supplyAsync(() -> apiService.generateIntroduction(buildRequest()));
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    CompletableFuture<ApiResponse> waiter = CompletableFuture.supplyAsync(() -> apiService.generateIntroduction(buildRequest()));
+    Thread.sleep(100);
+    release.countDown();
+
+    ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    assertTrue(leaderError.getCause() instanceof StackOverflowError);
+    ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+    assertTrue(waiterError.getCause() instanceof StackOverflowError);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> singleFlight = (Map<String, Object>) apiService.stats().get("singleFlight");
+    assertEquals(0, singleFlight.get("inFlight"));
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> apiService.generateIntroduction(buildRequest()));
+  }
+
+  private GenerationRequest buildRequest() {
+    GenerationRequest request = new GenerationRequest();
+    GenerationRequest.InputDTO inputDTO = new GenerationRequest.InputDTO();
+    inputDTO.setTableGroupId("Order Mart");
+    GenerationRequest.InputDTO.RawDocsDTO rawDocsDTO = new GenerationRequest.InputDTO.RawDocsDTO();
+    rawDocsDTO.setTitle("FAQ");
+    inputDTO.setRawDocs(Collections.singletonList(rawDocsDTO));
+    request.setInput(inputDTO);
+    return request;
+  }
+}
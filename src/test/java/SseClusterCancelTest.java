@@ -0,0 +1,113 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.InMemoryStreamOwnershipDirectory;
+import org.example.java_code.see.LoopbackCancelBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 同一进程内的两个节点共享流归属目录和回环取消总线
+ */
+class SseClusterCancelTest {
+
+  private final InMemoryStreamOwnershipDirectory directory = new InMemoryStreamOwnershipDirectory();
+
+  private final LoopbackCancelBus cancelBus = new LoopbackCancelBus();
+
+  private SseTestFixture nodeA;
+
+  private SseTestFixture nodeB;
+
+  @BeforeEach
+  void setUp() {
+    nodeA = node("a");
+    nodeB = node("b");
+  }
+
+  @AfterEach
+  void tearDown() {
+    nodeA.close();
+    nodeB.close();
+  }
+
+  @Test
+  void cancelOnOtherNode_isForwardedToOwner() throws Exception {
+    Flux<ServerSentEvent<byte[]>> stream = nodeA.service
+        .createCancelableEventFlux("s1", null, null, null, Duration.ofMinutes(1));
+    assertEquals("a", directory.ownerOf("s1"));
+
+    assertTrue(nodeB.service.cancelClusterWide("s1", "cancelled", "remote").get(5, TimeUnit.SECONDS));
+
+    ServerSentEvent<byte[]> last = stream.blockLast(Duration.ofSeconds(5));
+    assertTrue(new String(last.data(), StandardCharsets.UTF_8).contains("CANCELLED"));
+    assertEquals(0, nodeA.service.stats().get("cancelableStreams"));
+    assertNull(directory.ownerOf("s1"));
+    assertEquals(1L, cluster(nodeA).get("received"));
+    assertEquals(1L, cluster(nodeB).get("forwardedCancelled"));
+    assertEquals(1, ((Map<?, ?>) cluster(nodeB).get("latencyMicros")).get("samples"));
+
+    assertFalse(nodeB.service.cancelClusterWide("s1", "cancelled", "remote").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void cancelForUnreachableOwner_failsInsteadOfNotFound() {
+    directory.claim("ghost", "c");
+
+    CompletionException error = assertThrows(CompletionException.class,
+        () -> nodeB.service.cancelClusterWide("ghost", "cancelled", "remote").join());
+    assertTrue(error.getCause() instanceof IllegalStateException);
+    assertEquals(1L, cluster(nodeB).get("forwardFailures"));
+  }
+
+  @Test
+  void reopeningStreamOnAnotherNode_cancelsTheOldOne() throws Exception {
+    Flux<ServerSentEvent<byte[]>> old = nodeA.service
+        .createCancelableEventFlux("s2", null, null, null, Duration.ofMinutes(1));
+    nodeB.service.createCancelableEventFlux("s2", null, null, null, Duration.ofMinutes(1));
+
+    ServerSentEvent<byte[]> last = old.blockLast(Duration.ofSeconds(5));
+    assertTrue(new String(last.data(), StandardCharsets.UTF_8).contains("replaced"));
+    // 旧节点清理时不能删掉新节点的登记
+    assertEquals("b", directory.ownerOf("s2"));
+    assertEquals(1L, cluster(nodeB).get("takeovers"));
+  }
+
+  @Test
+  void bulkCancel_onlyCoversTheLocalNode() throws Exception {
+    nodeA.service.createCancelableEventFlux("s3", "alice", null, null, Duration.ofMinutes(1));
+    nodeB.service.createCancelableEventFlux("s4", "alice", null, null, Duration.ofMinutes(1));
+
+    assertEquals("b", nodeB.service.nodeId());
+    assertEquals(1, nodeB.service.cancelByOwner("alice", "cancelled", "bulk"));
+    // 其他节点上同一所有者的流不受影响
+    assertEquals(1, nodeA.service.stats().get("cancelableStreams"));
+    assertEquals("a", directory.ownerOf("s3"));
+    assertEquals(0L, cluster(nodeB).get("forwarded"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> cluster(SseTestFixture node) {
+    return (Map<String, Object>) node.service.stats().get("cluster");
+  }
+
+  private SseTestFixture node(String nodeId) {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(50));
+    properties.getTick().setFanOutThreads(1);
+    properties.getCluster().setNodeId(nodeId);
+    return SseTestFixture.start(properties, directory, cancelBus);
+  }
+}
@@ -0,0 +1,77 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SimpleFluxSseService;
+import org.example.java_code.see.SseCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseCoalescerTest {
+
+  private SseTestFixture fixture;
+
+  private SimpleFluxSseService service;
+
+  @BeforeEach
+  void setUp() {
+    SseProperties properties = new SseProperties();
+    properties.getReaper().setInterval(Duration.ZERO);
+    properties.getCoalesce().setMaxEvents(50);
+    properties.getCoalesce().setMaxDelay(Duration.ofSeconds(1));
+    fixture = SseTestFixture.start(properties);
+    service = fixture.service;
+  }
+
+  @AfterEach
+  void tearDown() {
+    fixture.close();
+  }
+
+  @Test
+  void toBatchFrame_joinsDataIntoJsonArray() {
+    ServerSentEvent<byte[]> frame = SseCoalescer.toBatchFrame(List.of(
+        ServerSentEvent.builder("{\"n\":1}".getBytes(StandardCharsets.UTF_8)).id("1").event("e").build(),
+        ServerSentEvent.builder("{\"n\":2}".getBytes(StandardCharsets.UTF_8)).id("2").event("e").build()));
+
+    assertEquals("eBatch", frame.event());
+    assertEquals("2", frame.id());
+    assertEquals("[{\"n\":1},{\"n\":2}]", new String(frame.data(), StandardCharsets.UTF_8));
+    assertEquals(SseProperties.CoalesceMode.FLUSH, SseCoalescer.parseMode(" flush "));
+  }
+
+  @Test
+  void flushMode_writesEachBatchWithOneSend() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter();
+    service.createFirehoseStream(emitter, 100, SseProperties.CoalesceMode.FLUSH);
+
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(2, emitter.sends.get());
+    assertEquals(100, emitter.payloads.get());
+  }
+
+  @Test
+  void frameMode_sendsOneArrayFramePerBatch() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter();
+    service.createFirehoseStream(emitter, 100, SseProperties.CoalesceMode.FRAME);
+
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(2, emitter.sends.get());
+    assertEquals(2, emitter.payloads.get());
+  }
+
+  @Test
+  void offMode_sendsEveryEvent() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter();
+    service.createFirehoseStream(emitter, 100, SseProperties.CoalesceMode.OFF);
+
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(100, emitter.sends.get());
+  }
+}
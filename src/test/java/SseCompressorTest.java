@@ -0,0 +1,72 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseCompression;
+import org.example.java_code.see.SseCompressor;
+import org.example.java_code.see.SseFrameEncoder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseCompressorTest {
+
+  private final SseCompression compression = new SseCompression(new SseProperties());
+
+  @Test
+  void deflate_eachEventIsDecodableAsSoonAsItArrives() throws Exception {
+    SseCompressor compressor = compression.open(SseCompression.Encoding.DEFLATE);
+    Inflater inflater = new Inflater();
+    for (int i = 1; i <= 50; i++) {
+      byte[] frame = frame(i);
+      inflater.setInput(compressor.compress(frame));
+      byte[] out = new byte[frame.length * 2];
+      int n = inflater.inflate(out);
+      // SYNC_FLUSH：不等后续事件，当前事件完整解出
+      assertEquals(new String(frame, StandardCharsets.UTF_8), new String(out, 0, n, StandardCharsets.UTF_8));
+    }
+    compressor.finish();
+    inflater.end();
+
+    Map<String, Object> stats = compression.stats();
+    assertEquals(50L, stats.get("events"));
+    assertTrue((Double) stats.get("ratio") < 0.4, "ratio " + stats.get("ratio"));
+    assertEquals(0, stats.get("activeStreams"));
+  }
+
+  @Test
+  void gzip_finishProducesCompleteStream() throws Exception {
+    SseCompressor compressor = compression.open(SseCompression.Encoding.GZIP);
+    ByteArrayOutputStream wire = new ByteArrayOutputStream();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 1; i <= 10; i++) {
+      wire.writeBytes(compressor.compress(frame(i)));
+      expected.append(new String(frame(i), StandardCharsets.UTF_8));
+    }
+    wire.writeBytes(compressor.finish());
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(wire.toByteArray()))) {
+      assertEquals(expected.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void negotiate_requiresAcceptEncoding() {
+    assertEquals(SseCompression.Encoding.GZIP, compression.negotiate("gzip", "gzip, deflate, br"));
+    assertEquals(SseCompression.Encoding.DEFLATE, compression.negotiate("deflate", "deflate;q=0.5"));
+    assertNull(compression.negotiate("gzip", "br"));
+    assertNull(compression.negotiate(null, "gzip"));
+    assertThrows(IllegalArgumentException.class, () -> compression.negotiate("br", "br"));
+  }
+
+  private static byte[] frame(int number) {
+    return SseFrameEncoder.encodeCancelableFrame("5f0c2a4e-8d1b-4a53", number, number, "RUNNING", "running",
+        "后台持续发送数据 #" + number, 1_700_000_000_000L + number * 1000L);
+  }
+}
@@ -0,0 +1,73 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.example.java_code.see.SimpleFluxSseData;
+import org.example.java_code.see.SseDataCodec;
+import org.example.java_code.see.SseFrameTemplates;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseDataCodecTest {
+
+  private static final long BASE = 1_700_000_000_000L;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void encode_roundTripsEveryEncoding() throws Exception {
+    long[] timestamps = { BASE, BASE + 1503, BASE - 20, BASE + 86_400_000L * 400 };
+    for (SseDataCodec.Encoding encoding : SseDataCodec.Encoding.values()) {
+      SseDataCodec codec = SseDataCodec.open(encoding, BASE);
+      for (int number = -3; number <= 12; number++) {
+        for (long timestamp : timestamps) {
+          byte[] data = codec.encode(number, timestamp);
+          // 三种格式都必须是合法 JSON，合并帧才能直接拼成数组
+          objectMapper.readTree(data);
+
+          SimpleFluxSseData decoded = codec.decode(data);
+          SseFrameTemplates.Template template = SseFrameTemplates.forNumber(number);
+          assertEquals(number, decoded.getDataNumber(), encoding + " " + number);
+          assertEquals(template.getLabel(), decoded.getLabel());
+          assertEquals(template.getStatus(), decoded.getStatus());
+          assertEquals(template.getMessage(), decoded.getMessage());
+          assertEquals(timestamp, decoded.getTimestamp());
+        }
+      }
+    }
+  }
+
+  @Test
+  void compactEncodings_areSmallerAndSendDictionaryOnce() throws Exception {
+    SseDataCodec json = SseDataCodec.open(SseDataCodec.Encoding.JSON, BASE);
+    SseDataCodec compact = SseDataCodec.open(SseDataCodec.Encoding.COMPACT, BASE);
+    SseDataCodec binary = SseDataCodec.open(SseDataCodec.Encoding.BINARY, BASE);
+
+    assertEquals("[4,1,1503]", new String(compact.encode(4, BASE + 1503), StandardCharsets.UTF_8));
+    assertEquals("\"CAG+Fw\"", new String(binary.encode(4, BASE + 1503), StandardCharsets.UTF_8));
+    int jsonSize = json.encode(4, BASE + 1503).length;
+    assertTrue(compact.encode(4, BASE + 1503).length * 5 < jsonSize);
+    assertTrue(binary.encode(4, BASE + 1503).length < compact.encode(4, BASE + 1503).length);
+
+    assertNull(json.dictionaryEvent());
+    ServerSentEvent<byte[]> dictionary = binary.dictionaryEvent();
+    assertEquals(SseDataCodec.DICTIONARY_EVENT, dictionary.event());
+    JsonNode body = objectMapper.readTree(dictionary.data());
+    assertEquals("binary", body.get("encoding").asText());
+    assertEquals(BASE, body.get("baseTimestamp").asLong());
+    assertEquals(SseFrameTemplates.all().size(), body.get("stages").size());
+    assertEquals("VERIFICATION", body.get("stages").get(SseFrameTemplates.VERIFICATION.getIndex())
+        .get("label").asText());
+  }
+
+  @Test
+  void parse_rejectsUnknownEncoding() {
+    assertNull(SseDataCodec.parse(" "));
+    assertEquals(SseDataCodec.Encoding.COMPACT, SseDataCodec.parse("Compact"));
+    assertThrows(IllegalArgumentException.class, () -> SseDataCodec.parse("cbor"));
+  }
+}
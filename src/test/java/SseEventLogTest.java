@@ -0,0 +1,53 @@
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseEventLog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SseEventLogTest {
+
+  @Test
+  void disabled_neverSamples() {
+    SseEventLog.Stream stream = new SseEventLog(new SseProperties.LoggingDTO()).open("s1");
+    for (int i = 0; i < 1000; i++) {
+      assertFalse(stream.sample());
+    }
+  }
+
+  @Test
+  void samplesEveryNthEventPerStream() {
+    SseProperties.LoggingDTO config = new SseProperties.LoggingDTO();
+    config.setPerEvent(true);
+    config.setSampleEvery(3);
+    config.setMaxPerSecond(0);
+    SseEventLog eventLog = new SseEventLog(config);
+    SseEventLog.Stream first = eventLog.open("s1");
+    SseEventLog.Stream second = eventLog.open("s2");
+
+    assertEquals(4, count(first, 10));
+    // 每个流独立计数，从自己的第一个事件开始
+    assertEquals(1, count(second, 1));
+  }
+
+  @Test
+  void rateLimitsWithinOneSecond() {
+    SseProperties.LoggingDTO config = new SseProperties.LoggingDTO();
+    config.setPerEvent(true);
+    config.setSampleEvery(1);
+    config.setMaxPerSecond(5);
+    SseEventLog.Stream stream = new SseEventLog(config).open("s1");
+
+    assertEquals(5, count(stream, 10_000));
+  }
+
+  private static int count(SseEventLog.Stream stream, int events) {
+    int sampled = 0;
+    for (int i = 0; i < events; i++) {
+      if (stream.sample()) {
+        sampled++;
+      }
+    }
+    return sampled;
+  }
+}
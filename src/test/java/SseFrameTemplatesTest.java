@@ -0,0 +1,43 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.example.java_code.see.SimpleFluxSseData;
+import org.example.java_code.see.SseFrameTemplates;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseFrameTemplatesTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void render_matchesObjectMapperOutput() throws Exception {
+    long[] timestamps = { 0L, 7L, System.currentTimeMillis(), -1L, Long.MAX_VALUE };
+    for (int number = -12; number <= 12; number++) {
+      SseFrameTemplates.Template template = SseFrameTemplates.forNumber(number);
+      for (long timestamp : timestamps) {
+        SimpleFluxSseData data = SimpleFluxSseData.builder()
+            .dataNumber(number)
+            .label(template.getLabel())
+            .status(template.getStatus())
+            .timestamp(timestamp)
+            .message(template.getMessage())
+            .build();
+
+        String expected = objectMapper.writeValueAsString(data);
+        String actual = new String(template.render(number, timestamp), StandardCharsets.UTF_8);
+
+        assertEquals(expected, actual);
+      }
+    }
+  }
+
+  @Test
+  void forNumber_followsStageBoundaries() {
+    assertEquals("INITIALIZATION", SseFrameTemplates.forNumber(3).getLabel());
+    assertEquals("PROCESSING", SseFrameTemplates.forNumber(4).getLabel());
+    assertEquals("VERIFICATION", SseFrameTemplates.forNumber(9).getLabel());
+    assertEquals("completed", SseFrameTemplates.forNumber(10).getStatus());
+    assertEquals("UNKNOWN", SseFrameTemplates.forNumber(11).getLabel());
+  }
+}
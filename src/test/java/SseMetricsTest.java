@@ -0,0 +1,144 @@
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.ReactiveFluxSseController;
+import org.example.java_code.see.SimpleFluxSseService;
+import org.example.java_code.see.SseMetrics;
+import org.example.java_code.see.SseOutboundQueue;
+import org.example.java_code.see.SseOutboundQueues;
+import org.example.java_code.see.SseProducerExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseMetricsTest {
+
+  private MeterRegistry registry;
+
+  private SseProducerExecutor executor;
+
+  private SseOutboundQueues queues;
+
+  private SseTestFixture fixture;
+
+  private SimpleFluxSseService service;
+
+  @BeforeEach
+  void setUp() {
+    SseProperties properties = new SseProperties();
+    properties.getExecutor().setMode(SseProperties.ExecutorMode.VIRTUAL);
+    registry = new SimpleMeterRegistry();
+    executor = new SseProducerExecutor(properties);
+    executor.bindTo(registry);
+    // 回收任务与计量无关
+    properties.getReaper().setInterval(Duration.ZERO);
+    fixture = SseTestFixture.start(properties, new SseMetrics(registry));
+    queues = fixture.queues;
+    service = fixture.service;
+  }
+
+  @AfterEach
+  void tearDown() {
+    fixture.close();
+    executor.shutdown();
+  }
+
+  @Test
+  void completedStream_recordsEventsLatencyAndOutcome() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter(false);
+    SseOutboundQueue queue = queues.open("simple", "s1", emitter);
+    assertEquals(1.0, registry.get("sse.connections.active").tag("endpoint", "simple").gauge().value());
+
+    for (int i = 0; i < 5; i++) {
+      queue.enqueueFrame(SseTestFixture.frame("event-" + i), false);
+    }
+    queue.complete();
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+
+    assertEquals(5.0, registry.get("sse.events.sent").tag("endpoint", "simple").counter().count());
+    assertEquals(5L, registry.get("sse.send.latency").tag("endpoint", "simple").timer().count());
+    assertEquals(1.0, registry.get("sse.connections.closed").tags("endpoint", "simple", "outcome", "completed")
+        .counter().count());
+    assertEquals(0.0, registry.get("sse.connections.active").tag("endpoint", "simple").gauge().value());
+    assertEquals(0.0, registry.get("sse.executor.queued").gauge().value());
+  }
+
+  @Test
+  void failedSend_countsFailureOnce() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter(true);
+    SseOutboundQueue queue = queues.open("cancelable", "s2", emitter);
+    CountDownLatch failed = new CountDownLatch(1);
+    queue.onFailure(failed::countDown);
+
+    queue.enqueueFrame(SseTestFixture.frame("first"), false);
+    assertTrue(failed.await(5, TimeUnit.SECONDS));
+    queue.close();
+
+    assertEquals(1.0, registry.get("sse.send.failures").tags("endpoint", "cancelable", "reason", "io")
+        .counter().count());
+    assertEquals(1.0, registry.get("sse.connections.closed").tags("endpoint", "cancelable", "outcome", "failed")
+        .counter().count());
+    assertEquals(0.0, registry.get("sse.connections.closed").tags("endpoint", "cancelable", "outcome", "disconnected")
+        .counter().count());
+    assertEquals(0.0, registry.get("sse.connections.active").tag("endpoint", "cancelable").gauge().value());
+  }
+
+  @Test
+  void reactiveTrack_distinguishesCompleteAndDisconnect() {
+    SseMetrics.Endpoint endpoint = new SseMetrics(registry).endpoint("reactive-simple");
+
+    endpoint.track(Flux.range(1, 3)).blockLast();
+    endpoint.track(Flux.range(1, 10)).take(2).blockLast();
+
+    assertEquals(5.0, registry.get("sse.events.sent").tag("endpoint", "reactive-simple").counter().count());
+    assertEquals(1.0, registry.get("sse.connections.closed").tags("endpoint", "reactive-simple", "outcome", "completed")
+        .counter().count());
+    assertEquals(1.0, registry.get("sse.connections.closed")
+        .tags("endpoint", "reactive-simple", "outcome", "disconnected").counter().count());
+    assertEquals(0.0, registry.get("sse.connections.active").tag("endpoint", "reactive-simple").gauge().value());
+  }
+
+  @Test
+  void heartbeat_isRecordedThroughOutboundQueue() throws Exception {
+    SseTestFixture.RecordingEmitter emitter = new SseTestFixture.RecordingEmitter(false);
+
+    service.createHeartbeatStream(emitter);
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+
+    assertEquals(10.0, registry.get("sse.events.sent").tag("endpoint", "heartbeat").counter().count());
+    assertEquals(10L, registry.get("sse.send.latency").tag("endpoint", "heartbeat").timer().count());
+    assertEquals(1.0, registry.get("sse.connections.closed").tags("endpoint", "heartbeat", "outcome", "completed")
+        .counter().count());
+    assertEquals(0.0, registry.get("sse.connections.active").tag("endpoint", "heartbeat").gauge().value());
+  }
+
+  @Test
+  void reactiveHeartbeat_isTracked() {
+    ReactiveFluxSseController controller = new ReactiveFluxSseController();
+    ReflectionTestUtils.setField(controller, "simpleFluxSseService", service);
+    ReflectionTestUtils.setField(controller, "sseMetrics", queues.getMetrics());
+
+    controller.heartbeatStream().blockLast(Duration.ofSeconds(5));
+    // doFinally 在下游收到 onComplete 之后才执行，blockLast 返回时关闭可能还没记上
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (closed("reactive-heartbeat", "completed") == 0 && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+
+    assertEquals(10.0, registry.get("sse.events.sent").tag("endpoint", "reactive-heartbeat").counter().count());
+    assertEquals(1.0, closed("reactive-heartbeat", "completed"));
+    assertEquals(0.0, registry.get("sse.connections.active").tag("endpoint", "reactive-heartbeat").gauge().value());
+  }
+
+  private double closed(String endpoint, String outcome) {
+    return registry.get("sse.connections.closed").tags("endpoint", endpoint, "outcome", outcome).counter().count();
+  }
+}
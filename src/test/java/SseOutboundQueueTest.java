@@ -0,0 +1,257 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseOutboundQueue;
+import org.example.java_code.see.SseOutboundQueues;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseOutboundQueueTest {
+
+  private SseProperties properties;
+
+  private SseOutboundQueues queues;
+
+  @BeforeEach
+  void setUp() {
+    properties = new SseProperties();
+    properties.getExecutor().setMode(SseProperties.ExecutorMode.VIRTUAL);
+    properties.getOutbound().setHighWaterMark(DataSize.ofBytes(100));
+    properties.getOutbound().setMaxQueued(DataSize.ofKilobytes(10));
+    properties.getOutbound().setSlowClientTimeout(Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (queues != null) {
+      queues.shutdown();
+    }
+  }
+
+  @Test
+  void slowClient_isConflatedToLatestStateEvent() throws Exception {
+    properties.getOutbound().setSlowClientPolicy(SseProperties.SlowClientPolicy.CONFLATE);
+    queues = new SseOutboundQueues(properties);
+    BlockingEmitter emitter = new BlockingEmitter();
+    SseOutboundQueue queue = queues.open("test", "s1", emitter);
+
+    queue.enqueueFrame(SseTestFixture.frame("first"), true);
+    assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 20; i++) {
+      queue.enqueueFrame(SseTestFixture.frame("running-" + i), true);
+      if (i == 10) {
+        queue.enqueueFrame(SseTestFixture.frame("control"), false);
+      }
+    }
+    assertTrue(queue.getQueuedBytes() <= 200, "queued " + queue.getQueuedBytes());
+    assertTrue(queue.isSlow());
+
+    queue.complete();
+    emitter.release.countDown();
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+
+    assertEquals(List.of("first", "control", "running-20"), emitter.sent);
+    Map<String, Object> stats = queues.stats();
+    assertEquals(19L, stats.get("conflatedEvents"));
+    assertEquals(1L, stats.get("slowClients"));
+    assertEquals(0L, stats.get("queuedBytes"));
+    assertEquals(0, stats.get("streams"));
+  }
+
+  @Test
+  void slowClient_isEvicted() throws Exception {
+    properties.getOutbound().setSlowClientPolicy(SseProperties.SlowClientPolicy.EVICT);
+    queues = new SseOutboundQueues(properties);
+    BlockingEmitter emitter = new BlockingEmitter();
+    SseOutboundQueue queue = queues.open("test", "s2", emitter);
+    AtomicBoolean failed = new AtomicBoolean();
+    queue.onFailure(() -> failed.set(true));
+
+    queue.enqueueFrame(SseTestFixture.frame("first"), true);
+    assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+    boolean accepted = true;
+    for (int i = 0; i < 10 && accepted; i++) {
+      accepted = queue.enqueueFrame(SseTestFixture.frame("running-" + i), true);
+    }
+
+    assertFalse(accepted);
+    assertTrue(failed.get());
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(1L, queues.stats().get("evictedStreams"));
+    assertEquals(0L, queues.stats().get("queuedBytes"));
+    emitter.release.countDown();
+  }
+
+  @Test
+  void evict_doesNotWaitForBlockedSend() throws Exception {
+    properties.getOutbound().setSlowClientPolicy(SseProperties.SlowClientPolicy.EVICT);
+    queues = new SseOutboundQueues(properties);
+    LockingEmitter emitter = new LockingEmitter();
+    SseOutboundQueue queue = queues.open("test", "s3", emitter);
+    AtomicBoolean failed = new AtomicBoolean();
+    queue.onFailure(() -> failed.set(true));
+
+    queue.enqueueFrame(SseTestFixture.frame("first"), true);
+    assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+    // send 持有写锁不返回，生产者线程上的驱逐不能去等这把锁
+    boolean accepted = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+      boolean result = true;
+      for (int i = 0; i < 10 && result; i++) {
+        result = queue.enqueueFrame(SseTestFixture.frame("running-" + i), true);
+      }
+      return result;
+    });
+
+    assertFalse(accepted);
+    assertTrue(failed.get());
+    assertFalse(emitter.completed.await(100, TimeUnit.MILLISECONDS));
+    emitter.release.countDown();
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void runtimeExceptionFromSend_failsStream() throws Exception {
+    queues = new SseOutboundQueues(properties);
+    SseEmitter emitter = new SseEmitter() {
+      @Override
+      public void send(Set<DataWithMediaType> items) {
+        throw new IllegalArgumentException("no converter");
+      }
+    };
+    SseOutboundQueue queue = queues.open("test", "s4", emitter);
+    CountDownLatch failed = new CountDownLatch(1);
+    queue.onFailure(failed::countDown);
+
+    queue.enqueueFrame(SseTestFixture.frame("first"), false);
+
+    assertTrue(failed.await(5, TimeUnit.SECONDS));
+    assertFalse(queue.enqueueFrame(SseTestFixture.frame("second"), false));
+    assertEquals(0L, queues.stats().get("queuedBytes"));
+    assertEquals(0, queues.stats().get("streams"));
+  }
+
+  @Test
+  void busyStream_yieldsThreadAfterDrainBatch() throws Exception {
+    properties.getOutbound().setHighWaterMark(DataSize.ofKilobytes(10));
+    properties.getOutbound().setDrainBatch(2);
+    queues = new SseOutboundQueues(properties);
+    BlockingEmitter emitter = new BlockingEmitter();
+    SseOutboundQueue queue = queues.open("test", "s5", emitter);
+
+    queue.enqueueFrame(SseTestFixture.frame("event-0"), false);
+    assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i < 5; i++) {
+      queue.enqueueFrame(SseTestFixture.frame("event-" + i), false);
+    }
+    queue.complete();
+    emitter.release.countDown();
+
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of("event-0", "event-1", "event-2", "event-3", "event-4"), emitter.sent);
+    // 每个 drain 任务最多写 2 个事件：[0,1] [2,3] [4,complete]
+    assertEquals(3, Set.copyOf(emitter.threads).size());
+  }
+
+  @Test
+  void queuedBytes_countUtf8Bytes() throws Exception {
+    properties.getOutbound().setHighWaterMark(DataSize.ofKilobytes(10));
+    queues = new SseOutboundQueues(properties);
+    BlockingEmitter emitter = new BlockingEmitter();
+    SseOutboundQueue queue = queues.open("test", "s6", emitter);
+    queue.enqueueFrame(SseTestFixture.frame("first"), false);
+    assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+
+    queue.enqueueEvent(chineseEvent(), false);
+
+    long expected = 0;
+    for (ResponseBodyEmitter.DataWithMediaType item : chineseEvent().build()) {
+      expected += String.valueOf(item.getData()).getBytes(StandardCharsets.UTF_8).length;
+    }
+    assertEquals(expected, queue.getQueuedBytes());
+    assertEquals(expected, queues.stats().get("queuedBytes"));
+    emitter.release.countDown();
+  }
+
+  private static SseEmitter.SseEventBuilder chineseEvent() {
+    return SseEmitter.event().id("1").name("心跳").data("心跳信号 #1，后台持续发送数据 😀");
+  }
+
+  /**
+   * 模拟 TCP 窗口已满的客户端：第一次 send 阻塞到 release
+   */
+  private static class BlockingEmitter extends SseEmitter {
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(Set<DataWithMediaType> items) {
+      threads.add(Thread.currentThread().getName());
+      sendStarted.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      String frame = new String((byte[]) items.iterator().next().getData(), StandardCharsets.UTF_8);
+      sent.add(frame.substring(frame.indexOf("data:") + 5).trim());
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+  }
+
+  /**
+   * 与 ResponseBodyEmitter 一样，send 和 complete 共用一把写锁；send 一直阻塞到 release
+   */
+  private static class LockingEmitter extends SseEmitter {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(Set<DataWithMediaType> items) {
+      writeLock.lock();
+      try {
+        sendStarted.countDown();
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+
+    @Override
+    public void complete() {
+      writeLock.lock();
+      try {
+        completed.countDown();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+}
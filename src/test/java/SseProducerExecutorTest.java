@@ -0,0 +1,93 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseProducerExecutor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseProducerExecutorTest {
+
+  @Test
+  void boundedVirtual_limitsConcurrencyAndReportsQueueDepth() throws Exception {
+    SseProperties properties = new SseProperties();
+    properties.getExecutor().setMode(SseProperties.ExecutorMode.BOUNDED_VIRTUAL);
+    properties.getExecutor().setMaxConcurrency(2);
+    SseProducerExecutor executor = new SseProducerExecutor(properties);
+
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(10);
+    for (int i = 0; i < 10; i++) {
+      executor.execute(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        done.countDown();
+      });
+    }
+    Thread.sleep(200);
+
+    assertEquals(2, executor.stats().get("active"));
+    assertEquals(8, executor.stats().get("queued"));
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(2, executor.stats().get("peakActive"));
+    executor.shutdown();
+  }
+
+  @Test
+  void virtual_runsLongTasksWithoutHeadOfLineBlocking() throws Exception {
+    SseProperties properties = new SseProperties();
+    properties.getExecutor().setMode(SseProperties.ExecutorMode.VIRTUAL);
+    SseProducerExecutor executor = new SseProducerExecutor(properties);
+
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(50);
+    for (int i = 0; i < 50; i++) {
+      executor.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+
+    assertTrue(started.await(5, TimeUnit.SECONDS), "50 个长任务应同时运行");
+    assertEquals(0, executor.stats().get("queued"));
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  void rejectedTasks_doNotLeakIntoQueuedCount() throws Exception {
+    SseProperties properties = new SseProperties();
+    properties.getExecutor().setPoolSize(1);
+    SseProducerExecutor executor = new SseProducerExecutor(properties);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.execute(() -> {
+    });
+    Thread.sleep(100);
+    assertEquals(1, executor.stats().get("queued"));
+
+    executor.shutdown();
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+    }));
+
+    assertEquals(0, executor.stats().get("queued"));
+  }
+}
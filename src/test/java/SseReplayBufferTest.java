@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.List;
+import org.example.java_code.see.SseReplayBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseReplayBufferTest {
+
+  @Test
+  void replayAfter_returnsOnlyMissedEvents() {
+    SseReplayBuffer<String> buffer = new SseReplayBuffer<>(4);
+    for (int i = 1; i <= 3; i++) {
+      assertEquals(i, buffer.append("e" + i));
+    }
+
+    List<String> replayed = new ArrayList<>();
+    long gap = buffer.replayAfter(1, (sequence, event) -> replayed.add(sequence + ":" + event));
+
+    assertEquals(List.of("2:e2", "3:e3"), replayed);
+    assertEquals(0, gap);
+    assertEquals(3, buffer.lastSequence());
+  }
+
+  @Test
+  void replayAfter_reportsOverwrittenEvents() {
+    SseReplayBuffer<String> buffer = new SseReplayBuffer<>(4);
+    for (int i = 1; i <= 10; i++) {
+      buffer.append("e" + i);
+    }
+
+    List<Long> replayed = new ArrayList<>();
+    long gap = buffer.replayAfter(2, (sequence, event) -> replayed.add(sequence));
+
+    // 只保留 7..10，3..6 已被覆盖
+    assertEquals(List.of(7L, 8L, 9L, 10L), replayed);
+    assertEquals(4, gap);
+    assertEquals(7, buffer.oldestSequence());
+    assertEquals(0, buffer.replayAfter(10, (sequence, event) -> replayed.add(sequence)));
+    assertEquals(4, replayed.size());
+  }
+}
@@ -0,0 +1,45 @@
+import java.util.List;
+import org.example.java_code.see.SseStreamRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseStreamRegistryTest {
+
+  @Test
+  void register_indexesByOwnerAndTag_andUnregisterDropsEmptyIndexes() {
+    SseStreamRegistry<String> registry = new SseStreamRegistry<>();
+    assertTrue(registry.register("s1", "alice", List.of("a", "b"), "v1"));
+    assertTrue(registry.register("s2", "alice", List.of("b"), "v2"));
+    assertTrue(registry.register("s3", null, null, "v3"));
+    assertFalse(registry.register("s1", "bob", List.of(), "other"));
+
+    assertEquals(2, registry.findByOwner("alice").size());
+    assertEquals(List.of("v1"), registry.findByTag("a"));
+    assertEquals(2, registry.findByTag("b").size());
+    assertEquals(List.of(), registry.findByOwner("bob"));
+
+    assertTrue(registry.unregister("s1", "v1"));
+    assertTrue(registry.unregister("s2", "v2"));
+    assertEquals(1, registry.size());
+    assertEquals(0, registry.owners());
+    assertEquals(0, registry.tags());
+  }
+
+  @Test
+  void unregister_ignoresReplacedValue() {
+    SseStreamRegistry<String> registry = new SseStreamRegistry<>();
+    registry.register("s1", "alice", List.of("a"), "old");
+    assertTrue(registry.unregister("s1", "old"));
+    registry.register("s1", "bob", List.of("a"), "new");
+
+    // 旧流的迟到注销不能删掉同名新流
+    assertFalse(registry.unregister("s1", "old"));
+    assertEquals("new", registry.get("s1"));
+    assertEquals(List.of("new"), registry.findByOwner("bob"));
+    assertNull(registry.get("s2"));
+  }
+}
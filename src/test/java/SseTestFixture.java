@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.CancelBus;
+import org.example.java_code.see.InMemoryStreamOwnershipDirectory;
+import org.example.java_code.see.LoopbackCancelBus;
+import org.example.java_code.see.SimpleFluxSseService;
+import org.example.java_code.see.SseClusterNode;
+import org.example.java_code.see.SseMetrics;
+import org.example.java_code.see.SseOutboundQueues;
+import org.example.java_code.see.SseTickScheduler;
+import org.example.java_code.see.StreamOwnershipDirectory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SSE 服务测试的公共装配：按容器的顺序手动构造调度器、发送队列、集群节点和 SimpleFluxSseService 并调用 start()
+ * <p>
+ * 测试先按需修改 SseProperties 再调用 start(...)，在 @AfterEach 中 close()。
+ */
+final class SseTestFixture implements AutoCloseable {
+
+  final SseProperties properties;
+
+  final SseTickScheduler tickScheduler;
+
+  final SseOutboundQueues queues;
+
+  final SseClusterNode clusterNode;
+
+  final SimpleFluxSseService service;
+
+  private SseTestFixture(SseProperties properties, SseOutboundQueues queues, StreamOwnershipDirectory directory,
+      CancelBus cancelBus) {
+    this.properties = properties;
+    this.tickScheduler = new SseTickScheduler(properties);
+    this.tickScheduler.start();
+    this.queues = queues;
+    this.clusterNode = new SseClusterNode(directory, cancelBus, properties);
+    this.service = new SimpleFluxSseService(tickScheduler, queues, clusterNode, properties);
+    this.service.start();
+  }
+
+  /**
+   * 单节点：独立的内存归属目录和回环取消总线
+   */
+  static SseTestFixture start(SseProperties properties) {
+    return start(properties, new InMemoryStreamOwnershipDirectory(), new LoopbackCancelBus());
+  }
+
+  /**
+   * 单节点，发送队列记录到给定的计量
+   */
+  static SseTestFixture start(SseProperties properties, SseMetrics metrics) {
+    return new SseTestFixture(properties, new SseOutboundQueues(properties, metrics),
+        new InMemoryStreamOwnershipDirectory(), new LoopbackCancelBus());
+  }
+
+  /**
+   * 集群中的一个节点：多个节点传入同一个归属目录和取消总线
+   */
+  static SseTestFixture start(SseProperties properties, StreamOwnershipDirectory directory, CancelBus cancelBus) {
+    return new SseTestFixture(properties, new SseOutboundQueues(properties), directory, cancelBus);
+  }
+
+  @Override
+  public void close() {
+    service.shutdown();
+    clusterNode.shutdown();
+    tickScheduler.shutdown();
+    queues.shutdown();
+  }
+
+  /**
+   * 一个完整的 SSE 帧（UTF-8 字节）
+   */
+  static byte[] frame(String data) {
+    return ("event:test\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 记录 send 次数（每次一个 flush）和其中的 data 数量；failing 为 true 时每次 send 都模拟客户端断开
+   */
+  static class RecordingEmitter extends SseEmitter {
+    final AtomicInteger sends = new AtomicInteger();
+    final AtomicInteger payloads = new AtomicInteger();
+    final CountDownLatch completed = new CountDownLatch(1);
+    private final boolean failing;
+
+    RecordingEmitter() {
+      this(false);
+    }
+
+    RecordingEmitter(boolean failing) {
+      this.failing = failing;
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) throws IOException {
+      if (failing) {
+        throw new IOException("Broken pipe");
+      }
+      sends.incrementAndGet();
+      items.stream().filter(item -> item.getData() instanceof byte[]).forEach(item -> payloads.incrementAndGet());
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+  }
+}
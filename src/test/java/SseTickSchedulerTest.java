@@ -0,0 +1,121 @@
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseTickScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseTickSchedulerTest {
+
+  private SseTickScheduler tickScheduler;
+
+  @BeforeEach
+  void setUp() {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(20));
+    properties.getTick().setBatchSize(64);
+    properties.getTick().setFanOutThreads(2);
+    tickScheduler = new SseTickScheduler(properties);
+    tickScheduler.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    tickScheduler.shutdown();
+  }
+
+  @Test
+  void register_drivesEveryListenerFromOneTimer() throws Exception {
+    int streams = 1_000;
+    CountDownLatch latch = new CountDownLatch(streams * 3);
+    for (int i = 0; i < streams; i++) {
+      tickScheduler.register(sequence -> latch.countDown());
+    }
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS), "所有流都应收到至少 3 次 tick");
+    Map<String, Object> stats = tickScheduler.stats();
+    assertEquals(streams, stats.get("registered"));
+  }
+
+  @Test
+  void dispose_stopsFurtherTicks() throws Exception {
+    AtomicInteger received = new AtomicInteger();
+    CountDownLatch first = new CountDownLatch(1);
+    Disposable disposable = tickScheduler.register(sequence -> {
+      received.incrementAndGet();
+      first.countDown();
+    });
+
+    assertTrue(first.await(5, TimeUnit.SECONDS));
+    disposable.dispose();
+    int afterDispose = received.get();
+    Thread.sleep(100);
+
+    assertTrue(disposable.isDisposed());
+    assertTrue(received.get() <= afterDispose + 1, "注销后不应继续收到 tick");
+    assertEquals(0, tickScheduler.stats().get("registered"));
+  }
+
+  @Test
+  void start_beginsTicking() throws Exception {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(10));
+    SseTickScheduler idle = new SseTickScheduler(properties);
+    try {
+      idle.register(sequence -> {
+      });
+      Thread.sleep(50);
+      assertEquals(0L, idle.stats().get("ticks"), "构造后未 start 不应产生 tick");
+
+      CountDownLatch ticked = new CountDownLatch(1);
+      idle.register(sequence -> ticked.countDown());
+      idle.start();
+      idle.start();
+      assertTrue(ticked.await(5, TimeUnit.SECONDS), "start 之后开始 tick");
+    } finally {
+      idle.shutdown();
+    }
+  }
+
+  @Test
+  void slowFanOut_skipsTicksInsteadOfQueueing() throws Exception {
+    SseProperties properties = new SseProperties();
+    properties.getTick().setPeriod(Duration.ofMillis(10));
+    properties.getTick().setBatchSize(1);
+    properties.getTick().setFanOutThreads(1);
+    properties.getTick().setMaxPendingBatches(4);
+    SseTickScheduler slowScheduler = new SseTickScheduler(properties);
+    slowScheduler.start();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      slowScheduler.register(sequence -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      for (int i = 0; i < 9; i++) {
+        slowScheduler.register(sequence -> {
+        });
+      }
+      Thread.sleep(200);
+
+      Map<String, Object> stats = slowScheduler.stats();
+      assertTrue((int) stats.get("pendingBatches") <= 4);
+      assertTrue((long) stats.get("skippedTicks") > 0, "发送阻塞期间应整 tick 跳过");
+      assertTrue((long) stats.get("skippedBatches") > 0, "队列排满后剩余批次应跳过");
+    } finally {
+      release.countDown();
+      slowScheduler.shutdown();
+    }
+  }
+}
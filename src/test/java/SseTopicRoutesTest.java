@@ -0,0 +1,62 @@
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.example.java_code.JavaCodeApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 主题统计不占用主题名：/api/sse/topics/stats 是名为 stats 的主题，统计在 /api/sse/topic-stats
+ */
+@SpringBootTest(classes = JavaCodeApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SseTopicRoutesTest {
+
+  @LocalServerPort
+  private int port;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void topicNamedStats_isSubscribable() throws Exception {
+    HttpResponse<InputStream> response = client
+        .sendAsync(get("/api/sse/topics/stats"), HttpResponse.BodyHandlers.ofInputStream())
+        .get(10, TimeUnit.SECONDS);
+
+    try (InputStream body = response.body()) {
+      assertEquals(200, response.statusCode());
+      assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+      StringBuilder received = new StringBuilder();
+      byte[] buffer = new byte[256];
+      while (!received.toString().contains("\n\n")) {
+        int read = body.read(buffer);
+        if (read < 0) {
+          break;
+        }
+        received.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+      }
+      assertTrue(received.toString().contains("topicSubscribed"), received.toString());
+    }
+  }
+
+  @Test
+  void stats_areServedOutsideTheTopicNamespace() throws Exception {
+    HttpResponse<String> response = client
+        .sendAsync(get("/api/sse/topic-stats"), HttpResponse.BodyHandlers.ofString())
+        .get(10, TimeUnit.SECONDS);
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().contains("\"subscribers\""), response.body());
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+  }
+}
@@ -0,0 +1,109 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.example.java_code.config.SseProperties;
+import org.example.java_code.see.SseTickScheduler;
+import org.example.java_code.see.SseTopicService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseTopicServiceTest {
+
+  private SseTickScheduler tickScheduler;
+
+  private SseTopicService topicService;
+
+  @BeforeEach
+  void setUp() {
+    SseProperties properties = new SseProperties();
+    // 心跳周期足够长，测试只观察手动发布的消息
+    properties.getTick().setPeriod(Duration.ofMinutes(10));
+    tickScheduler = new SseTickScheduler(properties);
+    tickScheduler.start();
+    topicService = new SseTopicService(tickScheduler, new ObjectMapper(), properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    tickScheduler.shutdown();
+  }
+
+  @Test
+  void subscribersShareOneProducer_andSlowSubscriberIsDisconnected() {
+    List<ServerSentEvent<String>> fast = new CopyOnWriteArrayList<>();
+    Disposable fastSubscription = topicService.subscribe("orders", 16, SseProperties.OverflowPolicy.DROP_OLDEST)
+        .subscribe(fast::add);
+
+    // 慢订阅者只请求 1 个事件（topicSubscribed），之后不再请求
+    AtomicBoolean slowCompleted = new AtomicBoolean();
+    BaseSubscriber<ServerSentEvent<String>> slow = new BaseSubscriber<>() {
+      @Override
+      protected void hookOnSubscribe(Subscription subscription) {
+        request(1);
+      }
+
+      @Override
+      protected void hookOnComplete() {
+        slowCompleted.set(true);
+      }
+    };
+    topicService.subscribe("orders", 2, SseProperties.OverflowPolicy.DISCONNECT).subscribe(slow);
+
+    assertEquals(1, tickScheduler.stats().get("registered"));
+    assertEquals(2, topicService.publish("orders", "m1"));
+    for (int i = 2; i <= 10; i++) {
+      topicService.publish("orders", "m" + i);
+    }
+
+    // 快订阅者收到 topicSubscribed + 全部 10 条消息，不受慢订阅者影响
+    assertEquals(11, fast.size());
+    assertTrue(fast.get(10).data().contains("\"message\":\"m10\""));
+    assertTrue(slowCompleted.get());
+    Map<String, Object> stats = topicService.stats();
+    assertEquals(1L, stats.get("disconnectedSlow"));
+    assertEquals(10L, stats.get("published"));
+
+    fastSubscription.dispose();
+    assertEquals(0, topicService.stats().get("topics"));
+    assertEquals(0, tickScheduler.stats().get("registered"));
+    assertEquals(0, topicService.publish("orders", "after"));
+  }
+
+  @Test
+  void dropOldest_keepsMostRecentEvents() {
+    List<String> received = new CopyOnWriteArrayList<>();
+    BaseSubscriber<ServerSentEvent<String>> slow = new BaseSubscriber<>() {
+      @Override
+      protected void hookOnSubscribe(Subscription subscription) {
+        request(1);
+      }
+
+      @Override
+      protected void hookOnNext(ServerSentEvent<String> value) {
+        received.add(value.data());
+      }
+    };
+    topicService.subscribe("metrics", 3, SseProperties.OverflowPolicy.DROP_OLDEST).subscribe(slow);
+    for (int i = 1; i <= 10; i++) {
+      topicService.publish("metrics", "m" + i);
+    }
+    slow.request(10);
+
+    assertEquals(4, received.size());
+    assertTrue(received.get(1).contains("\"message\":\"m8\""));
+    assertTrue(received.get(3).contains("\"message\":\"m10\""));
+    assertEquals(7L, topicService.stats().get("droppedOldest"));
+    slow.dispose();
+  }
+}
@@ -0,0 +1,343 @@
+package org.example.java_code.stub;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.example.java_code.dto.ApiResponse;
+import org.example.java_code.dto.GenerationRequest;
+
+/**
+ * 本地生成接口桩：实现 group_intro/generate 的 invoke / stream 约定，供测试和基准在离线环境下替代真实上游
+ * <p>
+ * 1. POST /group_intro/generate/invoke：按 GenerationRequest 解析请求，等待 latency 抽样的耗时后返回 ApiResponse
+ * 2. POST /group_intro/generate/stream：等待 latency 后按 chunks 个 data 事件推送简介（间隔 chunkDelay），最后发 end 事件
+ * 3. 每个请求以 errorRate 的概率失败：invoke 返回 errorStatus，stream 在推送一半后发 error 事件
+ * <p>
+ * 耗时和失败由固定种子的 Random 抽样，同样的配置和请求顺序得到同样的序列；并发请求的抽样顺序取决于到达顺序。
+ * 每个请求在一个虚拟线程上处理，等待不占用平台线程。所有配置可以在运行中修改。
+ */
+public final class StubGenerationServer implements AutoCloseable {
+
+  public static final String INVOKE_PATH = "/group_intro/generate/invoke";
+
+  public static final String STREAM_PATH = "/group_intro/generate/stream";
+
+  private static final byte[] ERROR_BODY = "{\"error\":\"stub failure\"}".getBytes(StandardCharsets.UTF_8);
+
+  static {
+    // JDK HttpServer 默认不关闭 Nagle：响应头和响应体分两次写出，遇上客户端延迟 ACK 时每个请求多等约 40ms
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final HttpServer server;
+
+  private final ExecutorService executor;
+
+  private final Random random;
+
+  private final LongAdder requests = new LongAdder();
+
+  private final LongAdder errors = new LongAdder();
+
+  private final LongAdder streams = new LongAdder();
+
+  private final AtomicLong delayNextNanos = new AtomicLong(-1);
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private volatile Latency latency = Latency.fixed(Duration.ZERO);
+
+  private volatile double errorRate;
+
+  private volatile int errorStatus = 500;
+
+  private volatile int introductionLength = 200;
+
+  private volatile int chunks = 10;
+
+  private volatile Duration chunkDelay = Duration.ZERO;
+
+  private StubGenerationServer(long seed) throws IOException {
+    this.random = new Random(seed);
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext(INVOKE_PATH, this::invoke);
+    server.createContext(STREAM_PATH, this::stream);
+    server.start();
+  }
+
+  /**
+   * 在随机端口启动，种子固定为 42
+   */
+  public static StubGenerationServer start() throws IOException {
+    return start(42);
+  }
+
+  public static StubGenerationServer start(long seed) throws IOException {
+    return new StubGenerationServer(seed);
+  }
+
+  public String invokeUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + INVOKE_PATH;
+  }
+
+  public String streamUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + STREAM_PATH;
+  }
+
+  public void setLatency(Latency latency) {
+    this.latency = latency;
+  }
+
+  public void setErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+  }
+
+  public void setErrorStatus(int errorStatus) {
+    this.errorStatus = errorStatus;
+  }
+
+  public void setIntroductionLength(int introductionLength) {
+    this.introductionLength = introductionLength;
+  }
+
+  public void setChunks(int chunks) {
+    this.chunks = Math.max(1, chunks);
+  }
+
+  public void setChunkDelay(Duration chunkDelay) {
+    this.chunkDelay = chunkDelay;
+  }
+
+  /**
+   * 下一个请求改为等待 delay（只生效一次），用于构造单个慢请求
+   */
+  public void delayNext(Duration delay) {
+    delayNextNanos.set(delay.toNanos());
+  }
+
+  /**
+   * 收到的请求数（invoke + stream）
+   */
+  public long requests() {
+    return requests.sum();
+  }
+
+  /**
+   * 按 errorRate 注入的失败数（不含格式错误的请求）
+   */
+  public long errors() {
+    return errors.sum();
+  }
+
+  public long streams() {
+    return streams.sum();
+  }
+
+  /**
+   * 同时处理中的请求数峰值（从收到请求到写完响应），客户端断开后桩服务仍按 latency 等待，与真实上游一致
+   */
+  public int maxInFlight() {
+    return maxInFlight.get();
+  }
+
+  public void reset() {
+    requests.reset();
+    errors.reset();
+    streams.reset();
+    maxInFlight.set(inFlight.get());
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void invoke(HttpExchange exchange) throws IOException {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try (exchange) {
+      requests.increment();
+      GenerationRequest request = readRequest(exchange);
+      if (request == null) {
+        return;
+      }
+      pause(nextDelayNanos());
+      if (nextFailure()) {
+        respond(exchange, errorStatus, ERROR_BODY);
+        return;
+      }
+      ApiResponse response = new ApiResponse();
+      ApiResponse.OutputDTO output = new ApiResponse.OutputDTO();
+      output.setIntroduction(introduction(request));
+      response.setOutput(output);
+      ApiResponse.MetadataDTO metadata = new ApiResponse.MetadataDTO();
+      metadata.setRunId("stub-" + requests.sum());
+      response.setMetadata(metadata);
+      respond(exchange, 200, objectMapper.writeValueAsBytes(response));
+    } catch (IOException e) {
+      // 客户端已断开（超时、对冲请求胜出后取消）
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private void stream(HttpExchange exchange) throws IOException {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try (exchange) {
+      requests.increment();
+      streams.increment();
+      GenerationRequest request = readRequest(exchange);
+      if (request == null) {
+        return;
+      }
+      pause(nextDelayNanos());
+      String introduction = introduction(request);
+      int total = Math.min(chunks, Math.max(1, introduction.length()));
+      int failAt = nextFailure() ? total / 2 : -1;
+
+      exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream out = exchange.getResponseBody();
+      for (int i = 0; i < total; i++) {
+        if (i == failAt) {
+          writeEvent(out, "error", new String(ERROR_BODY, StandardCharsets.UTF_8));
+          return;
+        }
+        if (i > 0) {
+          pause(chunkDelay.toNanos());
+        }
+        String chunk = introduction.substring(i * introduction.length() / total,
+            (i + 1) * introduction.length() / total);
+        writeEvent(out, "data", objectMapper.writeValueAsString(Map.of("introduction", chunk)));
+      }
+      writeEvent(out, "end", "");
+    } catch (IOException e) {
+      // 客户端已断开
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * 不是合法的 GenerationRequest（或缺少 input）时返回 400 和 null
+   */
+  private GenerationRequest readRequest(HttpExchange exchange) throws IOException {
+    GenerationRequest request;
+    try {
+      request = objectMapper.readValue(exchange.getRequestBody(), GenerationRequest.class);
+    } catch (IOException e) {
+      request = null;
+    }
+    if (request == null || request.getInput() == null) {
+      respond(exchange, 400, "{\"error\":\"invalid request\"}".getBytes(StandardCharsets.UTF_8));
+      return null;
+    }
+    return request;
+  }
+
+  /**
+   * 简介内容只取决于 table_group_id 和 introductionLength，相同请求得到相同结果
+   */
+  private String introduction(GenerationRequest request) {
+    String head = request.getInput().getTableGroupId() + " 简介：";
+    StringBuilder text = new StringBuilder(head);
+    while (text.length() < introductionLength) {
+      text.append("该表组汇总订单、支付与履约数据，按天分区。");
+    }
+    return text.length() > introductionLength && introductionLength > head.length()
+        ? text.substring(0, introductionLength)
+        : text.toString();
+  }
+
+  private long nextDelayNanos() {
+    long next = delayNextNanos.getAndSet(-1);
+    return next >= 0 ? next : latency.nextNanos(random);
+  }
+
+  private boolean nextFailure() {
+    double rate = errorRate;
+    if (rate > 0 && random.nextDouble() < rate) {
+      errors.increment();
+      return true;
+    }
+    return false;
+  }
+
+  private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static void writeEvent(OutputStream out, String event, String data) throws IOException {
+    out.write(("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private static void pause(long nanos) {
+    if (nanos > 0) {
+      LockSupport.parkNanos(nanos);
+    }
+  }
+
+  /**
+   * 响应耗时分布
+   */
+  @FunctionalInterface
+  public interface Latency {
+
+    long nextNanos(Random random);
+
+    static Latency fixed(Duration latency) {
+      long nanos = latency.toNanos();
+      return random -> nanos;
+    }
+
+    static Latency uniform(Duration min, Duration max) {
+      long low = min.toNanos();
+      long span = Math.max(1, max.toNanos() - low);
+      return random -> low + (long) (random.nextDouble() * span);
+    }
+
+    /**
+     * 对数正态分布：中位数为 median，sigma 越大尾部越长（sigma=0.5 时 p99 约为中位数的 3.2 倍）
+     */
+    static Latency logNormal(Duration median, double sigma) {
+      double mu = Math.log(median.toNanos());
+      return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * 以 probability 的概率改为等待 tail，模拟偶发的慢请求（GC、排队、冷缓存）
+     */
+    static Latency withTail(Latency base, double probability, Duration tail) {
+      long tailNanos = tail.toNanos();
+      return random -> random.nextDouble() < probability ? tailNanos : base.nextNanos(random);
+    }
+  }
+}